@@ -0,0 +1,76 @@
+package benchmarks;
+
+import model.Solution;
+import model.SolveMode;
+import org.openjdk.jmh.annotations.*;
+import solver.BitboardSolver;
+import storage.SolutionStore;
+import worker.ForkJoinSolverWorker;
+import worker.ParallelSolverWorker;
+import worker.SolverWorker;
+import worker.VirtualThreadSolverWorker;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FirstSolutionLatencyBenchmark
+ * -----------------------------
+ * End-to-end latency of a first-solution request through the parallel
+ * engines, including pool start-up and early termination, for a single
+ * client and for 16 concurrent clients.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FirstSolutionLatencyBenchmark {
+
+    @Param({"8", "10", "12", "14", "16"})
+    public int n;
+
+    @Benchmark
+    public Solution forkJoinFirst() throws Exception {
+        return first(new ForkJoinSolverWorker(new BitboardSolver(), new SolutionStore()));
+    }
+
+    @Benchmark
+    public Solution poolFirst() throws Exception {
+        return first(new ParallelSolverWorker(new BitboardSolver(), new SolutionStore(),
+                Runtime.getRuntime().availableProcessors()));
+    }
+
+    @Benchmark
+    public Solution virtualFirst() throws Exception {
+        return first(new VirtualThreadSolverWorker(new BitboardSolver(), new SolutionStore()));
+    }
+
+    /** Many clients at once: every request starts its own pool. */
+    @Benchmark
+    @Threads(16)
+    public Solution poolFirstConcurrent() throws Exception {
+        return poolFirst();
+    }
+
+    /** Many clients at once: all requests share the carrier threads. */
+    @Benchmark
+    @Threads(16)
+    public Solution virtualFirstConcurrent() throws Exception {
+        return virtualFirst();
+    }
+
+    private Solution first(SolverWorker worker) throws Exception {
+        CompletableFuture<Solution> first = new CompletableFuture<>();
+        worker.start(
+                n,
+                SolveMode.FIRST,
+                null,
+                first::complete,
+                () -> first.complete(null),
+                first::completeExceptionally
+        );
+        return first.get();
+    }
+}
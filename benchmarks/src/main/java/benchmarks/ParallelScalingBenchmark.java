@@ -0,0 +1,47 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import solver.BitboardSolver;
+import storage.SolutionStore;
+import worker.ForkJoinSolverWorker;
+import worker.ParallelSolverWorker;
+import worker.SolverWorker;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ParallelScalingBenchmark
+ * ------------------------
+ * Count-all wall time of the execution engines by thread count.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParallelScalingBenchmark {
+
+    @Param({"12", "14", "16"})
+    public int n;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Benchmark
+    public long forkJoinCount() throws Exception {
+        return count(new ForkJoinSolverWorker(new BitboardSolver(), new SolutionStore(), threads, 0));
+    }
+
+    @Benchmark
+    public long fixedPoolCount() throws Exception {
+        return count(new ParallelSolverWorker(new BitboardSolver(), new SolutionStore(), threads));
+    }
+
+    private long count(SolverWorker worker) throws Exception {
+        CompletableFuture<Long> total = new CompletableFuture<>();
+        worker.count(n, total::complete, total::completeExceptionally);
+        return total.get();
+    }
+}
@@ -0,0 +1,64 @@
+package benchmarks;
+
+import model.Solution;
+import org.openjdk.jmh.annotations.*;
+import storage.SolutionStore;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SolutionStoreBenchmark
+ * ----------------------
+ * Contention of concurrent writers on SolutionStore.
+ *
+ * Run with several threads (e.g. {@code -t 4}) to compare direct adds
+ * against per-thread appenders for each storage mode.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class SolutionStoreBenchmark {
+
+    private static final int N = 12;
+
+    @Param({"OBJECTS", "PACKED", "PACKED_OFF_HEAP"})
+    public SolutionStore.Mode mode;
+
+    private SolutionStore store;
+
+    @State(Scope.Thread)
+    public static class Writer {
+        SolutionStore.Appender appender;
+        final Solution solution = new Solution(new int[]{0, 2, 4, 7, 9, 11, 5, 10, 1, 6, 8, 3});
+
+        @Setup(Level.Iteration)
+        public void setUp(SolutionStoreBenchmark benchmark) {
+            appender = benchmark.store.appender();
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            appender.flush();
+        }
+    }
+
+    // A fresh store per iteration keeps memory bounded
+    @Setup(Level.Iteration)
+    public void setUp() {
+        store = new SolutionStore(mode);
+    }
+
+    @Benchmark
+    public void add(Writer writer) {
+        store.add(writer.solution);
+    }
+
+    @Benchmark
+    public void appenderAdd(Writer writer) {
+        writer.appender.add(writer.solution);
+    }
+}
@@ -0,0 +1,56 @@
+package benchmarks;
+
+import model.Solution;
+import org.openjdk.jmh.annotations.*;
+import solver.BacktrackingSolver;
+import solver.BitboardSolver;
+import solver.Solver;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SolverBenchmark
+ * ---------------
+ * Single-threaded cost of the pure algorithms.
+ *
+ * - firstSolution: latency until the first complete board
+ * - countAll: throughput of counting every solution
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SolverBenchmark {
+
+    @Param({"8", "10", "12", "14", "16"})
+    public int n;
+
+    @Param({"backtracking", "bitboard"})
+    public String solverName;
+
+    private Solver solver;
+
+    @Setup
+    public void setUp() {
+        solver = switch (solverName) {
+            case "backtracking" -> new BacktrackingSolver();
+            case "bitboard" -> new BitboardSolver();
+            default -> throw new IllegalArgumentException("Unknown solver: " + solverName);
+        };
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Solution> firstSolution() throws InterruptedException {
+        return solver.solve(n, null, null, false);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public long countAll() {
+        return solver.count(n);
+    }
+}
@@ -2,12 +2,15 @@ import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import ui.controllers.MainController;
 
 public class Main extends Application {
     @Override
     public void start(Stage stage) throws Exception {
         FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/main.fxml"));
         Scene scene = new Scene(loader.load());
+        MainController controller = loader.getController();
+        stage.setOnHidden(event -> controller.shutdown());
         stage.setTitle("N-Queens Visualizer");
         stage.setScene(scene);
         stage.setWidth(900);
@@ -0,0 +1,381 @@
+package cli;
+
+import model.SolveMode;
+import solver.BitboardSolver;
+import solver.ConstructiveSolver;
+import storage.SolutionFile;
+import task.SubtreeEstimator;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * CliOptions
+ * ----------
+ * Parsed command line of {@link HeadlessMain}.
+ *
+ * Invalid input is reported with IllegalArgumentException; the message is
+ * meant to be shown to the user next to {@link #USAGE}.
+ */
+public final class CliOptions {
+
+    /** Output format of a batch run. */
+    public enum Format {
+        /** One summary line per N, followed by one line per board. */
+        TEXT,
+        /** A single JSON document with one entry per N. */
+        JSON,
+        /** One {@link storage.SolutionFile} per N, plus a text summary. */
+        BINARY
+    }
+
+    /** Threads that run the search in this JVM. */
+    public enum Backend {
+        /** A fixed pool of -t platform threads. */
+        POOL,
+        /** One virtual thread per task; the JVM's carrier threads run them. */
+        VIRTUAL
+    }
+
+    static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: java -cp <classes> cli.HeadlessMain -n <sizes> [options]",
+            "",
+            "  -n, --n <sizes>       board sizes, e.g. 8, 8-12 or 4,8,10-12 (required)",
+            "                        (above 64 only with mode first, which then builds the board directly)",
+            "  -m, --mode <mode>     first | all | unique | count (default: count)",
+            "  -t, --threads <k>     worker threads (default: available processors)",
+            "  -b, --backend <name>  pool | virtual (default: pool)",
+            "  -f, --format <fmt>    text | json | binary (default: text)",
+            "  -o, --output <dir>    directory for binary solution files (default: .)",
+            "  -c, --checkpoint <dir>",
+            "                        save progress there and resume from it after a restart",
+            "                        (count mode, binary format or --no-boards)",
+            "      --listen <addr>   solve on worker processes that connect to host:port or unix:/path",
+            "                        (start them with cluster.ClusterWorker --connect <addr>)",
+            "      --spawn <k>       start k local worker processes with -t threads each",
+            "      --pin <row:col,...>",
+            "                        keep queens on these squares (mode first, solved by local search)",
+            "      --seed <s>        seed of the local search (default: random)",
+            "      --progress <sec>  print percent complete and ETA to stderr every sec seconds",
+            "      --estimate-overhead <fraction>",
+            "                        share of the run spent estimating subtree sizes (default: 0.01;",
+            "                        0 splits by first row only)",
+            "      --no-boards       print only the summary of each N",
+            "  -h, --help            show this help");
+
+    private final List<Integer> sizes;
+    private final SolveMode mode;
+    private final int threads;
+    private final Backend backend;
+    private final Format format;
+    private final Path outputDir;
+    private final boolean printBoards;
+    private final Path checkpointDir;
+    private final String listenAddress;
+    private final int spawn;
+    private final Map<Integer, Integer> pins;
+    private final long seed;
+    private final int progressSeconds;
+    private final double estimateOverhead;
+    private final boolean help;
+
+    private CliOptions(
+            List<Integer> sizes,
+            SolveMode mode,
+            int threads,
+            Backend backend,
+            Format format,
+            Path outputDir,
+            boolean printBoards,
+            Path checkpointDir,
+            String listenAddress,
+            int spawn,
+            Map<Integer, Integer> pins,
+            long seed,
+            int progressSeconds,
+            double estimateOverhead,
+            boolean help
+    ) {
+        this.sizes = sizes;
+        this.mode = mode;
+        this.threads = threads;
+        this.backend = backend;
+        this.format = format;
+        this.outputDir = outputDir;
+        this.printBoards = printBoards;
+        this.checkpointDir = checkpointDir;
+        this.listenAddress = listenAddress;
+        this.spawn = spawn;
+        this.pins = pins;
+        this.seed = seed;
+        this.progressSeconds = progressSeconds;
+        this.estimateOverhead = estimateOverhead;
+        this.help = help;
+    }
+
+    /**
+     * Parses the program arguments.
+     *
+     * @throws IllegalArgumentException on unknown options or invalid values
+     */
+    public static CliOptions parse(String[] args) {
+        List<Integer> sizes = null;
+        SolveMode mode = SolveMode.COUNT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Backend backend = Backend.POOL;
+        Format format = Format.TEXT;
+        Path outputDir = Path.of(".");
+        boolean printBoards = true;
+        Path checkpointDir = null;
+        String listenAddress = null;
+        int spawn = 0;
+        Map<Integer, Integer> pins = Map.of();
+        long seed = System.nanoTime();
+        int progressSeconds = 0;
+        double estimateOverhead = SubtreeEstimator.DEFAULT_OVERHEAD;
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            switch (option) {
+                case "-h", "--help" -> {
+                    return new CliOptions(List.of(), mode, threads, backend, format, outputDir, printBoards, null, null, 0,
+                            pins, seed, progressSeconds, estimateOverhead, true);
+                }
+                case "--no-boards" -> printBoards = false;
+                case "-n", "--n" -> sizes = parseSizes(value(args, ++i, option));
+                case "-m", "--mode" -> mode = parseEnum(SolveMode.class, value(args, ++i, option), option);
+                case "-t", "--threads" -> threads = parsePositive(value(args, ++i, option), option);
+                case "-b", "--backend" -> backend = parseEnum(Backend.class, value(args, ++i, option), option);
+                case "-f", "--format" -> format = parseEnum(Format.class, value(args, ++i, option), option);
+                case "-o", "--output" -> outputDir = Path.of(value(args, ++i, option));
+                case "-c", "--checkpoint" -> checkpointDir = Path.of(value(args, ++i, option));
+                case "--listen" -> listenAddress = value(args, ++i, option);
+                case "--spawn" -> spawn = parsePositive(value(args, ++i, option), option);
+                case "--pin" -> pins = parsePins(value(args, ++i, option));
+                case "--seed" -> seed = parseLong(value(args, ++i, option), option);
+                case "--progress" -> progressSeconds = parsePositive(value(args, ++i, option), option);
+                case "--estimate-overhead" -> estimateOverhead = parseFraction(value(args, ++i, option), option);
+                default -> throw new IllegalArgumentException("Unknown option: " + option);
+            }
+        }
+
+        if (sizes == null) {
+            throw new IllegalArgumentException("Missing board sizes (-n)");
+        }
+        int largest = sizes.get(sizes.size() - 1);
+        if (largest > BitboardSolver.MAX_N && mode != SolveMode.FIRST) {
+            throw new IllegalArgumentException("Board sizes above " + BitboardSolver.MAX_N
+                    + " need mode first: " + largest);
+        }
+        if (largest > SolutionFile.MAX_N && format == Format.BINARY) {
+            throw new IllegalArgumentException("Board sizes above " + SolutionFile.MAX_N
+                    + " cannot be written in binary format: " + largest);
+        }
+        if (!pins.isEmpty() && mode != SolveMode.FIRST) {
+            throw new IllegalArgumentException("--pin needs mode first");
+        }
+        if (checkpointDir != null) {
+            if (listenAddress != null || spawn > 0) {
+                throw new IllegalArgumentException("--checkpoint cannot be combined with worker processes");
+            }
+            if (backend == Backend.VIRTUAL) {
+                throw new IllegalArgumentException("--checkpoint cannot be used with backend virtual");
+            }
+            if (mode == SolveMode.FIRST) {
+                throw new IllegalArgumentException("--checkpoint cannot be used with mode first");
+            }
+            if (mode != SolveMode.COUNT && format != Format.BINARY && printBoards) {
+                // Boards printed from memory cannot be restored after a restart
+                throw new IllegalArgumentException("--checkpoint needs count mode, binary format or --no-boards");
+            }
+        }
+        return new CliOptions(sizes, mode, threads, backend, format, outputDir, printBoards, checkpointDir,
+                listenAddress, spawn, pins, seed, progressSeconds, estimateOverhead, false);
+    }
+
+    /**
+     * Parses a comma-separated list of sizes and inclusive ranges.
+     * The result is sorted and free of duplicates.
+     */
+    static List<Integer> parseSizes(String text) {
+        TreeSet<Integer> sizes = new TreeSet<>();
+        for (String part : text.split(",")) {
+            String trimmed = part.trim();
+            int dash = trimmed.indexOf('-', 1);
+            int from = parseSize(dash < 0 ? trimmed : trimmed.substring(0, dash));
+            int to = dash < 0 ? from : parseSize(trimmed.substring(dash + 1));
+            if (from > to) {
+                throw new IllegalArgumentException("Empty size range: " + trimmed);
+            }
+            for (int n = from; n <= to; n++) {
+                sizes.add(n);
+            }
+        }
+        return new ArrayList<>(sizes);
+    }
+
+    /**
+     * Parses a comma-separated list of row:col squares (0-based).
+     */
+    static Map<Integer, Integer> parsePins(String text) {
+        Map<Integer, Integer> pins = new TreeMap<>();
+        for (String part : text.split(",")) {
+            String trimmed = part.trim();
+            int colon = trimmed.indexOf(':');
+            int row;
+            int col;
+            try {
+                row = Integer.parseInt(trimmed.substring(0, Math.max(0, colon)).trim());
+                col = Integer.parseInt(trimmed.substring(colon + 1).trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid square (expected row:col): " + trimmed);
+            }
+            if (row < 0 || col < 0) {
+                throw new IllegalArgumentException("Invalid square (expected row:col): " + trimmed);
+            }
+            Integer previous = pins.put(row, col);
+            if (previous != null && previous != col) {
+                throw new IllegalArgumentException("Two queens pinned in row " + row);
+            }
+        }
+        return pins;
+    }
+
+    private static int parseSize(String text) {
+        int n;
+        try {
+            n = Integer.parseInt(text.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid board size: " + text);
+        }
+        if (n < 1 || n > ConstructiveSolver.MAX_N) {
+            throw new IllegalArgumentException("Board size must be between 1 and " + ConstructiveSolver.MAX_N + ": " + n);
+        }
+        return n;
+    }
+
+    private static int parsePositive(String text, String option) {
+        try {
+            int value = Integer.parseInt(text);
+            if (value > 0) {
+                return value;
+            }
+        } catch (NumberFormatException ignored) {
+            // reported below
+        }
+        throw new IllegalArgumentException(option + " expects a positive number: " + text);
+    }
+
+    private static long parseLong(String text, String option) {
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(option + " expects a number: " + text);
+        }
+    }
+
+    private static double parseFraction(String text, String option) {
+        try {
+            double value = Double.parseDouble(text);
+            if (value >= 0 && value < 1) {
+                return value;
+            }
+        } catch (NumberFormatException ignored) {
+            // reported below
+        }
+        throw new IllegalArgumentException(option + " expects a fraction from 0 to below 1: " + text);
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String text, String option) {
+        try {
+            return Enum.valueOf(type, text.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid value for " + option + ": " + text);
+        }
+    }
+
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        return args[index];
+    }
+
+    public List<Integer> getSizes() {
+        return sizes;
+    }
+
+    public SolveMode getMode() {
+        return mode;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /** Threads that run the search when it is not distributed. */
+    public Backend getBackend() {
+        return backend;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public Path getOutputDir() {
+        return outputDir;
+    }
+
+    public boolean isPrintBoards() {
+        return printBoards;
+    }
+
+    /** Directory of the checkpoint files, or null if runs are not checkpointed. */
+    public Path getCheckpointDir() {
+        return checkpointDir;
+    }
+
+    /** Address the coordinator listens on, or null (also see {@link #isDistributed()}). */
+    public String getListenAddress() {
+        return listenAddress;
+    }
+
+    /** Number of local worker processes to start. */
+    public int getSpawn() {
+        return spawn;
+    }
+
+    /** Whether boards are solved by worker processes instead of in this JVM. */
+    public boolean isDistributed() {
+        return listenAddress != null || spawn > 0;
+    }
+
+    /** Pinned queens, row to column (empty if none). */
+    public Map<Integer, Integer> getPins() {
+        return pins;
+    }
+
+    /** Seed of the local search used with pinned queens. */
+    public long getSeed() {
+        return seed;
+    }
+
+    /** Seconds between progress lines on stderr, or 0 for none. */
+    public int getProgressSeconds() {
+        return progressSeconds;
+    }
+
+    /** Share of the run that may be spent estimating subtree sizes. */
+    public double getEstimateOverhead() {
+        return estimateOverhead;
+    }
+
+    public boolean isHelp() {
+        return help;
+    }
+}
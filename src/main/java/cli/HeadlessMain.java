@@ -0,0 +1,461 @@
+package cli;
+
+import cluster.ClusterSolverWorker;
+import cluster.Coordinator;
+import metrics.WorkProgress;
+import model.Solution;
+import model.SolveMode;
+import solver.BitboardSolver;
+import solver.ConstructiveSolver;
+import solver.MinConflictsSolver;
+import solver.Solver;
+import storage.Checkpoint;
+import storage.SolutionFile;
+import storage.SolutionSink;
+import storage.SolutionStore;
+import worker.ParallelSolverWorker;
+import worker.RangeSweep;
+import worker.SolverWorker;
+import worker.VirtualThreadSolverWorker;
+
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * HeadlessMain
+ * ------------
+ * Batch entry point without JavaFX.
+ *
+ * Responsibilities:
+ * - Parse the command line ({@link CliOptions})
+ * - Solve every requested board size with {@link ParallelSolverWorker}
+ *   (or {@link VirtualThreadSolverWorker} with --backend virtual); several
+ *   sizes share one pool through a {@link RangeSweep}
+ * - Measure wall time and search nodes per board size
+ * - Print results as text or JSON, or write binary solution files
+ * - Optionally checkpoint long runs and resume them after a restart
+ * - Optionally solve on worker processes through a {@link Coordinator}
+ * - Optionally print percent complete and an ETA to stderr while a board is solved
+ * - Build first solutions above {@link BitboardSolver#MAX_N} with {@link ConstructiveSolver},
+ *   and first solutions with pinned queens with {@link MinConflictsSolver}
+ *
+ * Important design notes:
+ * - Only the solver, task, worker and storage layers are used, so JavaFX
+ *   does not need to be on the classpath
+ * - Boards are kept packed in memory until printed; with --no-boards or in
+ *   COUNT mode they are not kept at all
+ * - A checkpoint is deleted once its run completes; a failed or killed run
+ *   leaves it behind, and the same command line then continues from it
+ * - A sweep prints each size as soon as it and all smaller sizes are done;
+ *   checkpoints, worker processes, pins and the virtual backend solve one
+ *   size after another instead
+ * - Exit status: 0 success, 1 failed run, 2 invalid arguments
+ */
+public class HeadlessMain {
+
+    private static final int EXIT_OK = 0;
+    private static final int EXIT_FAILED = 1;
+    private static final int EXIT_USAGE = 2;
+
+    /** Coordinator address when only local workers are spawned. */
+    private static final String LOCAL_ADDRESS = "127.0.0.1:0";
+    /** Time spawned workers get to start up and connect. */
+    private static final long SPAWN_TIMEOUT_MILLIS = 30_000;
+
+    /** Sink for runs whose boards are neither printed nor written. */
+    private static final SolutionSink DISCARD = () -> new SolutionSink.Appender() {
+        @Override
+        public void add(Solution solution) {
+        }
+
+        @Override
+        public void flush() {
+        }
+    };
+
+    private final CliOptions options;
+    private final ResultPrinter printer;
+    private Coordinator coordinator;
+
+    public HeadlessMain(CliOptions options, PrintStream out) {
+        this.options = options;
+        this.printer = ResultPrinter.forFormat(options.getFormat(), out, options.isPrintBoards());
+    }
+
+    public static void main(String[] args) {
+        CliOptions options;
+        try {
+            options = CliOptions.parse(args);
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println(CliOptions.USAGE);
+            System.exit(EXIT_USAGE);
+            return;
+        }
+
+        if (options.isHelp()) {
+            System.out.println(CliOptions.USAGE);
+            return;
+        }
+
+        PrintStream out = new PrintStream(
+                new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16),
+                false,
+                StandardCharsets.UTF_8
+        );
+
+        // Exit right away: nothing is left to wait for once the last result is printed
+        System.exit(new HeadlessMain(options, out).run());
+    }
+
+    /**
+     * Solves every board size in order and prints each result when it is done.
+     *
+     * @return process exit status
+     */
+    public int run() {
+        printer.begin(options.getThreads());
+        try {
+            if (options.isDistributed()) {
+                startCoordinator();
+            }
+            if (isSweep()) {
+                sweep();
+            } else {
+                for (int n : options.getSizes()) {
+                    printer.print(solve(n));
+                }
+            }
+            return EXIT_OK;
+        } catch (Exception ex) {
+            System.err.println("Failed: " + ex);
+            return EXIT_FAILED;
+        } finally {
+            if (coordinator != null) {
+                try {
+                    coordinator.close();
+                } catch (IOException ex) {
+                    System.err.println("Failed to stop the workers: " + ex);
+                }
+            }
+            printer.end();
+        }
+    }
+
+    /**
+     * Listens for worker processes and starts the local ones.
+     * All board sizes are then solved on the same workers.
+     */
+    private void startCoordinator() throws Exception {
+        String address = options.getListenAddress();
+        coordinator = Coordinator.listen(address != null ? address : LOCAL_ADDRESS);
+        if (address != null) {
+            System.err.println("Waiting for workers on " + coordinator.getAddress());
+        }
+        if (options.getSpawn() > 0) {
+            coordinator.spawnLocalWorkers(options.getSpawn(), options.getThreads());
+            coordinator.awaitWorkers(options.getSpawn(), SPAWN_TIMEOUT_MILLIS);
+        }
+    }
+
+    /**
+     * Whether all sizes can be queued on one shared pool.
+     */
+    private boolean isSweep() {
+        List<Integer> sizes = options.getSizes();
+        return sizes.size() > 1
+                && sizes.get(sizes.size() - 1) <= BitboardSolver.MAX_N
+                && coordinator == null
+                && options.getBackend() == CliOptions.Backend.POOL
+                && options.getCheckpointDir() == null
+                && options.getPins().isEmpty();
+    }
+
+    /**
+     * Solves all sizes on one pool, smallest first, and prints each result in
+     * order as soon as it is done.
+     */
+    private void sweep() throws Exception {
+        SolveMode mode = options.getMode();
+        boolean binary = options.getFormat() == CliOptions.Format.BINARY;
+        if (binary) {
+            Files.createDirectories(options.getOutputDir());
+        }
+
+        Map<Integer, SolutionStore> stores = new HashMap<>();
+        Map<Integer, SolutionFile.Writer> files = new HashMap<>();
+        ExecutorService pool = Executors.newFixedThreadPool(options.getThreads());
+        RangeSweep sweep = new RangeSweep(pool, options.getThreads(), options.getEstimateOverhead());
+        try {
+            List<RangeSweep.Run> runs = sweep.start(options.getSizes(), mode, n -> {
+                if (binary) {
+                    String name = "nqueens-" + n + "-" + mode.name().toLowerCase(Locale.ROOT);
+                    try {
+                        SolutionFile.Writer file = SolutionFile.create(options.getOutputDir().resolve(name + ".sol"), n);
+                        files.put(n, file);
+                        return file;
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                }
+                if (options.isPrintBoards()) {
+                    SolutionStore store = new SolutionStore(SolutionStore.Mode.PACKED);
+                    stores.put(n, store);
+                    return store;
+                }
+                return DISCARD;
+            });
+
+            for (RangeSweep.Run run : runs) {
+                int n = run.getN();
+                RangeSweep.Result result;
+                try {
+                    result = await(run.getResult(), run::progress, n);
+                } catch (ExecutionException ex) {
+                    if (ex.getCause() instanceof Exception cause) {
+                        throw cause;
+                    }
+                    throw ex;
+                }
+                SolutionFile.Writer file = files.remove(n);
+                if (file != null) {
+                    file.close();
+                }
+                printer.print(new RunResult(n, mode, result.getSolutions(), result.getTotal(),
+                        result.getElapsedNanos(), result.getNodes(), stores.remove(n),
+                        file != null ? file.getPath() : null));
+            }
+        } finally {
+            sweep.cancel(); // after a failure: queued units of the other sizes are skipped
+            pool.shutdown();
+            for (SolutionFile.Writer file : files.values()) {
+                file.close();
+            }
+        }
+    }
+
+    /**
+     * Solves a single board size and blocks until the worker is finished.
+     */
+    private RunResult solve(int n) throws Exception {
+        if (n > BitboardSolver.MAX_N || !options.getPins().isEmpty()) {
+            return solveFirst(n); // CliOptions allows both only in FIRST mode
+        }
+        SolveMode mode = options.getMode();
+        boolean binary = options.getFormat() == CliOptions.Format.BINARY;
+        String name = "nqueens-" + n + "-" + mode.name().toLowerCase(Locale.ROOT);
+
+        LongAdder nodes = new LongAdder();
+        Solver solver = new BitboardSolver(nodes);
+
+        Checkpoint checkpoint = null;
+        if (options.getCheckpointDir() != null) {
+            Files.createDirectories(options.getCheckpointDir());
+            checkpoint = Checkpoint.open(options.getCheckpointDir().resolve(name + ".ckpt"),
+                    n, mode, 0, Checkpoint.DEFAULT_INTERVAL_MILLIS);
+        }
+
+        SolutionStore store = null;
+        SolutionFile.Writer file = null;
+        SolutionSink sink = DISCARD;
+        if (mode != SolveMode.COUNT) {
+            if (binary) {
+                Files.createDirectories(options.getOutputDir());
+                Path path = options.getOutputDir().resolve(name + ".sol");
+                if (checkpoint != null) {
+                    // Keep the boards of finished prefixes; the others are searched again
+                    file = SolutionFile.resume(path, n, checkpoint::covers);
+                    checkpoint.attach(file);
+                } else {
+                    file = SolutionFile.create(path, n);
+                }
+                sink = file;
+            } else if (options.isPrintBoards()) {
+                store = new SolutionStore(SolutionStore.Mode.PACKED);
+                sink = store;
+            }
+        }
+
+        SolverWorker worker;
+        if (coordinator != null) {
+            worker = new ClusterSolverWorker(coordinator, sink, nodes);
+        } else if (options.getBackend() == CliOptions.Backend.VIRTUAL) {
+            worker = new VirtualThreadSolverWorker(solver, sink);
+        } else {
+            worker = new ParallelSolverWorker(solver, sink, options.getThreads(), null, checkpoint,
+                    options.getEstimateOverhead());
+        }
+        LongAdder solutions = new LongAdder();
+        LongAdder total = new LongAdder();
+        if (checkpoint != null && mode != SolveMode.COUNT) {
+            // Counts of skipped prefixes (COUNT adds them to its own total)
+            solutions.add(checkpoint.getResumedSolutions());
+            total.add(checkpoint.getResumedTotal());
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+
+        long start = System.nanoTime();
+        if (mode == SolveMode.COUNT) {
+            worker.count(
+                    n,
+                    count -> {
+                        solutions.add(count);
+                        total.add(count);
+                        done.complete(null);
+                    },
+                    done::completeExceptionally
+            );
+        } else {
+            worker.start(
+                    n,
+                    mode,
+                    null,
+                    solution -> {
+                        solutions.increment();
+                        total.add(solution.getMultiplicity());
+                    },
+                    () -> done.complete(null),
+                    done::completeExceptionally
+            );
+        }
+
+        boolean completed = false;
+        try {
+            await(done, worker::progress, n);
+            completed = true;
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw ex;
+        } finally {
+            try {
+                if (checkpoint != null) {
+                    if (completed) {
+                        checkpoint.discard();
+                    } else {
+                        checkpoint.close(); // keeps the progress for the next run
+                    }
+                }
+            } finally {
+                if (file != null) {
+                    file.close();
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Path path = file != null ? file.getPath() : null;
+        return new RunResult(n, mode, solutions.sum(), total.sum(), elapsed, nodes.sum(), store, path);
+    }
+
+    /**
+     * Waits for the run, printing its progress every --progress seconds.
+     */
+    private <T> T await(CompletableFuture<T> done, Supplier<WorkProgress> estimate, int n) throws Exception {
+        int seconds = options.getProgressSeconds();
+        if (seconds == 0) {
+            return done.get();
+        }
+        while (true) {
+            try {
+                return done.get(seconds, TimeUnit.SECONDS);
+            } catch (TimeoutException running) {
+                WorkProgress progress = estimate.get();
+                if (progress != null) {
+                    long eta = progress.getEtaMillis();
+                    System.err.printf(Locale.ROOT, "n=%d: %.1f%% done, %s%n", n, 100 * progress.getFraction(),
+                            eta < 0 ? "ETA unknown" : "ETA " + (eta + 500) / 1000 + " s");
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the first solution of a board too large to search, or repairs
+     * one around the pinned queens. Runs in this JVM, also when worker
+     * processes are attached.
+     */
+    private RunResult solveFirst(int n) throws Exception {
+        String name = "nqueens-" + n + "-first";
+        LongAdder nodes = new LongAdder();
+
+        int[] pinned = null;
+        if (!options.getPins().isEmpty()) {
+            pinned = new int[n];
+            Arrays.fill(pinned, -1);
+            for (Map.Entry<Integer, Integer> pin : options.getPins().entrySet()) {
+                if (pin.getKey() >= n || pin.getValue() >= n) {
+                    throw new IllegalArgumentException("Pinned square " + pin.getKey() + ":" + pin.getValue()
+                            + " is outside the " + n + "x" + n + " board");
+                }
+                pinned[pin.getKey()] = pin.getValue();
+            }
+        }
+
+        long start = System.nanoTime();
+        List<Solution> found;
+        if (pinned != null) {
+            MinConflictsSolver solver = new MinConflictsSolver(new BitboardSolver(), options.getSeed(),
+                    options.getThreads(), nodes);
+            int[] cols = solver.repair(n, pinned);
+            found = cols != null ? List.of(new Solution(cols)) : List.of();
+        } else {
+            found = new ConstructiveSolver(new BitboardSolver(), nodes).solve(n, null, null, false);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        for (Solution solution : found) {
+            if (!ConstructiveSolver.verify(solution.getCols()) || !keeps(solution.getCols(), pinned)) {
+                throw new IllegalStateException("Board is not a solution: n=" + n);
+            }
+        }
+
+        SolutionStore store = null;
+        Path path = null;
+        if (options.getFormat() == CliOptions.Format.BINARY) {
+            Files.createDirectories(options.getOutputDir());
+            try (SolutionFile.Writer file = SolutionFile.create(options.getOutputDir().resolve(name + ".sol"), n);
+                 SolutionSink.Appender appender = file.appender()) {
+                found.forEach(appender::add);
+                path = file.getPath();
+            }
+        } else if (options.isPrintBoards()) {
+            // One board, so the object store is smaller than a packed chunk
+            store = new SolutionStore(SolutionStore.Mode.OBJECTS);
+            found.forEach(store::add);
+        }
+        return new RunResult(n, SolveMode.FIRST, found.size(), found.size(), elapsed, nodes.sum(), store, path);
+    }
+
+    private static boolean keeps(int[] cols, int[] pinned) {
+        if (pinned != null) {
+            for (int row = 0; row < cols.length; row++) {
+                if (pinned[row] >= 0 && cols[row] != pinned[row]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
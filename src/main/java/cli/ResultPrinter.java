@@ -0,0 +1,167 @@
+package cli;
+
+import model.Solution;
+import model.SolveMode;
+import storage.SolutionSource;
+
+import java.io.PrintStream;
+import java.util.Locale;
+
+/**
+ * ResultPrinter
+ * -------------
+ * Writes batch results to standard output in a machine-readable form.
+ *
+ * Results are printed as soon as each board size is done, so long batches
+ * report progress and partial output survives a killed job.
+ */
+public abstract class ResultPrinter {
+
+    protected final PrintStream out;
+    protected final boolean printBoards;
+
+    protected ResultPrinter(PrintStream out, boolean printBoards) {
+        this.out = out;
+        this.printBoards = printBoards;
+    }
+
+    /**
+     * Creates the printer for a format; BINARY runs print a text summary.
+     */
+    public static ResultPrinter forFormat(CliOptions.Format format, PrintStream out, boolean printBoards) {
+        return format == CliOptions.Format.JSON
+                ? new Json(out, printBoards)
+                : new Text(out, printBoards);
+    }
+
+    /** Called once before the first result. */
+    public void begin(int threads) {
+    }
+
+    public abstract void print(RunResult result);
+
+    /** Called once after the last result, also when the batch failed. */
+    public void end() {
+    }
+
+    /**
+     * Summary line "key=value ..." per N, then one line of columns per board.
+     * UNIQUE boards end with their multiplicity, e.g. "1 3 0 2 x2".
+     */
+    static final class Text extends ResultPrinter {
+
+        private int threads;
+
+        Text(PrintStream out, boolean printBoards) {
+            super(out, printBoards);
+        }
+
+        @Override
+        public void begin(int threads) {
+            this.threads = threads;
+        }
+
+        @Override
+        public void print(RunResult result) {
+            StringBuilder line = new StringBuilder()
+                    .append("n=").append(result.getN())
+                    .append(" mode=").append(result.getMode().name().toLowerCase(Locale.ROOT))
+                    .append(" solutions=").append(result.getSolutions())
+                    .append(" total=").append(result.getTotal())
+                    .append(" time=").append(String.format(Locale.ROOT, "%.3f", result.getElapsedMillis())).append("ms")
+                    .append(" nodes=").append(result.getNodes())
+                    .append(" nodes/s=").append(String.format(Locale.ROOT, "%.0f", result.getNodesPerSecond()))
+                    .append(" threads=").append(threads);
+            if (result.getFile() != null) {
+                line.append(" file=").append(result.getFile());
+            }
+            out.println(line);
+
+            SolutionSource boards = result.getBoards();
+            if (printBoards && boards != null) {
+                boolean unique = result.getMode() == SolveMode.UNIQUE;
+                for (int i = 0; i < boards.size(); i++) {
+                    line.setLength(0);
+                    Solution solution = boards.get(i);
+                    for (int c : solution.getCols()) {
+                        if (line.length() > 0) line.append(' ');
+                        line.append(c);
+                    }
+                    if (unique) {
+                        line.append(" x").append(solution.getMultiplicity());
+                    }
+                    out.println(line);
+                }
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * One JSON document: {"threads": k, "runs": [ {...}, ... ]}.
+     * Boards are arrays of columns; UNIQUE runs add a parallel "multiplicities" array.
+     */
+    static final class Json extends ResultPrinter {
+
+        private boolean first = true;
+
+        Json(PrintStream out, boolean printBoards) {
+            super(out, printBoards);
+        }
+
+        @Override
+        public void begin(int threads) {
+            out.print("{\"threads\":" + threads + ",\"runs\":[");
+        }
+
+        @Override
+        public void print(RunResult result) {
+            StringBuilder json = new StringBuilder();
+            if (!first) json.append(',');
+            first = false;
+
+            json.append("\n{\"n\":").append(result.getN())
+                    .append(",\"mode\":\"").append(result.getMode().name().toLowerCase(Locale.ROOT)).append('"')
+                    .append(",\"solutions\":").append(result.getSolutions())
+                    .append(",\"total\":").append(result.getTotal())
+                    .append(",\"timeMillis\":").append(String.format(Locale.ROOT, "%.3f", result.getElapsedMillis()))
+                    .append(",\"nodes\":").append(result.getNodes())
+                    .append(",\"nodesPerSecond\":").append(String.format(Locale.ROOT, "%.0f", result.getNodesPerSecond()));
+            out.print(json);
+
+            SolutionSource boards = result.getBoards();
+            if (printBoards && boards != null) {
+                out.print(",\"boards\":[");
+                for (int i = 0; i < boards.size(); i++) {
+                    json.setLength(0);
+                    if (i > 0) json.append(',');
+                    json.append('[');
+                    int[] cols = boards.get(i).getCols();
+                    for (int r = 0; r < cols.length; r++) {
+                        if (r > 0) json.append(',');
+                        json.append(cols[r]);
+                    }
+                    out.print(json.append(']'));
+                }
+                out.print(']');
+
+                if (result.getMode() == SolveMode.UNIQUE) {
+                    out.print(",\"multiplicities\":[");
+                    for (int i = 0; i < boards.size(); i++) {
+                        if (i > 0) out.print(',');
+                        out.print(boards.get(i).getMultiplicity());
+                    }
+                    out.print(']');
+                }
+            }
+            out.print('}');
+            out.flush();
+        }
+
+        @Override
+        public void end() {
+            out.println("\n]}");
+            out.flush();
+        }
+    }
+}
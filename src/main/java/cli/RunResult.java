@@ -0,0 +1,89 @@
+package cli;
+
+import model.SolveMode;
+import storage.SolutionSource;
+
+import java.nio.file.Path;
+
+/**
+ * RunResult
+ * ---------
+ * Outcome of solving one board size in a batch run.
+ */
+public final class RunResult {
+
+    private final int n;
+    private final SolveMode mode;
+    private final long solutions;
+    private final long total;
+    private final long elapsedNanos;
+    private final long nodes;
+    private final SolutionSource boards;
+    private final Path file;
+
+    /**
+     * @param n board size
+     * @param mode solve mode of the run
+     * @param solutions number of boards reported (one per symmetry class in UNIQUE mode)
+     * @param total number of solutions including symmetric copies
+     * @param elapsedNanos wall time of the run
+     * @param nodes queens placed by the search
+     * @param boards the kept boards, or null if they were not kept
+     * @param file the binary solution file, or null
+     */
+    public RunResult(
+            int n,
+            SolveMode mode,
+            long solutions,
+            long total,
+            long elapsedNanos,
+            long nodes,
+            SolutionSource boards,
+            Path file
+    ) {
+        this.n = n;
+        this.mode = mode;
+        this.solutions = solutions;
+        this.total = total;
+        this.elapsedNanos = elapsedNanos;
+        this.nodes = nodes;
+        this.boards = boards;
+        this.file = file;
+    }
+
+    public int getN() {
+        return n;
+    }
+
+    public SolveMode getMode() {
+        return mode;
+    }
+
+    public long getSolutions() {
+        return solutions;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public double getElapsedMillis() {
+        return elapsedNanos / 1e6;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public double getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+    }
+
+    public SolutionSource getBoards() {
+        return boards;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+}
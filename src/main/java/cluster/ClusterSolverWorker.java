@@ -0,0 +1,122 @@
+package cluster;
+
+import model.Solution;
+import model.SolveMode;
+import solver.BitboardSolver;
+import storage.SolutionSink;
+import task.Prefix;
+import worker.SolverWorker;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * ClusterSolverWorker
+ * -------------------
+ * SolverWorker that runs the search on the worker processes of a {@link Coordinator}.
+ *
+ * Responsibilities:
+ * - Split the search into enough units for any number of workers
+ * - Report solutions and counts through the usual callbacks
+ *
+ * Steps are not sent over the network, so onStep is never called. Like
+ * ParallelSolverWorker, onFinished also runs after cancel() except for count().
+ */
+public class ClusterSolverWorker implements SolverWorker {
+
+    /** Minimum number of units per run, so workers that join late still find work. */
+    private static final int TARGET_UNITS = 1024;
+
+    private final Coordinator coordinator;
+    private final SolutionSink sink;
+    private final LongAdder nodes;
+
+    private volatile Job job;
+
+    public ClusterSolverWorker(Coordinator coordinator, SolutionSink sink) {
+        this(coordinator, sink, null);
+    }
+
+    /**
+     * @param coordinator connection to the worker processes
+     * @param sink destination for found solutions (SolutionStore or SolutionFile)
+     * @param nodes receives the search nodes reported by the workers (can be null)
+     */
+    public ClusterSolverWorker(Coordinator coordinator, SolutionSink sink, LongAdder nodes) {
+        this.coordinator = coordinator;
+        this.sink = sink;
+        this.nodes = nodes;
+    }
+
+    /**
+     * Starts solving on the workers.
+     *
+     * @param mode FIRST, ALL or UNIQUE (use {@link #count} for COUNT)
+     */
+    @Override
+    public void start(
+            int n,
+            SolveMode mode,
+            Consumer<int[]> onStep,
+            Consumer<Solution> onSolution,
+            Runnable onFinished,
+            Consumer<Exception> onError
+    ) {
+        try {
+            job = new Job(n, mode, split(n, mode), sink, onSolution, null, nodes,
+                    onFinished, onFinished, onError);
+            coordinator.run(job);
+        } catch (Exception ex) {
+            onError.accept(ex);
+        }
+    }
+
+    /**
+     * Starts counting on the workers.
+     */
+    @Override
+    public void count(
+            int n,
+            LongConsumer onFinished,
+            Consumer<Exception> onError
+    ) {
+        LongAdder total = new LongAdder();
+        try {
+            job = new Job(n, SolveMode.COUNT, split(n, SolveMode.COUNT), null, null, total, nodes,
+                    () -> onFinished.accept(total.sum()), () -> { }, onError);
+            coordinator.run(job);
+        } catch (Exception ex) {
+            onError.accept(ex);
+        }
+    }
+
+    /**
+     * Cancel execution manually.
+     */
+    @Override
+    public void cancel() {
+        Job current = job;
+        if (current != null) {
+            coordinator.cancel(current);
+        }
+    }
+
+    /**
+     * Extends the usual first-row split one row at a time until there are
+     * enough units (or the prefixes would be almost whole boards).
+     */
+    private static List<Prefix> split(int n, SolveMode mode) {
+        if (n < 1 || n > BitboardSolver.MAX_N) {
+            throw new IllegalArgumentException("Board size must be between 1 and " + BitboardSolver.MAX_N + ": " + n);
+        }
+        List<Prefix> prefixes = mode == SolveMode.FIRST
+                ? Prefix.firstRow(n)
+                : Prefix.symmetricFirstRow(n);
+        for (int depth = 2; prefixes.size() < TARGET_UNITS && depth < n - 1; depth++) {
+            prefixes = Prefix.expand(n, prefixes, depth);
+        }
+        return prefixes;
+    }
+}
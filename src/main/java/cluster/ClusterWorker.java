@@ -0,0 +1,279 @@
+package cluster;
+
+import model.Solution;
+import model.SolveMode;
+import solver.BitboardSolver;
+import solver.Solver;
+import task.CountTask;
+import task.Prefix;
+import task.SolverTask;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ClusterWorker
+ * -------------
+ * Worker process of a {@link Coordinator}: solves the units it is given with
+ * a local thread pool and streams the results back.
+ *
+ * Responsibilities:
+ * - Keep two units per thread requested, so the pool never waits for the network
+ * - Run each unit as a CountTask or SolverTask with its own BitboardSolver
+ * - Send boards in batches while solving, then the unit's counts
+ * - Abort all units on CANCEL and exit when the coordinator disconnects
+ *
+ * Usage: java -cp <classes> cluster.ClusterWorker --connect <address> [--threads <k>]
+ */
+public final class ClusterWorker implements Closeable {
+
+    private static final String USAGE =
+            "Usage: java -cp <classes> cluster.ClusterWorker --connect <host:port|unix:/path> [--threads <k>]";
+
+    private final SocketChannel channel;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final ExecutorService executor;
+    private final Set<Future<?>> units = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Connects to the coordinator and asks for the first units.
+     */
+    public ClusterWorker(String address, int threads) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        this.channel = Protocol.connect(Protocol.address(address));
+        this.in = Protocol.input(channel);
+        this.out = Protocol.output(channel);
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "cluster-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        synchronized (out) {
+            out.writeByte(Protocol.HELLO);
+            out.writeInt(Protocol.MAGIC);
+            out.writeInt(Protocol.VERSION);
+            out.writeInt(threads);
+        }
+        request(2 * threads);
+    }
+
+    public static void main(String[] args) {
+        String address = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-c", "--connect" -> address = args[++i];
+                    case "-t", "--threads" -> threads = Integer.parseInt(args[++i]);
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            if (address == null) {
+                throw new IllegalArgumentException("Missing coordinator address (--connect)");
+            }
+        } catch (RuntimeException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        try (ClusterWorker worker = new ClusterWorker(address, threads)) {
+            worker.run();
+        } catch (IOException ex) {
+            System.err.println("Failed: " + ex);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Serves units until the coordinator disconnects.
+     */
+    public void run() throws IOException {
+        while (true) {
+            byte type;
+            try {
+                type = in.readByte();
+            } catch (EOFException disconnected) {
+                return;
+            }
+            switch (type) {
+                case Protocol.UNIT -> {
+                    int id = in.readInt();
+                    SolveMode mode = SolveMode.values()[in.readUnsignedByte()];
+                    int n = in.readUnsignedByte();
+                    int weight = in.readUnsignedByte();
+                    int[] cols = new int[in.readUnsignedByte()];
+                    for (int r = 0; r < cols.length; r++) {
+                        cols[r] = in.readUnsignedByte();
+                    }
+                    submit(id, mode, n, new Prefix(cols, weight));
+                }
+                case Protocol.CANCEL -> {
+                    // Every unit received so far belongs to the cancelled run
+                    for (Future<?> unit : units) {
+                        unit.cancel(true);
+                    }
+                }
+                default -> throw new IOException("Unknown message " + type);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        executor.shutdownNow();
+        channel.close();
+    }
+
+    private void submit(int id, SolveMode mode, int n, Prefix prefix) {
+        FutureTask<Void> unit = new FutureTask<>(() -> {
+            solve(id, mode, n, prefix);
+            return null;
+        }) {
+            @Override
+            protected void done() {
+                units.remove(this);
+                report(this);
+                request(1); // the slot is free again, also after a cancel
+            }
+        };
+        units.add(unit);
+        executor.execute(unit);
+    }
+
+    /**
+     * Solves one unit. Nothing is reported for a unit that was interrupted:
+     * the coordinator has cancelled it.
+     */
+    private void solve(int id, SolveMode mode, int n, Prefix prefix) throws Exception {
+        LongAdder nodes = new LongAdder();
+        Solver solver = new BitboardSolver(nodes);
+
+        if (mode == SolveMode.COUNT) {
+            long count = new CountTask(solver, n, prefix, new LongAdder()).call();
+            if (!Thread.currentThread().isInterrupted()) {
+                done(id, 0, count, nodes.sum());
+            }
+            return;
+        }
+
+        Batch batch = new Batch(id, n);
+        new SolverTask(solver, n, prefix, mode, null, batch::add, new AtomicBoolean(false), () -> { }).call();
+        if (!Thread.currentThread().isInterrupted()) {
+            batch.flush();
+            done(id, batch.records, batch.total, nodes.sum());
+        }
+    }
+
+    /**
+     * A unit that failed (not cancelled) cannot be reported, so the connection
+     * is dropped and the coordinator hands the unit to another worker.
+     */
+    private void report(Future<?> unit) {
+        try {
+            unit.get();
+        } catch (CancellationException | InterruptedException ignored) {
+            // cancelled by the coordinator
+        } catch (ExecutionException ex) {
+            System.err.println("Unit failed: " + ex.getCause());
+            try {
+                close();
+            } catch (IOException ignored) {
+                // exiting anyway
+            }
+        }
+    }
+
+    private void request(int count) {
+        synchronized (out) {
+            try {
+                out.writeByte(Protocol.REQUEST);
+                out.writeInt(count);
+                out.flush();
+            } catch (IOException ignored) {
+                // disconnected: run() sees the end of the stream
+            }
+        }
+    }
+
+    private void done(int id, long records, long total, long nodes) throws IOException {
+        synchronized (out) {
+            out.writeByte(Protocol.DONE);
+            out.writeInt(id);
+            out.writeLong(records);
+            out.writeLong(total);
+            out.writeLong(nodes);
+            out.flush();
+        }
+    }
+
+    /**
+     * Boards of one unit, sent every {@link Protocol#SOLUTION_BATCH} boards.
+     */
+    private final class Batch {
+        private final int id;
+        private final int n;
+        private final List<Solution> solutions = new ArrayList<>(Protocol.SOLUTION_BATCH);
+        private long records;
+        private long total;
+
+        Batch(int id, int n) {
+            this.id = id;
+            this.n = n;
+        }
+
+        void add(Solution solution) {
+            solutions.add(solution);
+            records++;
+            total += solution.getMultiplicity();
+            if (solutions.size() == Protocol.SOLUTION_BATCH) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (solutions.isEmpty()) {
+                return;
+            }
+            synchronized (out) {
+                try {
+                    out.writeByte(Protocol.SOLUTIONS);
+                    out.writeInt(id);
+                    out.writeByte(n);
+                    out.writeShort(solutions.size());
+                    for (Solution solution : solutions) {
+                        out.writeByte(solution.getMultiplicity());
+                        for (int c : solution.getCols()) {
+                            out.writeByte(c);
+                        }
+                    }
+                    out.flush();
+                } catch (IOException e) {
+                    throw new IllegalStateException("Disconnected from the coordinator", e);
+                }
+            }
+            solutions.clear();
+        }
+    }
+}
@@ -0,0 +1,437 @@
+package cluster;
+
+import model.Solution;
+import task.Prefix;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coordinator
+ * -----------
+ * Hands work units (board prefixes) to {@link ClusterWorker} processes over
+ * TCP or a Unix domain socket and collects their results.
+ *
+ * Responsibilities:
+ * - Accept worker connections at any time, also in the middle of a run
+ * - Give units to workers that ask for them (pull-based, so faster or less
+ *   busy workers simply ask more often)
+ * - Buffer the boards of each unit until it is done, then pass them on
+ * - Take back the units of a worker that disconnects and hand them out again
+ * - Optionally start local worker processes
+ *
+ * Important design notes:
+ * - One run at a time; {@link ClusterSolverWorker} is the SolverWorker that starts it
+ * - Each connection has one reader thread; all shared state is guarded by
+ *   this object, and results are delivered outside the lock
+ * - A worker asks for as many units as it can queue; every finished or
+ *   cancelled unit frees a slot and is followed by a new request
+ */
+public final class Coordinator implements Closeable {
+
+    /** Time given to spawned workers to exit after the coordinator closed. */
+    private static final long EXIT_WAIT_MILLIS = 5_000;
+
+    private final ServerSocketChannel server;
+    private final SocketAddress address;
+    private final List<Connection> connections = new ArrayList<>();
+    private final List<Process> processes = new ArrayList<>();
+    private final AtomicInteger unitIds = new AtomicInteger();
+    private Job job;
+    private volatile boolean closed;
+
+    private Coordinator(ServerSocketChannel server) throws IOException {
+        this.server = server;
+        this.address = server.getLocalAddress();
+
+        Thread acceptor = new Thread(this::acceptLoop, "coordinator-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Starts accepting workers.
+     *
+     * @param address "host:port" (port 0 picks a free one) or "unix:/path"
+     */
+    public static Coordinator listen(String address) throws IOException {
+        return new Coordinator(Protocol.listen(Protocol.address(address)));
+    }
+
+    /** Bound address, in the form workers connect to. */
+    public String getAddress() {
+        return Protocol.format(address);
+    }
+
+    public synchronized int getWorkerCount() {
+        return connections.size();
+    }
+
+    /**
+     * Blocks until at least count workers are connected.
+     *
+     * @throws IOException if they do not connect in time
+     */
+    public synchronized void awaitWorkers(int count, long timeoutMillis) throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (connections.size() < count) {
+            long left = deadline - System.currentTimeMillis();
+            if (left <= 0) {
+                throw new IOException("Only " + connections.size() + " of " + count
+                        + " workers connected to " + getAddress());
+            }
+            wait(left);
+        }
+    }
+
+    /**
+     * Starts worker processes on this machine with the same Java runtime and
+     * class path. They connect by themselves and exit when the coordinator closes.
+     *
+     * @param threads solver threads per process
+     */
+    public void spawnLocalWorkers(int count, int threads) throws IOException {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        for (int i = 0; i < count; i++) {
+            Process process = new ProcessBuilder(
+                    java,
+                    "-cp", System.getProperty("java.class.path"),
+                    ClusterWorker.class.getName(),
+                    "--connect", getAddress(),
+                    "--threads", String.valueOf(threads)
+            ).redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            synchronized (this) {
+                processes.add(process);
+            }
+        }
+    }
+
+    /**
+     * Starts a run; units go to the connected workers and to any that connect later.
+     *
+     * @throws IllegalStateException if another run is in progress or the coordinator is closed
+     */
+    synchronized void run(Job next) {
+        if (closed) {
+            throw new IllegalStateException("Coordinator is closed");
+        }
+        if (job != null) {
+            throw new IllegalStateException("Another run is in progress");
+        }
+        for (Prefix prefix : next.prefixes) {
+            next.pending.add(new Job.Unit(unitIds.getAndIncrement(), prefix));
+        }
+        next.remaining = next.pending.size();
+        job = next;
+        dispatch();
+    }
+
+    /**
+     * Stops a run: workers abort its units and late results are ignored.
+     */
+    void cancel(Job cancelled) {
+        synchronized (this) {
+            if (job != cancelled) {
+                return;
+            }
+            job = null;
+            cancelUnits();
+        }
+        cancelled.onCancelled.run();
+    }
+
+    /**
+     * Stops accepting workers, disconnects them and ends a running run with an error.
+     */
+    @Override
+    public void close() throws IOException {
+        Job current;
+        List<Connection> open;
+        List<Process> spawned;
+        synchronized (this) {
+            closed = true;
+            current = job;
+            job = null;
+            open = new ArrayList<>(connections);
+            spawned = new ArrayList<>(processes);
+        }
+
+        server.close();
+        Protocol.unlink(address);
+        for (Connection connection : open) {
+            connection.close();
+        }
+        for (Process process : spawned) {
+            try {
+                if (!process.waitFor(EXIT_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (current != null) {
+            current.onError.accept(new IOException("Coordinator closed during the run"));
+        }
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                SocketChannel channel = Protocol.configure(server.accept());
+                Thread reader = new Thread(() -> serve(channel), "coordinator-worker");
+                reader.setDaemon(true);
+                reader.start();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                // a failed handshake only affects that connection
+            }
+        }
+    }
+
+    /**
+     * Reads the messages of one worker until it disconnects.
+     */
+    private void serve(SocketChannel channel) {
+        Connection connection = null;
+        try (channel) {
+            DataInputStream in = Protocol.input(channel);
+            if (in.readByte() != Protocol.HELLO || in.readInt() != Protocol.MAGIC
+                    || in.readInt() != Protocol.VERSION) {
+                return; // not a worker of this version
+            }
+            in.readInt(); // thread count: workers ask for as many units as they can queue
+            connection = new Connection(channel);
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                connections.add(connection);
+                notifyAll();
+            }
+
+            while (true) {
+                byte type = in.readByte();
+                switch (type) {
+                    case Protocol.REQUEST -> request(connection, in.readInt());
+                    case Protocol.SOLUTIONS -> solutions(connection, in);
+                    case Protocol.DONE -> done(connection, in.readInt(), in.readLong(), in.readLong(), in.readLong());
+                    default -> throw new IOException("Unknown message " + type);
+                }
+            }
+        } catch (IOException e) {
+            // Disconnected or sent garbage: treated as a lost worker
+        } finally {
+            if (connection != null) {
+                lost(connection);
+            }
+        }
+    }
+
+    private synchronized void request(Connection connection, int units) {
+        connection.credits += units;
+        dispatch();
+    }
+
+    private void solutions(Connection connection, DataInputStream in) throws IOException {
+        int id = in.readInt();
+        int n = in.readUnsignedByte();
+        int count = in.readUnsignedShort();
+        List<Solution> batch = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int multiplicity = in.readUnsignedByte();
+            int[] cols = new int[n];
+            for (int r = 0; r < n; r++) {
+                cols[r] = in.readUnsignedByte();
+            }
+            batch.add(new Solution(cols, multiplicity));
+        }
+
+        synchronized (this) {
+            Job.Unit unit = owned(connection, id);
+            if (unit != null) {
+                unit.solutions.addAll(batch);
+            }
+        }
+    }
+
+    private void done(Connection connection, int id, long records, long total, long nodes) throws IOException {
+        Job current;
+        Job.Unit unit;
+        synchronized (this) {
+            unit = owned(connection, id);
+            if (unit == null) {
+                return; // cancelled, or already handed to another worker
+            }
+            if (unit.solutions.size() != records) {
+                throw new IOException("Unit " + id + ": " + records + " boards announced, "
+                        + unit.solutions.size() + " received");
+            }
+            current = job;
+            current.running.remove(id);
+        }
+
+        boolean complete;
+        try {
+            complete = current.deliver(unit, total, nodes);
+        } catch (RuntimeException ex) {
+            end(current, ex);
+            return;
+        }
+
+        synchronized (this) {
+            if (job != current || (--current.remaining > 0 && !complete)) {
+                return;
+            }
+        }
+        end(current, null);
+    }
+
+    /**
+     * Finishes a run (successfully if error is null) unless it was cancelled meanwhile.
+     */
+    private void end(Job finished, Exception error) {
+        synchronized (this) {
+            if (job != finished) {
+                return;
+            }
+            job = null;
+            if (!finished.running.isEmpty()) {
+                cancelUnits(); // FIRST found its solution, or a delivery failed
+            }
+        }
+        if (error != null) {
+            finished.onError.accept(error);
+        } else {
+            finished.onFinished.run();
+        }
+    }
+
+    /**
+     * Takes back the units of a disconnected worker.
+     */
+    private synchronized void lost(Connection connection) {
+        if (!connections.remove(connection)) {
+            return;
+        }
+        notifyAll();
+        if (job == null) {
+            return;
+        }
+        for (Iterator<Job.Unit> it = job.running.values().iterator(); it.hasNext(); ) {
+            Job.Unit unit = it.next();
+            if (unit.owner == connection) {
+                it.remove();
+                unit.owner = null;
+                unit.solutions.clear();
+                job.pending.addFirst(unit);
+            }
+        }
+        dispatch();
+    }
+
+    /**
+     * Unit of the current run with this id, if the connection still owns it.
+     */
+    private Job.Unit owned(Connection connection, int id) {
+        if (job == null) {
+            return null;
+        }
+        Job.Unit unit = job.running.get(id);
+        return unit != null && unit.owner == connection ? unit : null;
+    }
+
+    /**
+     * Hands pending units to workers with free slots, one per worker in turn
+     * so that every idle worker gets work before any gets a second unit.
+     */
+    private void dispatch() {
+        if (job == null) {
+            return;
+        }
+        boolean handedOut = true;
+        while (handedOut && !job.pending.isEmpty()) {
+            handedOut = false;
+            for (Connection connection : connections) {
+                if (connection.credits > 0 && !job.pending.isEmpty()) {
+                    Job.Unit unit = job.pending.poll();
+                    unit.owner = connection;
+                    job.running.put(unit.id, unit);
+                    connection.credits--;
+                    connection.send(job, unit);
+                    handedOut = true;
+                }
+            }
+        }
+    }
+
+    private void cancelUnits() {
+        for (Connection connection : connections) {
+            connection.cancel();
+        }
+    }
+
+    /**
+     * One connected worker. Only written to while holding the coordinator lock.
+     */
+    static final class Connection {
+        private final SocketChannel channel;
+        private final DataOutputStream out;
+        private int credits;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+            this.out = Protocol.output(channel);
+        }
+
+        void send(Job job, Job.Unit unit) {
+            try {
+                int[] cols = unit.prefix.getCols();
+                out.writeByte(Protocol.UNIT);
+                out.writeInt(unit.id);
+                out.writeByte(job.mode.ordinal());
+                out.writeByte(job.n);
+                out.writeByte(unit.prefix.getWeight());
+                out.writeByte(cols.length);
+                for (int c : cols) {
+                    out.writeByte(c);
+                }
+                out.flush();
+            } catch (IOException e) {
+                close(); // the reader thread then takes the unit back
+            }
+        }
+
+        void cancel() {
+            try {
+                out.writeByte(Protocol.CANCEL);
+                out.flush();
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // already broken
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package cluster;
+
+import model.Solution;
+import model.SolveMode;
+import storage.SolutionSink;
+import task.Prefix;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * One run on a {@link Coordinator}: its work units and where their results go.
+ *
+ * The unit queues are guarded by the coordinator; results are delivered
+ * outside its lock, one finished unit at a time per connection.
+ */
+final class Job {
+
+    final int n;
+    final SolveMode mode;
+    final List<Prefix> prefixes;
+    final Runnable onFinished;
+    final Runnable onCancelled;
+    final Consumer<Exception> onError;
+
+    /** Units not handed out yet (or taken back from a lost worker). */
+    final Deque<Unit> pending = new ArrayDeque<>();
+    /** Units handed out, by id. */
+    final Map<Integer, Unit> running = new HashMap<>();
+    /** Units whose results have not been delivered yet. */
+    int remaining;
+
+    private final SolutionSink sink;
+    private final Consumer<Solution> onSolution;
+    private final LongAdder total;
+    private final LongAdder nodes;
+    private final AtomicBoolean found = new AtomicBoolean(false);
+
+    /**
+     * @param sink destination for solutions (null for COUNT)
+     * @param total receives the solution count (COUNT only)
+     * @param nodes receives the search nodes of the workers (can be null)
+     * @param onCancelled called instead of onFinished after a cancel
+     */
+    Job(
+            int n,
+            SolveMode mode,
+            List<Prefix> prefixes,
+            SolutionSink sink,
+            Consumer<Solution> onSolution,
+            LongAdder total,
+            LongAdder nodes,
+            Runnable onFinished,
+            Runnable onCancelled,
+            Consumer<Exception> onError
+    ) {
+        this.n = n;
+        this.mode = mode;
+        this.prefixes = prefixes;
+        this.sink = sink;
+        this.onSolution = onSolution;
+        this.total = total;
+        this.nodes = nodes;
+        this.onFinished = onFinished;
+        this.onCancelled = onCancelled;
+        this.onError = onError;
+    }
+
+    /**
+     * Reports the results of a finished unit.
+     *
+     * @return true if the run is complete regardless of the other units (FIRST found a solution)
+     */
+    boolean deliver(Unit unit, long unitTotal, long unitNodes) {
+        if (nodes != null) nodes.add(unitNodes);
+        switch (mode) {
+            case COUNT -> total.add(unitTotal);
+            case FIRST -> {
+                if (unit.solutions.isEmpty() || !found.compareAndSet(false, true)) {
+                    return false;
+                }
+                emit(unit.solutions.subList(0, 1));
+                return true;
+            }
+            default -> emit(unit.solutions);
+        }
+        return false;
+    }
+
+    private void emit(List<Solution> solutions) {
+        try (SolutionSink.Appender appender = sink.appender()) {
+            for (Solution solution : solutions) {
+                appender.add(solution);
+                onSolution.accept(solution);
+            }
+        }
+    }
+
+    /**
+     * A prefix handed to one worker at a time. Its boards are buffered until the
+     * worker reports it done, so a unit taken back from a lost worker leaves no trace.
+     */
+    static final class Unit {
+        final int id;
+        final Prefix prefix;
+        final List<Solution> solutions = new ArrayList<>();
+        Coordinator.Connection owner;
+
+        Unit(int id, Prefix prefix) {
+            this.id = id;
+            this.prefix = prefix;
+        }
+    }
+}
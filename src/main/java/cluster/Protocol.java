@@ -0,0 +1,145 @@
+package cluster;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+
+/**
+ * Protocol
+ * --------
+ * Wire format between a {@link Coordinator} and its {@link ClusterWorker}s.
+ *
+ * Every message is a one-byte type followed by its fields (DataOutput, big-endian):
+ * - HELLO (worker): magic, version, threads
+ * - REQUEST (worker): number of further units the worker can take
+ * - UNIT (coordinator): unit id, mode, n, weight, prefix depth, prefix columns
+ * - SOLUTIONS (worker): unit id, n, count, then per board its multiplicity and columns
+ * - DONE (worker): unit id, boards sent, solutions including symmetric copies, search nodes
+ * - CANCEL (coordinator): abort every unit received so far
+ *
+ * Addresses are "host:port" for TCP or "unix:/path" for a Unix domain socket.
+ */
+final class Protocol {
+
+    static final int MAGIC = 0x4E51434C; // "NQCL"
+    static final int VERSION = 1;
+
+    static final byte HELLO = 1;
+    static final byte REQUEST = 2;
+    static final byte UNIT = 3;
+    static final byte SOLUTIONS = 4;
+    static final byte DONE = 5;
+    static final byte CANCEL = 6;
+
+    /** Boards per SOLUTIONS message. */
+    static final int SOLUTION_BATCH = 256;
+
+    private static final String UNIX_PREFIX = "unix:";
+
+    private Protocol() {
+    }
+
+    /**
+     * Parses "host:port" or "unix:/path".
+     */
+    static SocketAddress address(String text) {
+        if (text.startsWith(UNIX_PREFIX)) {
+            return UnixDomainSocketAddress.of(text.substring(UNIX_PREFIX.length()));
+        }
+        int colon = text.lastIndexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Expected host:port or unix:/path: " + text);
+        }
+        try {
+            return new InetSocketAddress(text.substring(0, colon), Integer.parseInt(text.substring(colon + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid port: " + text);
+        }
+    }
+
+    /**
+     * Text form of a bound address, accepted by {@link #address}.
+     */
+    static String format(SocketAddress address) {
+        if (address instanceof UnixDomainSocketAddress unix) {
+            return UNIX_PREFIX + unix.getPath();
+        }
+        InetSocketAddress inet = (InetSocketAddress) address;
+        return inet.getHostString() + ":" + inet.getPort();
+    }
+
+    static ServerSocketChannel listen(SocketAddress address) throws IOException {
+        ServerSocketChannel server = address instanceof UnixDomainSocketAddress
+                ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+                : ServerSocketChannel.open();
+        return server.bind(address);
+    }
+
+    static SocketChannel connect(SocketAddress address) throws IOException {
+        return configure(SocketChannel.open(address));
+    }
+
+    /**
+     * Sends small messages right away: a request or a unit held back by
+     * Nagle's algorithm would leave a worker idle until the peer's delayed ACK.
+     */
+    static SocketChannel configure(SocketChannel channel) throws IOException {
+        if (channel.supportedOptions().contains(StandardSocketOptions.TCP_NODELAY)) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        }
+        return channel;
+    }
+
+    /** Deletes the socket file of a Unix domain address (no-op for TCP). */
+    static void unlink(SocketAddress address) throws IOException {
+        if (address instanceof UnixDomainSocketAddress unix) {
+            Files.deleteIfExists(unix.getPath());
+        }
+    }
+
+    static DataInputStream input(SocketChannel channel) {
+        return new DataInputStream(new BufferedInputStream(new InputStream() {
+            @Override
+            public int read() throws IOException {
+                byte[] one = new byte[1];
+                return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws IOException {
+                // Reads the channel directly: the Channels adapters may serialize reads with writes
+                return channel.read(ByteBuffer.wrap(bytes, offset, length));
+            }
+        }, 1 << 16));
+    }
+
+    static DataOutputStream output(SocketChannel channel) {
+        return new DataOutputStream(new BufferedOutputStream(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        }, 1 << 16));
+    }
+}
@@ -0,0 +1,145 @@
+package metrics;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * MetricsSnapshot
+ * ---------------
+ * Immutable sample of {@link SearchMetrics}.
+ *
+ * Per-row arrays are trimmed to the deepest row that saw any work.
+ * Pruning counts are derived: every placement in row r makes the search
+ * examine the n squares of row r + 1, and every examined square that was
+ * not placed on was attacked (or skipped because the search stopped).
+ */
+public final class MetricsSnapshot {
+
+    private final long elapsedNanos;
+    private final int threads;
+    private final long[] rowNodes;
+    private final long[] rowPrunes;
+    private final List<ThreadSample> perThread;
+
+    MetricsSnapshot(long elapsedNanos, int threads, long[] rowNodes, long[] rowSquares, List<ThreadSample> perThread) {
+        int rows = rowNodes.length;
+        while (rows > 0 && rowNodes[rows - 1] == 0 && rowSquares[rows - 1] == 0) {
+            rows--;
+        }
+        this.elapsedNanos = elapsedNanos;
+        this.threads = threads;
+        this.rowNodes = Arrays.copyOf(rowNodes, rows);
+        this.rowPrunes = new long[rows];
+        for (int r = 0; r < rows; r++) {
+            rowPrunes[r] = Math.max(0, rowSquares[r] - rowNodes[r]);
+        }
+        this.perThread = List.copyOf(perThread);
+    }
+
+    public double getElapsedMillis() {
+        return elapsedNanos / 1e6;
+    }
+
+    public long getNodes() {
+        long nodes = 0;
+        for (long placed : rowNodes) {
+            nodes += placed;
+        }
+        return nodes;
+    }
+
+    public double getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : getNodes() * 1e9 / elapsedNanos;
+    }
+
+    /** Queens placed per row. */
+    public long[] getRowNodes() {
+        return rowNodes.clone();
+    }
+
+    /** Squares skipped per row because they were attacked. */
+    public long[] getRowPrunes() {
+        return rowPrunes.clone();
+    }
+
+    public long getTasks() {
+        long tasks = 0;
+        for (ThreadSample sample : perThread) {
+            tasks += sample.getTasks();
+        }
+        return tasks;
+    }
+
+    public double getMeanTaskMillis() {
+        long tasks = getTasks();
+        return tasks == 0 ? 0 : getBusyNanos() / 1e6 / tasks;
+    }
+
+    public double getMaxTaskMillis() {
+        long max = 0;
+        for (ThreadSample sample : perThread) {
+            max = Math.max(max, sample.maxTaskNanos);
+        }
+        return max / 1e6;
+    }
+
+    /**
+     * Busy time of all threads divided by wall time times pool size (0..1).
+     * Tasks still running are not included yet.
+     */
+    public double getUtilization() {
+        return elapsedNanos == 0 ? 0 : Math.min(1, (double) getBusyNanos() / ((double) elapsedNanos * threads));
+    }
+
+    public List<ThreadSample> getPerThread() {
+        return perThread;
+    }
+
+    private long getBusyNanos() {
+        long busy = 0;
+        for (ThreadSample sample : perThread) {
+            busy += sample.busyNanos;
+        }
+        return busy;
+    }
+
+    /**
+     * Counters of one worker thread.
+     */
+    public static final class ThreadSample {
+        private final String threadName;
+        private final long nodes;
+        private final long tasks;
+        private final long busyNanos;
+        private final long maxTaskNanos;
+
+        ThreadSample(String threadName, long nodes, long tasks, long busyNanos, long maxTaskNanos) {
+            this.threadName = threadName;
+            this.nodes = nodes;
+            this.tasks = tasks;
+            this.busyNanos = busyNanos;
+            this.maxTaskNanos = maxTaskNanos;
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        public long getTasks() {
+            return tasks;
+        }
+
+        public double getBusyMillis() {
+            return busyNanos / 1e6;
+        }
+
+        /** Nodes per second of busy time. */
+        public double getNodesPerSecond() {
+            return busyNanos == 0 ? 0 : nodes * 1e9 / busyNanos;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * SearchMetrics
+ * -------------
+ * Low-overhead instrumentation of one solve run.
+ *
+ * Responsibilities:
+ * - Collect search nodes per row, tasks and busy time per thread
+ * - Derive pruning per row and thread utilization when sampled
+ * - Expose the latest run through a JMX MBean ({@value #OBJECT_NAME})
+ *
+ * Important design notes:
+ * - Solvers count nodes in local arrays and publish them once per call,
+ *   so nothing shared is touched per node
+ * - Every thread writes only its own stripe, with release stores instead of
+ *   atomic read-modify-writes; readers sample the stripes without locking
+ * - Instrumentation is off when no SearchMetrics (and no node counter) is
+ *   passed to the solver and worker, the default: the solver then runs its
+ *   uninstrumented recursion, which neither allocates nor counts per node
+ */
+public class SearchMetrics {
+
+    /** Rows tracked per stripe (the largest supported board). */
+    public static final int MAX_ROWS = 64;
+
+    /** JMX name of the MBean that reports the latest exposed run. */
+    public static final String OBJECT_NAME = "nqueens:type=SearchMetrics";
+
+    private static final AtomicReference<SearchMetrics> exposed = new AtomicReference<>();
+
+    private final int threads;
+    private final Queue<Stripe> stripes = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Stripe> local = ThreadLocal.withInitial(this::newStripe);
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    /**
+     * @param threads pool size of the run, used for the utilization figure
+     */
+    public SearchMetrics(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        this.threads = threads;
+        this.startNanos = System.nanoTime();
+    }
+
+    /** Marks the start of the run (called by the worker). */
+    public void start() {
+        startNanos = System.nanoTime();
+        endNanos = 0;
+    }
+
+    /** Marks the end of the run (called by the worker). */
+    public void finish() {
+        endNanos = System.nanoTime();
+    }
+
+    /**
+     * Adds the nodes of one solver call.
+     *
+     * @param startRow first searched row of the call
+     * @param rowNodes queens placed per row (length n)
+     */
+    public void recordSearch(int startRow, long[] rowNodes) {
+        Stripe stripe = local.get();
+        int n = rowNodes.length;
+        int rows = Math.min(n, MAX_ROWS);
+        if (startRow < rows) {
+            stripe.add(stripe.squares, startRow, n); // the first row is entered once
+        }
+        for (int r = startRow; r < rows; r++) {
+            long placed = rowNodes[r];
+            if (placed == 0) {
+                continue;
+            }
+            stripe.add(stripe.nodes, r, placed);
+            if (r + 1 < rows) {
+                // Every placement enters the next row, whose n squares are then examined
+                stripe.add(stripe.squares, r + 1, placed * n);
+            }
+        }
+    }
+
+    /**
+     * Adds one finished task of the calling thread.
+     */
+    public void recordTask(long nanos) {
+        Stripe stripe = local.get();
+        stripe.tasks.setRelease(stripe.tasks.getPlain() + 1);
+        stripe.busyNanos.setRelease(stripe.busyNanos.getPlain() + nanos);
+        if (nanos > stripe.maxTaskNanos.getPlain()) {
+            stripe.maxTaskNanos.setRelease(nanos);
+        }
+    }
+
+    /**
+     * Samples all stripes. Counters of different threads may be a few
+     * publications apart, but each value is one that was really written.
+     */
+    public MetricsSnapshot snapshot() {
+        long end = endNanos;
+        long elapsed = (end != 0 ? end : System.nanoTime()) - startNanos;
+
+        long[] rowNodes = new long[MAX_ROWS];
+        long[] rowSquares = new long[MAX_ROWS];
+        List<MetricsSnapshot.ThreadSample> perThread = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            long nodes = 0;
+            for (int r = 0; r < MAX_ROWS; r++) {
+                long placed = stripe.nodes.get(r);
+                rowNodes[r] += placed;
+                rowSquares[r] += stripe.squares.get(r);
+                nodes += placed;
+            }
+            perThread.add(new MetricsSnapshot.ThreadSample(
+                    stripe.threadName,
+                    nodes,
+                    stripe.tasks.get(),
+                    stripe.busyNanos.get(),
+                    stripe.maxTaskNanos.get()
+            ));
+        }
+        return new MetricsSnapshot(elapsed, threads, rowNodes, rowSquares, perThread);
+    }
+
+    /**
+     * Makes this run the one reported by the {@value #OBJECT_NAME} MBean,
+     * registering the MBean on first use.
+     */
+    public void expose() {
+        if (exposed.getAndSet(this) == null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(
+                        new Bean(), new ObjectName(OBJECT_NAME));
+            } catch (InstanceAlreadyExistsException ignored) {
+                // registered by another class loader; it keeps reporting its own runs
+            } catch (JMException e) {
+                throw new IllegalStateException("Cannot register " + OBJECT_NAME, e);
+            }
+        }
+    }
+
+    private Stripe newStripe() {
+        Stripe stripe = new Stripe(Thread.currentThread().getName());
+        stripes.add(stripe);
+        return stripe;
+    }
+
+    /**
+     * Counters of one thread. Only the owner writes, so release stores suffice.
+     */
+    private static final class Stripe {
+        final String threadName;
+        final AtomicLongArray nodes = new AtomicLongArray(MAX_ROWS);
+        final AtomicLongArray squares = new AtomicLongArray(MAX_ROWS);
+        final AtomicLong tasks = new AtomicLong();
+        final AtomicLong busyNanos = new AtomicLong();
+        final AtomicLong maxTaskNanos = new AtomicLong();
+
+        Stripe(String threadName) {
+            this.threadName = threadName;
+        }
+
+        void add(AtomicLongArray counters, int index, long delta) {
+            counters.setRelease(index, counters.getPlain(index) + delta);
+        }
+    }
+
+    /**
+     * MBean view of the latest exposed run.
+     */
+    private static final class Bean implements SearchMetricsMXBean {
+
+        private MetricsSnapshot sample() {
+            return exposed.get().snapshot();
+        }
+
+        @Override
+        public long getNodes() {
+            return sample().getNodes();
+        }
+
+        @Override
+        public double getNodesPerSecond() {
+            return sample().getNodesPerSecond();
+        }
+
+        @Override
+        public long getTasks() {
+            return sample().getTasks();
+        }
+
+        @Override
+        public double getMeanTaskMillis() {
+            return sample().getMeanTaskMillis();
+        }
+
+        @Override
+        public double getMaxTaskMillis() {
+            return sample().getMaxTaskMillis();
+        }
+
+        @Override
+        public double getUtilization() {
+            return sample().getUtilization();
+        }
+
+        @Override
+        public double getElapsedMillis() {
+            return sample().getElapsedMillis();
+        }
+
+        @Override
+        public long[] getRowNodes() {
+            return sample().getRowNodes();
+        }
+
+        @Override
+        public long[] getRowPrunes() {
+            return sample().getRowPrunes();
+        }
+
+        @Override
+        public int getActiveThreads() {
+            return sample().getPerThread().size();
+        }
+    }
+}
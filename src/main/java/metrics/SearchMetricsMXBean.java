@@ -0,0 +1,32 @@
+package metrics;
+
+/**
+ * JMX view of the latest exposed {@link SearchMetrics} run.
+ * Every attribute is sampled when it is read.
+ */
+public interface SearchMetricsMXBean {
+
+    long getNodes();
+
+    double getNodesPerSecond();
+
+    long getTasks();
+
+    double getMeanTaskMillis();
+
+    double getMaxTaskMillis();
+
+    /** Busy time of all threads divided by wall time times pool size (0..1). */
+    double getUtilization();
+
+    double getElapsedMillis();
+
+    /** Queens placed per row. */
+    long[] getRowNodes();
+
+    /** Squares skipped per row because they were attacked. */
+    long[] getRowPrunes();
+
+    /** Threads that have reported work so far. */
+    int getActiveThreads();
+}
@@ -0,0 +1,95 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * WorkProgress
+ * ------------
+ * Completed share and remaining time of one run, measured in estimated search nodes.
+ *
+ * Responsibilities:
+ * - Add up the estimated nodes of finished work units
+ * - Derive percent complete and an ETA from the elapsed time
+ *
+ * Important design notes:
+ * - Estimates come from random probes, so finished work can add up to more
+ *   than the estimated total; the share is held below one until {@link #finish}
+ * - Workers add to it from any thread; readers sample it without locking
+ */
+public class WorkProgress {
+
+    /** Highest share reported before the run has finished. */
+    private static final double MAX_UNFINISHED = 0.99;
+
+    private final double total;
+    private final DoubleAdder done = new DoubleAdder();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile long startNanos;
+    private volatile long endNanos;
+    private volatile boolean finished;
+
+    /**
+     * @param total estimated nodes of the whole run
+     */
+    public WorkProgress(double total) {
+        this.total = total;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Restarts the clock when the first piece of work begins, so time spent
+     * queued behind other runs is not counted; later calls do nothing.
+     */
+    public void start() {
+        if (!started.get() && started.compareAndSet(false, true)) {
+            startNanos = System.nanoTime();
+        }
+    }
+
+    /** Adds the estimated nodes of a finished piece of work. */
+    public void completed(double work) {
+        done.add(work);
+    }
+
+    /** Marks the run as finished (called by the worker). */
+    public void finish() {
+        endNanos = System.nanoTime();
+        finished = true;
+    }
+
+    /**
+     * @return completed share of the run, between 0 and 1
+     */
+    public double getFraction() {
+        if (finished) {
+            return 1;
+        }
+        if (total <= 0) {
+            return 0;
+        }
+        return Math.min(MAX_UNFINISHED, done.sum() / total);
+    }
+
+    /** Time since the work began, or until it finished. */
+    public long getElapsedMillis() {
+        return getElapsedNanos() / 1_000_000;
+    }
+
+    public long getElapsedNanos() {
+        return (finished ? endNanos : System.nanoTime()) - startNanos;
+    }
+
+    /**
+     * Remaining time if the run goes on at its average speed so far.
+     *
+     * @return milliseconds left, or -1 while nothing has finished yet
+     */
+    public long getEtaMillis() {
+        double fraction = getFraction();
+        if (fraction <= 0) {
+            return -1;
+        }
+        return (long) (getElapsedMillis() * (1 - fraction) / fraction);
+    }
+}
@@ -4,7 +4,17 @@ import java.util.Arrays;
 
 public class Solution {
     private final int[] cols;
-    public Solution(int[] cols) { this.cols = cols; }
+    private final int multiplicity;
+    public Solution(int[] cols) { this(cols, 1); }
+    /**
+     * @param cols cols[row] = column of the queen
+     * @param multiplicity number of distinct boards this solution stands for (1 unless it is a fundamental solution)
+     */
+    public Solution(int[] cols, int multiplicity) {
+        this.cols = cols;
+        this.multiplicity = multiplicity;
+    }
     public int[] getCols() { return cols; }
+    public int getMultiplicity() { return multiplicity; }
     @Override public String toString() { return Arrays.toString(cols); }
-}
\ No newline at end of file
+}
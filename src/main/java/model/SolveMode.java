@@ -0,0 +1,17 @@
+package model;
+
+/**
+ * SolveMode
+ * ---------
+ * What a solve run should produce.
+ */
+public enum SolveMode {
+    /** Stop after the first solution. */
+    FIRST,
+    /** Enumerate every solution. */
+    ALL,
+    /** Enumerate one representative per symmetry class, with its multiplicity. */
+    UNIQUE,
+    /** Only count solutions, never materialize them. */
+    COUNT
+}
@@ -0,0 +1,310 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import model.SolveMode;
+import storage.SolutionSource;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * SolveServer
+ * -----------
+ * Embedded HTTP service for other processes on the same host, without JavaFX.
+ *
+ * Responsibilities:
+ * - Serve GET /first, /count, /all and /unique with ?n=..., plus
+ *   &offset=...&limit=... to page through the boards and &timeoutMs=...
+ * - Answer in JSON; board pages are streamed with chunked encoding
+ * - Map bad input to 400, admission rejects to 503 and timeouts to 504
+ *
+ * Important design notes:
+ * - Built on the JDK's com.sun.net.httpserver, no other dependencies
+ * - Each request waits on its own virtual thread; searches run on the
+ *   shared pools of {@link SolveService}, which also coalesces requests
+ * - Binds to 127.0.0.1 by default: the service is meant for the local host
+ *
+ * Usage: java -cp <classes> server.SolveServer [--listen <host:port>] [--threads <k>]
+ *        [--small-threads <k>] [--max-large-runs <k>]
+ */
+public final class SolveServer implements AutoCloseable {
+
+    private static final String USAGE = "Usage: java -cp <classes> server.SolveServer [--listen <host:port>]"
+            + " [--threads <k>] [--small-threads <k>] [--max-large-runs <k>]";
+
+    private static final String DEFAULT_ADDRESS = "127.0.0.1:8080";
+
+    private static final long DEFAULT_TIMEOUT_MILLIS = 30_000;
+    private static final long MAX_TIMEOUT_MILLIS = 600_000;
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 10_000;
+    /** Seconds a rejected client is asked to wait. */
+    private static final int RETRY_AFTER_SECONDS = 5;
+
+    private final HttpServer http;
+    private final ExecutorService handlers;
+    private final SolveService service;
+
+    /**
+     * Binds the server; it accepts requests after {@link #start()}.
+     */
+    public SolveServer(InetSocketAddress address, SolveService service) throws IOException {
+        this.service = service;
+        this.http = HttpServer.create(address, 0);
+        this.handlers = Executors.newVirtualThreadPerTaskExecutor();
+        http.setExecutor(handlers);
+        for (SolveMode mode : SolveMode.values()) {
+            http.createContext("/" + mode.name().toLowerCase(Locale.ROOT), exchange -> handle(exchange, mode));
+        }
+    }
+
+    public static void main(String[] args) {
+        String address = DEFAULT_ADDRESS;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int smallThreads = -1;
+        int maxLargeRuns = 1;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-l", "--listen" -> address = args[++i];
+                    case "-t", "--threads" -> threads = Integer.parseInt(args[++i]);
+                    case "--small-threads" -> smallThreads = Integer.parseInt(args[++i]);
+                    case "--max-large-runs" -> maxLargeRuns = Integer.parseInt(args[++i]);
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            if (smallThreads < 0) {
+                smallThreads = Math.max(1, threads / 4);
+            }
+        } catch (RuntimeException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        try {
+            SolveServer server = new SolveServer(address(address),
+                    new SolveService(threads, smallThreads, maxLargeRuns));
+            server.start();
+            System.err.println("Listening on http://" + server.getAddress().getHostString() + ":"
+                    + server.getAddress().getPort());
+        } catch (IOException | IllegalArgumentException ex) {
+            System.err.println("Failed: " + ex);
+            System.exit(1);
+        }
+    }
+
+    public void start() {
+        http.start();
+    }
+
+    /** Bound address (the actual port if port 0 was requested). */
+    public InetSocketAddress getAddress() {
+        return http.getAddress();
+    }
+
+    /**
+     * Stops accepting requests and cancels all running computations.
+     */
+    @Override
+    public void close() {
+        http.stop(0);
+        service.close();
+        handlers.shutdownNow();
+    }
+
+    /**
+     * Parses host:port.
+     */
+    static InetSocketAddress address(String text) {
+        int colon = text.lastIndexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Invalid address (expected host:port): " + text);
+        }
+        try {
+            return new InetSocketAddress(text.substring(0, colon), Integer.parseInt(text.substring(colon + 1)));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid port: " + text);
+        }
+    }
+
+    private void handle(HttpExchange exchange, SolveMode mode) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                error(exchange, 405, "Only GET is supported");
+                return;
+            }
+
+            int n;
+            int offset;
+            int limit;
+            long timeout;
+            try {
+                Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+                n = intParameter(query, "n", -1, Integer.MAX_VALUE);
+                if (n < 0) {
+                    throw new IllegalArgumentException("Missing parameter: n");
+                }
+                offset = intParameter(query, "offset", 0, Integer.MAX_VALUE);
+                limit = intParameter(query, "limit", DEFAULT_LIMIT, MAX_LIMIT);
+                timeout = intParameter(query, "timeoutMs", (int) DEFAULT_TIMEOUT_MILLIS, (int) MAX_TIMEOUT_MILLIS);
+            } catch (IllegalArgumentException ex) {
+                error(exchange, 400, ex.getMessage());
+                return;
+            }
+
+            SolveService.Computation computation;
+            try {
+                computation = service.acquire(n, mode);
+            } catch (IllegalArgumentException ex) {
+                error(exchange, 400, ex.getMessage());
+                return;
+            } catch (RejectedExecutionException ex) {
+                exchange.getResponseHeaders().set("Retry-After", String.valueOf(RETRY_AFTER_SECONDS));
+                error(exchange, 503, ex.getMessage());
+                return;
+            }
+
+            try {
+                computation.await(timeout);
+            } catch (TimeoutException ex) {
+                error(exchange, 504, "Not finished within " + timeout + " ms");
+                return;
+            } catch (ExecutionException | CancellationException ex) {
+                error(exchange, 500, "Run failed: " + (ex.getCause() != null ? ex.getCause() : ex));
+                return;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                error(exchange, 503, "Server is shutting down");
+                return;
+            } finally {
+                service.release(computation);
+            }
+
+            respond(exchange, computation, offset, limit);
+        }
+    }
+
+    /**
+     * Streams the result: the summary, then the requested page of boards.
+     */
+    private static void respond(HttpExchange exchange, SolveService.Computation computation, int offset, int limit)
+            throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0); // length unknown: chunked
+
+        OutputStream body = exchange.getResponseBody();
+        Writer out = new BufferedWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8), 1 << 13);
+        SolveMode mode = computation.getMode();
+        out.write("{\"n\":" + computation.getN()
+                + ",\"mode\":\"" + mode.name().toLowerCase(Locale.ROOT) + '"'
+                + ",\"solutions\":" + computation.getSolutions()
+                + ",\"total\":" + computation.getTotal()
+                + ",\"timeMillis\":" + String.format(Locale.ROOT, "%.3f", computation.getElapsedMillis())
+                + ",\"nodes\":" + computation.getNodes());
+
+        SolutionSource boards = computation.getBoards();
+        if (boards != null) {
+            int from = Math.min(offset, boards.size());
+            int to = (int) Math.min((long) from + limit, boards.size());
+            out.write(",\"offset\":" + from + ",\"limit\":" + limit + ",\"boards\":[");
+            StringBuilder json = new StringBuilder();
+            for (int i = from; i < to; i++) {
+                json.setLength(0);
+                if (i > from) json.append(',');
+                json.append('[');
+                int[] cols = boards.get(i).getCols();
+                for (int r = 0; r < cols.length; r++) {
+                    if (r > 0) json.append(',');
+                    json.append(cols[r]);
+                }
+                out.append(json).append(']'); // every full buffer goes out as one chunk
+            }
+            out.write(']');
+
+            if (mode == SolveMode.UNIQUE) {
+                out.write(",\"multiplicities\":[");
+                for (int i = from; i < to; i++) {
+                    if (i > from) out.write(',');
+                    out.write(String.valueOf(boards.get(i).getMultiplicity()));
+                }
+                out.write(']');
+            }
+        }
+        out.write("}\n");
+        out.flush();
+    }
+
+    private static void error(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] json = ("{\"error\":\"" + escape(message) + "\"}\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, json.length);
+        exchange.getResponseBody().write(json);
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            switch (c) {
+                case '"', '\\' -> escaped.append('\\').append(c);
+                case '\n' -> escaped.append("\\n");
+                default -> {
+                    if (c < 0x20) {
+                        escaped.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        escaped.append(c);
+                    }
+                }
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static Map<String, String> query(String raw) {
+        Map<String, String> parameters = new HashMap<>();
+        if (raw == null || raw.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : raw.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            parameters.put(name, value);
+        }
+        return parameters;
+    }
+
+    private static int intParameter(Map<String, String> query, String name, int defaultValue, int max) {
+        String text = query.get(name);
+        if (text == null) {
+            return defaultValue;
+        }
+        try {
+            int value = Integer.parseInt(text);
+            if (value >= 0 && value <= max) {
+                return value;
+            }
+        } catch (NumberFormatException ignored) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Parameter " + name + " must be a number from 0 to " + max + ": " + text);
+    }
+}
@@ -0,0 +1,335 @@
+package server;
+
+import model.SolveMode;
+import solver.BitboardSolver;
+import storage.SolutionSource;
+import storage.SolutionStore;
+import task.Prefix;
+import task.SubtreeEstimator;
+import worker.ParallelSolverWorker;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SolveService
+ * ------------
+ * Runs the solve requests of {@link SolveServer} on two shared pools and coalesces identical ones.
+ *
+ * Responsibilities:
+ * - Join a request to the running or recently finished computation of the
+ *   same n and mode, or start a new {@link ParallelSolverWorker} for it
+ * - Run small computations on their own pool, so they are never queued
+ *   behind the units of large ones
+ * - Admit a bounded number of large computations at a time and reject
+ *   further ones right away ({@link RejectedExecutionException})
+ * - Cancel a computation once every request waiting for it has given up
+ * - Keep the latest finished results, so further pages need no new search
+ *
+ * Important design notes:
+ * - A computation is large when one round of {@link SubtreeEstimator} probes
+ *   puts it above a node threshold; FIRST is always small
+ * - ALL and UNIQUE keep every board packed in memory until evicted, so they
+ *   are limited to small boards
+ * - Every {@link #acquire} must be paired with one {@link #release}
+ */
+public class SolveService implements AutoCloseable {
+
+    /** Estimated search nodes up to which a computation runs on the small pool. */
+    public static final long DEFAULT_SMALL_NODES = 50_000_000L;
+
+    /** Largest board whose ALL and UNIQUE boards are kept (365,596 boards for n = 14). */
+    public static final int DEFAULT_MAX_BOARDS_N = 14;
+
+    /** Finished computations kept for further pages. */
+    private static final int RETAINED = 16;
+
+    private final ExecutorService smallPool;
+    private final ExecutorService largePool;
+    private final int smallThreads;
+    private final int largeThreads;
+    private final Semaphore largeSlots;
+    private final long smallNodes;
+    private final int maxBoardsN;
+
+    // Running and retained computations by n and mode, least recently used first
+    private final Map<String, Computation> computations = new LinkedHashMap<>(RETAINED, 0.75f, true);
+
+    /**
+     * @param largeThreads threads of the pool for large computations
+     * @param smallThreads threads of the pool for small computations
+     * @param maxLargeRuns large computations admitted at the same time
+     */
+    public SolveService(int largeThreads, int smallThreads, int maxLargeRuns) {
+        this(largeThreads, smallThreads, maxLargeRuns, DEFAULT_SMALL_NODES, DEFAULT_MAX_BOARDS_N);
+    }
+
+    /**
+     * @param smallNodes estimated search nodes up to which a computation is small
+     * @param maxBoardsN largest board served in ALL and UNIQUE mode
+     */
+    public SolveService(int largeThreads, int smallThreads, int maxLargeRuns, long smallNodes, int maxBoardsN) {
+        if (largeThreads < 1 || smallThreads < 1) {
+            throw new IllegalArgumentException("Thread counts must be positive: " + largeThreads + ", " + smallThreads);
+        }
+        if (maxLargeRuns < 1) {
+            throw new IllegalArgumentException("Large run limit must be positive: " + maxLargeRuns);
+        }
+        this.largeThreads = largeThreads;
+        this.smallThreads = smallThreads;
+        this.largePool = Executors.newFixedThreadPool(largeThreads);
+        this.smallPool = Executors.newFixedThreadPool(smallThreads);
+        this.largeSlots = new Semaphore(maxLargeRuns);
+        this.smallNodes = smallNodes;
+        this.maxBoardsN = Math.min(maxBoardsN, BitboardSolver.MAX_N);
+    }
+
+    /**
+     * Joins the computation of n and mode, starting it if none is running or retained.
+     *
+     * @throws IllegalArgumentException if n is out of range for the mode
+     * @throws RejectedExecutionException if a new large computation is not admitted
+     */
+    public Computation acquire(int n, SolveMode mode) {
+        int max = mode == SolveMode.ALL || mode == SolveMode.UNIQUE ? maxBoardsN : BitboardSolver.MAX_N;
+        if (n < 1 || n > max) {
+            throw new IllegalArgumentException("Board size for " + mode.name().toLowerCase(Locale.ROOT)
+                    + " must be between 1 and " + max + ": " + n);
+        }
+        String key = key(n, mode);
+        Computation computation = join(key);
+        if (computation != null) {
+            return computation;
+        }
+
+        // Probing takes a while, so it runs outside the lock and only for a new computation
+        boolean large = isLarge(n, mode);
+        Computation created = new Computation(n, mode, large ? largePool : smallPool, large ? largeThreads : smallThreads);
+        synchronized (computations) {
+            computation = join(key); // another request may have started it meanwhile
+            if (computation != null) {
+                return computation;
+            }
+            if (large && !largeSlots.tryAcquire()) {
+                throw new RejectedExecutionException("Too many large runs in progress, try again later");
+            }
+            created.waiters = 1;
+            computations.put(key, created);
+            evict();
+        }
+
+        created.result.whenComplete((done, failure) -> {
+            if (large) largeSlots.release();
+            if (failure != null) {
+                synchronized (computations) {
+                    computations.remove(key, created); // a later request starts over
+                }
+            }
+        });
+        try {
+            created.start();
+        } catch (RuntimeException | Error ex) {
+            // Frees the slot and the entry through the handler above; waiters see the failure
+            created.result.completeExceptionally(ex);
+        }
+        return created;
+    }
+
+    /**
+     * Leaves a computation; the last request to leave cancels it if it is still running.
+     */
+    public void release(Computation computation) {
+        synchronized (computations) {
+            computation.waiters--;
+            if (computation.waiters > 0 || computation.result.isDone()) {
+                return;
+            }
+            // Removed under the lock, so no request can join it before it is cancelled
+            computations.remove(key(computation.n, computation.mode), computation);
+        }
+        computation.cancel();
+    }
+
+    /**
+     * Cancels all computations and stops both pools.
+     */
+    @Override
+    public void close() {
+        List<Computation> running;
+        synchronized (computations) {
+            running = new ArrayList<>(computations.values());
+            computations.clear();
+        }
+        for (Computation computation : running) {
+            computation.cancel();
+        }
+        largePool.shutdownNow();
+        smallPool.shutdownNow();
+    }
+
+    /**
+     * Adds a waiter to the computation of key, if there is one.
+     */
+    private Computation join(String key) {
+        synchronized (computations) {
+            Computation computation = computations.get(key);
+            if (computation != null) {
+                computation.waiters++;
+            }
+            return computation;
+        }
+    }
+
+    private static String key(int n, SolveMode mode) {
+        return n + ":" + mode;
+    }
+
+    private boolean isLarge(int n, SolveMode mode) {
+        if (mode == SolveMode.FIRST || n < SubtreeEstimator.MIN_N) {
+            return false;
+        }
+        double nodes = 0;
+        for (double estimate : new SubtreeEstimator(n, 0).estimate(Prefix.symmetricFirstRow(n))) {
+            nodes += estimate;
+        }
+        return nodes > smallNodes;
+    }
+
+    /**
+     * Drops the least recently used finished computations beyond the retained number.
+     */
+    private void evict() {
+        int excess = computations.size() - RETAINED;
+        Iterator<Computation> it = computations.values().iterator();
+        while (excess > 0 && it.hasNext()) {
+            if (it.next().result.isDone()) {
+                it.remove();
+                excess--;
+            }
+        }
+    }
+
+    /**
+     * One search shared by all requests for the same n and mode.
+     */
+    public static final class Computation {
+
+        private final int n;
+        private final SolveMode mode;
+        private final SolutionStore boards;
+        private final ParallelSolverWorker worker;
+        private final LongAdder nodes = new LongAdder();
+        private final LongAdder solutions = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+        private int waiters; // guarded by the service's map
+        private long startNanos;
+        private volatile long elapsedNanos;
+
+        private Computation(int n, SolveMode mode, ExecutorService pool, int threads) {
+            this.n = n;
+            this.mode = mode;
+            // A single board: a packed store would reserve a whole chunk of such boards
+            this.boards = switch (mode) {
+                case COUNT -> null;
+                case FIRST -> new SolutionStore(SolutionStore.Mode.OBJECTS);
+                default -> new SolutionStore(SolutionStore.Mode.PACKED);
+            };
+            // count() never adds to the sink, so COUNT runs without one
+            this.worker = new ParallelSolverWorker(new BitboardSolver(nodes), boards, pool, threads);
+        }
+
+        private void start() {
+            startNanos = System.nanoTime();
+            if (mode == SolveMode.COUNT) {
+                worker.count(
+                        n,
+                        count -> {
+                            solutions.add(count);
+                            total.add(count);
+                            finish();
+                        },
+                        result::completeExceptionally
+                );
+            } else {
+                worker.start(
+                        n,
+                        mode,
+                        null,
+                        solution -> {
+                            solutions.increment();
+                            total.add(solution.getMultiplicity());
+                        },
+                        this::finish,
+                        result::completeExceptionally
+                );
+            }
+        }
+
+        private void finish() {
+            elapsedNanos = System.nanoTime() - startNanos;
+            result.complete(null);
+        }
+
+        private void cancel() {
+            // Completed first, so the onFinished of a cancelled start() is ignored
+            result.completeExceptionally(new CancellationException("No request is waiting"));
+            worker.cancel();
+        }
+
+        /**
+         * Waits until the computation is done.
+         *
+         * @throws TimeoutException if it is still running after the timeout
+         * @throws ExecutionException if it failed
+         */
+        public void await(long timeoutMillis) throws InterruptedException, ExecutionException, TimeoutException {
+            result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+
+        public int getN() {
+            return n;
+        }
+
+        public SolveMode getMode() {
+            return mode;
+        }
+
+        /** Boards found (one per symmetry class in UNIQUE mode); valid once done. */
+        public long getSolutions() {
+            return solutions.sum();
+        }
+
+        /** Solutions including symmetric copies; valid once done. */
+        public long getTotal() {
+            return total.sum();
+        }
+
+        public long getNodes() {
+            return nodes.sum();
+        }
+
+        public double getElapsedMillis() {
+            return elapsedNanos / 1e6;
+        }
+
+        /** The boards found, or null in COUNT mode; complete once done. */
+        public SolutionSource getBoards() {
+            return boards;
+        }
+    }
+}
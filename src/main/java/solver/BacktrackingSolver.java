@@ -1,5 +1,6 @@
 package solver;
 
+import metrics.SearchMetrics;
 import model.Solution;
 
 import java.util.*;
@@ -19,9 +20,23 @@ import java.util.function.Consumer;
  * - This class is THREAD-AGNOSTIC (no threads created here)
  * - This class is UI-AGNOSTIC
  * - Thread interruption is respected for early termination
+ * - Nodes per row are only counted when {@link SearchMetrics} are attached
  */
 public class BacktrackingSolver implements Solver {
 
+    private final SearchMetrics metrics;
+
+    public BacktrackingSolver() {
+        this(null);
+    }
+
+    /**
+     * @param metrics receives the queens placed per row by every call (can be null)
+     */
+    public BacktrackingSolver(SearchMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     /**
      * Solve N-Queens starting from an empty board.
      *
@@ -49,6 +64,7 @@ public class BacktrackingSolver implements Solver {
         boolean[] diag1 = new boolean[2 * n]; // row + col
         boolean[] diag2 = new boolean[2 * n]; // row - col + n
 
+        long[] rowNodes = metrics != null ? new long[n] : null;
         try {
             backtrack(
                     0,
@@ -60,11 +76,14 @@ public class BacktrackingSolver implements Solver {
                     onStep,
                     onSolution,
                     results,
-                    findAll
+                    findAll,
+                    rowNodes
             );
         } catch (InterruptedException e) {
             // Interruption is expected in parallel mode
             Thread.currentThread().interrupt();
+        } finally {
+            publishNodes(0, rowNodes);
         }
 
         return results;
@@ -104,6 +123,7 @@ public class BacktrackingSolver implements Solver {
             diag2[r - c + n] = true;
         }
 
+        long[] rowNodes = metrics != null ? new long[n] : null;
         try {
             backtrack(
                     startRow,
@@ -115,15 +135,100 @@ public class BacktrackingSolver implements Solver {
                     onStep,
                     onSolution,
                     results,
-                    findAll
+                    findAll,
+                    rowNodes
             );
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
+        } finally {
+            publishNodes(startRow, rowNodes);
         }
 
         return results;
     }
 
+    /**
+     * Count N-Queens solutions starting from an empty board.
+     *
+     * @param n board size
+     * @return number of solutions
+     */
+    @Override
+    public long count(int n) {
+        int[] cols = new int[n];
+        Arrays.fill(cols, -1);
+        return count(n, cols, 0);
+    }
+
+    /**
+     * Count N-Queens solutions extending a partially-filled board.
+     * No Solution objects are created.
+     *
+     * @param n board size
+     * @param initialCols pre-filled column placements
+     * @param startRow row index to start counting from
+     * @return number of solutions found (partial if interrupted)
+     */
+    @Override
+    public long count(int n, int[] initialCols, int startRow) {
+        boolean[] usedCols = new boolean[n];
+        boolean[] diag1 = new boolean[2 * n];
+        boolean[] diag2 = new boolean[2 * n];
+
+        for (int r = 0; r < startRow; r++) {
+            int c = initialCols[r];
+            usedCols[c] = true;
+            diag1[r + c] = true;
+            diag2[r - c + n] = true;
+        }
+
+        long[] counter = new long[1];
+        long[] rowNodes = metrics != null ? new long[n] : null;
+        try {
+            countFrom(startRow, n, usedCols, diag1, diag2, counter, rowNodes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            publishNodes(startRow, rowNodes);
+        }
+        return counter[0];
+    }
+
+    /**
+     * Recursive counting variant of {@link #backtrack}.
+     *
+     * @throws InterruptedException when thread interruption is detected
+     */
+    private void countFrom(
+            int row,
+            int n,
+            boolean[] usedCols,
+            boolean[] diag1,
+            boolean[] diag2,
+            long[] counter,
+            long[] rowNodes
+    ) throws InterruptedException {
+
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException();
+        }
+
+        if (row == n) {
+            counter[0]++;
+            return;
+        }
+
+        for (int c = 0; c < n; c++) {
+            if (usedCols[c] || diag1[row + c] || diag2[row - c + n]) {
+                continue;
+            }
+            usedCols[c] = diag1[row + c] = diag2[row - c + n] = true;
+            if (rowNodes != null) rowNodes[row]++;
+            countFrom(row + 1, n, usedCols, diag1, diag2, counter, rowNodes);
+            usedCols[c] = diag1[row + c] = diag2[row - c + n] = false;
+        }
+    }
+
     /**
      * Core recursive backtracking algorithm.
      *
@@ -139,7 +244,8 @@ public class BacktrackingSolver implements Solver {
             Consumer<int[]> onStep,
             Consumer<Solution> onSolution,
             List<Solution> results,
-            boolean findAll
+            boolean findAll,
+            long[] rowNodes
     ) throws InterruptedException {
 
         // Early termination when running in parallel and interrupted
@@ -167,10 +273,11 @@ public class BacktrackingSolver implements Solver {
             // Place queen
             cols[row] = c;
             usedCols[c] = diag1[row + c] = diag2[row - c + n] = true;
+            if (rowNodes != null) rowNodes[row]++;
 
-            // Notify UI / animator of intermediate step
+            // Notify UI / animator of intermediate step (live board, consumers copy if they keep it)
             if (onStep != null) {
-                onStep.accept(Arrays.copyOf(cols, n));
+                onStep.accept(cols);
             }
 
             backtrack(
@@ -183,7 +290,8 @@ public class BacktrackingSolver implements Solver {
                     onStep,
                     onSolution,
                     results,
-                    findAll
+                    findAll,
+                    rowNodes
             );
 
             // Stop early if only one solution is required
@@ -196,4 +304,10 @@ public class BacktrackingSolver implements Solver {
             usedCols[c] = diag1[row + c] = diag2[row - c + n] = false;
         }
     }
+
+    private void publishNodes(int startRow, long[] rowNodes) {
+        if (rowNodes != null) {
+            metrics.recordSearch(startRow, rowNodes);
+        }
+    }
 }
@@ -0,0 +1,439 @@
+package solver;
+
+import metrics.SearchMetrics;
+import model.Solution;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * BitboardSolver
+ * --------------
+ * Bitmask backtracking implementation of the N-Queens problem.
+ *
+ * Responsibilities:
+ * - Track occupied columns and both diagonals as {@code long} masks
+ * - Enumerate free squares of a row with lowest-set-bit iteration
+ * - Report intermediate steps and found solutions like {@link BacktrackingSolver}
+ *
+ * Important design notes:
+ * - Supports boards up to {@value #MAX_N} x {@value #MAX_N} (one bit per column)
+ * - The hot path does not allocate: only complete boards are copied
+ * - The array passed to {@code onStep} is the live board; consumers must copy it if they keep it
+ * - Thread interruption is respected for early termination
+ * - Without a node counter and metrics the search runs uninstrumented; with
+ *   either attached, a counting copy of the recursion tallies search nodes
+ *   (queen placements) per row in one local array per call and publishes
+ *   them once per call, so threads never contend per node
+ */
+public class BitboardSolver implements Solver {
+
+    /** Largest board that fits into a {@code long} mask. */
+    public static final int MAX_N = 64;
+
+    private final LongAdder nodeCounter;
+    private final SearchMetrics metrics;
+    private final boolean counting;
+
+    public BitboardSolver() {
+        this(null, null);
+    }
+
+    /**
+     * @param nodeCounter receives the number of queens placed by every call (can be null)
+     */
+    public BitboardSolver(LongAdder nodeCounter) {
+        this(nodeCounter, null);
+    }
+
+    /**
+     * @param nodeCounter receives the number of queens placed by every call (can be null)
+     * @param metrics receives the queens placed per row by every call (can be null)
+     */
+    public BitboardSolver(LongAdder nodeCounter, SearchMetrics metrics) {
+        this.nodeCounter = nodeCounter;
+        this.metrics = metrics;
+        this.counting = nodeCounter != null || metrics != null;
+    }
+
+    /**
+     * Solve N-Queens starting from an empty board.
+     *
+     * @param n number of queens / board size
+     * @param onStep callback for each intermediate board state (can be null)
+     * @param onSolution callback for each found solution (can be null)
+     * @param findAll whether to search for all solutions or stop after first
+     * @return list of found solutions
+     */
+    @Override
+    public List<Solution> solve(
+            int n,
+            Consumer<int[]> onStep,
+            Consumer<Solution> onSolution,
+            boolean findAll
+    ) {
+        int[] cols = new int[n];
+        Arrays.fill(cols, -1);
+        return solve(n, onStep, onSolution, findAll, cols, 0);
+    }
+
+    /**
+     * Solve N-Queens starting from a partially-filled board.
+     * Used for parallel solving (each task fixes a different prefix).
+     *
+     * @param n board size
+     * @param onStep step callback
+     * @param onSolution solution callback
+     * @param findAll whether to find all solutions
+     * @param initialCols pre-filled column placements (rows below startRow), reused as the working board
+     * @param startRow row index to start backtracking from
+     */
+    @Override
+    public List<Solution> solve(
+            int n,
+            Consumer<int[]> onStep,
+            Consumer<Solution> onSolution,
+            boolean findAll,
+            int[] initialCols,
+            int startRow
+    ) {
+        checkSize(n);
+        List<Solution> results = new ArrayList<>();
+
+        long full = fullMask(n);
+        long colMask = 0L;
+        long diag1 = 0L; // squares attacked along row + col, seen from startRow
+        long diag2 = 0L; // squares attacked along row - col, seen from startRow
+
+        // Project the pre-filled rows onto startRow
+        for (int r = 0; r < startRow; r++) {
+            long bit = 1L << initialCols[r];
+            int distance = startRow - r;
+            colMask |= bit;
+            diag1 |= bit << distance;
+            diag2 |= bit >>> distance;
+        }
+
+        long[] rowNodes = counting ? new long[n] : null;
+        try {
+            if (rowNodes == null) {
+                backtrack(startRow, n, full, colMask, diag1 & full, diag2,
+                        initialCols, onStep, onSolution, results, findAll);
+            } else {
+                backtrackCounted(startRow, n, full, colMask, diag1 & full, diag2,
+                        initialCols, onStep, onSolution, results, findAll, rowNodes);
+            }
+        } catch (InterruptedException e) {
+            // Interruption is expected in parallel mode
+            Thread.currentThread().interrupt();
+        } finally {
+            if (rowNodes != null) publishNodes(startRow, rowNodes);
+        }
+
+        return results;
+    }
+
+    /**
+     * Count N-Queens solutions starting from an empty board.
+     *
+     * @param n board size
+     * @return number of solutions
+     */
+    @Override
+    public long count(int n) {
+        return count(n, new int[0], 0);
+    }
+
+    /**
+     * Count N-Queens solutions extending a partially-filled board.
+     * Nothing is allocated per node or per solution.
+     *
+     * @param n board size
+     * @param initialCols pre-filled column placements (rows below startRow)
+     * @param startRow row index to start counting from
+     * @return number of solutions found (partial if interrupted)
+     */
+    @Override
+    public long count(int n, int[] initialCols, int startRow) {
+        checkSize(n);
+
+        long full = fullMask(n);
+        long colMask = 0L;
+        long diag1 = 0L;
+        long diag2 = 0L;
+
+        for (int r = 0; r < startRow; r++) {
+            long bit = 1L << initialCols[r];
+            int distance = startRow - r;
+            colMask |= bit;
+            diag1 |= bit << distance;
+            diag2 |= bit >>> distance;
+        }
+
+        if (startRow == n) {
+            return 1;
+        }
+
+        long[] counter = new long[1];
+        long[] rowNodes = counting ? new long[n] : null;
+        try {
+            if (rowNodes == null) {
+                countFrom(startRow, n, full, colMask, diag1 & full, diag2, counter);
+            } else {
+                countFromCounted(startRow, n, full, colMask, diag1 & full, diag2, counter, rowNodes);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (rowNodes != null) publishNodes(startRow, rowNodes);
+        }
+        return counter[0];
+    }
+
+    /**
+     * Recursive counting variant of {@link #backtrack}: the last row is
+     * resolved with a single popcount instead of another level of recursion.
+     *
+     * @throws InterruptedException when thread interruption is detected
+     */
+    private void countFrom(
+            int row,
+            int n,
+            long full,
+            long colMask,
+            long diag1,
+            long diag2,
+            long[] counter
+    ) throws InterruptedException {
+
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException();
+        }
+
+        long free = ~(colMask | diag1 | diag2) & full;
+        if (row == n - 1) {
+            counter[0] += Long.bitCount(free);
+            return;
+        }
+
+        while (free != 0) {
+            long bit = free & -free;
+            free ^= bit;
+            countFrom(
+                    row + 1,
+                    n,
+                    full,
+                    colMask | bit,
+                    ((diag1 | bit) << 1) & full,
+                    (diag2 | bit) >>> 1,
+                    counter
+            );
+        }
+    }
+
+    /**
+     * Core recursive bitmask backtracking.
+     *
+     * @return true when the search should stop (first solution found and findAll is false)
+     * @throws InterruptedException when thread interruption is detected
+     */
+    private boolean backtrack(
+            int row,
+            int n,
+            long full,
+            long colMask,
+            long diag1,
+            long diag2,
+            int[] cols,
+            Consumer<int[]> onStep,
+            Consumer<Solution> onSolution,
+            List<Solution> results,
+            boolean findAll
+    ) throws InterruptedException {
+
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException();
+        }
+
+        // Base case: all rows filled → valid solution
+        if (row == n) {
+            Solution solution = new Solution(Arrays.copyOf(cols, n));
+            results.add(solution);
+
+            if (onSolution != null) {
+                onSolution.accept(solution);
+            }
+            return !findAll;
+        }
+
+        long free = ~(colMask | diag1 | diag2) & full;
+        while (free != 0) {
+            long bit = free & -free; // lowest free square
+            free ^= bit;
+
+            cols[row] = Long.numberOfTrailingZeros(bit);
+
+            if (onStep != null) {
+                onStep.accept(cols);
+            }
+
+            if (backtrack(
+                    row + 1,
+                    n,
+                    full,
+                    colMask | bit,
+                    ((diag1 | bit) << 1) & full,
+                    (diag2 | bit) >>> 1,
+                    cols,
+                    onStep,
+                    onSolution,
+                    results,
+                    findAll
+            )) {
+                return true;
+            }
+        }
+
+        // Leave the row empty for the caller
+        cols[row] = -1;
+        return false;
+    }
+
+    /**
+     * {@link #countFrom} that also tallies the queens placed per row.
+     */
+    private void countFromCounted(
+            int row,
+            int n,
+            long full,
+            long colMask,
+            long diag1,
+            long diag2,
+            long[] counter,
+            long[] rowNodes
+    ) throws InterruptedException {
+
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException();
+        }
+
+        long free = ~(colMask | diag1 | diag2) & full;
+        if (row == n - 1) {
+            int placed = Long.bitCount(free);
+            counter[0] += placed;
+            rowNodes[row] += placed;
+            return;
+        }
+
+        while (free != 0) {
+            long bit = free & -free;
+            free ^= bit;
+            rowNodes[row]++;
+            countFromCounted(
+                    row + 1,
+                    n,
+                    full,
+                    colMask | bit,
+                    ((diag1 | bit) << 1) & full,
+                    (diag2 | bit) >>> 1,
+                    counter,
+                    rowNodes
+            );
+        }
+    }
+
+    /**
+     * {@link #backtrack} that also tallies the queens placed per row.
+     */
+    private boolean backtrackCounted(
+            int row,
+            int n,
+            long full,
+            long colMask,
+            long diag1,
+            long diag2,
+            int[] cols,
+            Consumer<int[]> onStep,
+            Consumer<Solution> onSolution,
+            List<Solution> results,
+            boolean findAll,
+            long[] rowNodes
+    ) throws InterruptedException {
+
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException();
+        }
+
+        // Base case: all rows filled → valid solution
+        if (row == n) {
+            Solution solution = new Solution(Arrays.copyOf(cols, n));
+            results.add(solution);
+
+            if (onSolution != null) {
+                onSolution.accept(solution);
+            }
+            return !findAll;
+        }
+
+        long free = ~(colMask | diag1 | diag2) & full;
+        while (free != 0) {
+            long bit = free & -free; // lowest free square
+            free ^= bit;
+
+            cols[row] = Long.numberOfTrailingZeros(bit);
+            rowNodes[row]++;
+
+            if (onStep != null) {
+                onStep.accept(cols);
+            }
+
+            if (backtrackCounted(
+                    row + 1,
+                    n,
+                    full,
+                    colMask | bit,
+                    ((diag1 | bit) << 1) & full,
+                    (diag2 | bit) >>> 1,
+                    cols,
+                    onStep,
+                    onSolution,
+                    results,
+                    findAll,
+                    rowNodes
+            )) {
+                return true;
+            }
+        }
+
+        // Leave the row empty for the caller
+        cols[row] = -1;
+        return false;
+    }
+
+    private void publishNodes(int startRow, long[] rowNodes) {
+        if (nodeCounter != null) {
+            long nodes = 0;
+            for (long placed : rowNodes) {
+                nodes += placed;
+            }
+            nodeCounter.add(nodes);
+        }
+        if (metrics != null) {
+            metrics.recordSearch(startRow, rowNodes);
+        }
+    }
+
+    /** Mask with the lowest {@code n} bits set. */
+    static long fullMask(int n) {
+        return n == MAX_N ? -1L : (1L << n) - 1;
+    }
+
+    static void checkSize(int n) {
+        if (n < 1 || n > MAX_N) {
+            throw new IllegalArgumentException("Board size must be between 1 and " + MAX_N + ": " + n);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package solver;
+
+import model.Solution;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * ConstructiveSolver
+ * ------------------
+ * First-solution engine that writes a valid placement directly instead of searching.
+ *
+ * Responsibilities:
+ * - Build one solution for every n except 2 and 3 in O(n) time with the
+ *   explicit construction (even columns, then odd columns, with the swaps
+ *   needed when n mod 6 is 2 or 3)
+ * - Verify any placement in O(n) ({@link #verify})
+ * - Hand everything else (all solutions, counts, partial boards) to a
+ *   searching fallback solver
+ *
+ * Important design notes:
+ * - Boards up to {@value #MAX_N} x {@value #MAX_N}; n in the millions takes milliseconds
+ * - The board is one {@code int[]} (cols[row] = column); no object is created per row
+ * - {@code onStep} gets the finished board once, there are no intermediate states
+ * - Only the fallback is bounded by {@link BitboardSolver#MAX_N}
+ */
+public class ConstructiveSolver implements Solver {
+
+    /** Largest board: both diagonal tables of {@link #verify} must fit into an array. */
+    public static final int MAX_N = Integer.MAX_VALUE / 2;
+
+    private final Solver fallback;
+    private final LongAdder nodeCounter;
+
+    public ConstructiveSolver() {
+        this(new BitboardSolver(), null);
+    }
+
+    /**
+     * @param fallback solver for everything but the first solution of an empty board
+     * @param nodeCounter receives the number of queens placed by every construction (can be null)
+     */
+    public ConstructiveSolver(Solver fallback, LongAdder nodeCounter) {
+        this.fallback = fallback;
+        this.nodeCounter = nodeCounter;
+    }
+
+    /**
+     * Builds the first solution, or searches all of them with the fallback.
+     *
+     * @return the constructed solution (empty for n = 2 and 3), or all solutions if findAll is set
+     */
+    @Override
+    public List<Solution> solve(
+            int n,
+            Consumer<int[]> onStep,
+            Consumer<Solution> onSolution,
+            boolean findAll
+    ) throws InterruptedException {
+        if (findAll) {
+            return fallback.solve(n, onStep, onSolution, true);
+        }
+        List<Solution> results = new ArrayList<>(1);
+        int[] cols = new int[checkSize(n)];
+        if (construct(cols)) {
+            if (nodeCounter != null) {
+                nodeCounter.add(n);
+            }
+            if (onStep != null) {
+                onStep.accept(cols);
+            }
+            Solution solution = new Solution(cols);
+            results.add(solution);
+            if (onSolution != null) {
+                onSolution.accept(solution);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Partial boards are searched by the fallback: the construction cannot honour a prefix.
+     */
+    @Override
+    public List<Solution> solve(
+            int n,
+            Consumer<int[]> onStep,
+            Consumer<Solution> onSolution,
+            boolean findAll,
+            int[] cols,
+            int i
+    ) {
+        return fallback.solve(n, onStep, onSolution, findAll, cols, i);
+    }
+
+    @Override
+    public long count(int n) {
+        return fallback.count(n);
+    }
+
+    @Override
+    public long count(int n, int[] initialCols, int startRow) {
+        return fallback.count(n, initialCols, startRow);
+    }
+
+    /**
+     * Builds a solution for an n x n board, n = cols.length.
+     *
+     * @param cols receives cols[row] = column of the queen
+     * @return false if the board has no solution (n = 2 or 3); cols is then left unchanged
+     */
+    public static boolean construct(int[] cols) {
+        int n = cols.length;
+        if (n == 2 || n == 3) {
+            return false;
+        }
+        int row = 0;
+        // Columns are 1-based in the comments
+        switch (n % 6) {
+            case 2 -> {
+                // Even columns, then odd columns with 1 and 3 swapped and 5 moved to the end
+                row = everyOther(cols, row, 1, n);
+                cols[row++] = 2;
+                cols[row++] = 0;
+                row = everyOther(cols, row, 6, n);
+                cols[row++] = 4;
+            }
+            case 3 -> {
+                // Even columns with 2 moved to the end, then odd columns with 1 and 3 moved to the end
+                row = everyOther(cols, row, 3, n);
+                cols[row++] = 1;
+                row = everyOther(cols, row, 4, n);
+                cols[row++] = 0;
+                cols[row++] = 2;
+            }
+            default -> {
+                row = everyOther(cols, row, 1, n);
+                row = everyOther(cols, row, 0, n);
+            }
+        }
+        assert row == n;
+        return true;
+    }
+
+    /**
+     * Checks that a placement puts one queen on every row and column and at most one on every diagonal.
+     *
+     * @param cols cols[row] = column of the queen
+     * @return true if the board is a solution
+     */
+    public static boolean verify(int[] cols) {
+        int n = cols.length;
+        if (n > MAX_N) {
+            return false;
+        }
+        boolean[] columns = new boolean[n];
+        boolean[] diag1 = new boolean[Math.max(1, 2 * n - 1)]; // row + col
+        boolean[] diag2 = new boolean[Math.max(1, 2 * n - 1)]; // row - col + n - 1
+        for (int row = 0; row < n; row++) {
+            int col = cols[row];
+            if (col < 0 || col >= n
+                    || columns[col] || diag1[row + col] || diag2[row - col + n - 1]) {
+                return false;
+            }
+            columns[col] = true;
+            diag1[row + col] = true;
+            diag2[row - col + n - 1] = true;
+        }
+        return true;
+    }
+
+    /** Writes the columns first, first + 2, ... below n into consecutive rows. */
+    private static int everyOther(int[] cols, int row, int first, int n) {
+        for (int col = first; col < n; col += 2) {
+            cols[row++] = col;
+        }
+        return row;
+    }
+
+    private static int checkSize(int n) {
+        if (n < 1 || n > MAX_N) {
+            throw new IllegalArgumentException("Board size must be between 1 and " + MAX_N + ": " + n);
+        }
+        return n;
+    }
+}
@@ -0,0 +1,452 @@
+package solver;
+
+import model.Solution;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * MinConflictsSolver
+ * ------------------
+ * Stochastic local-search engine for first solutions, also with pinned queens.
+ *
+ * Responsibilities:
+ * - Place the free queens greedily on columns that no pinned or earlier
+ *   queen attacks along a diagonal, then repair the attacked rows by
+ *   swapping the columns of two rows whenever that lowers the conflicts
+ * - Run several independent attempts in parallel; the first repaired board wins
+ * - Hand all-solution searches and counts to a searching fallback solver
+ *
+ * Important design notes:
+ * - Columns are kept as a permutation, so column conflicts cannot occur;
+ *   occupancy counters per diagonal ({@code int[]}) give the conflicts of a
+ *   square and are updated in O(1) per move
+ * - Each attempt uses its own {@link SplittableRandom} split from the seed:
+ *   with parallelism 1 the same seed always gives the same board
+ * - Boards up to {@link ConstructiveSolver#MAX_N}; an attempt at n = 10^6 takes well under a second
+ * - Local search cannot prove that no solution exists: an empty result only
+ *   means that no attempt succeeded within its budget
+ * - The calling thread runs one attempt, the others run in the common
+ *   ForkJoinPool; interrupting the calling thread stops all of them
+ */
+public class MinConflictsSolver implements Solver {
+
+    /** Fresh starts per attempt before it gives up. */
+    private static final int ROUNDS = 32;
+    /** Repair moves per free row (plus {@link #MIN_MOVES}) before a start is abandoned. */
+    private static final int MOVES_PER_ROW = 4;
+    private static final int MIN_MOVES = 1 << 10;
+    /** Random columns tried per row by the greedy placement. */
+    private static final int PLACEMENT_TRIES = 32;
+    /** Random partners tried per repair move. */
+    private static final int SWAP_TRIES = 32;
+
+    private final Solver fallback;
+    private final long seed;
+    private final int parallelism;
+    private final LongAdder nodeCounter;
+
+    public MinConflictsSolver() {
+        this(System.nanoTime());
+    }
+
+    /**
+     * @param seed seed of the random choices
+     */
+    public MinConflictsSolver(long seed) {
+        this(new BitboardSolver(), seed, Runtime.getRuntime().availableProcessors(), null);
+    }
+
+    /**
+     * @param fallback solver for all-solution searches and counts
+     * @param seed seed of the random choices
+     * @param parallelism number of independent attempts run at once
+     * @param nodeCounter receives the queens placed or moved by every call (can be null)
+     */
+    public MinConflictsSolver(Solver fallback, long seed, int parallelism, LongAdder nodeCounter) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.fallback = fallback;
+        this.seed = seed;
+        this.parallelism = parallelism;
+        this.nodeCounter = nodeCounter;
+    }
+
+    /**
+     * Repairs a first solution, or searches all of them with the fallback.
+     */
+    @Override
+    public List<Solution> solve(
+            int n,
+            Consumer<int[]> onStep,
+            Consumer<Solution> onSolution,
+            boolean findAll
+    ) throws InterruptedException {
+        if (findAll) {
+            return fallback.solve(n, onStep, onSolution, true);
+        }
+        return report(repair(n, null), onStep, onSolution);
+    }
+
+    /**
+     * Repairs a first solution with the rows below startRow pinned,
+     * or searches all of them with the fallback.
+     */
+    @Override
+    public List<Solution> solve(
+            int n,
+            Consumer<int[]> onStep,
+            Consumer<Solution> onSolution,
+            boolean findAll,
+            int[] cols,
+            int i
+    ) {
+        if (findAll) {
+            return fallback.solve(n, onStep, onSolution, true, cols, i);
+        }
+        int[] pinned = new int[n];
+        Arrays.fill(pinned, -1);
+        System.arraycopy(cols, 0, pinned, 0, i);
+        return report(repair(n, pinned), onStep, onSolution);
+    }
+
+    @Override
+    public long count(int n) {
+        return fallback.count(n);
+    }
+
+    @Override
+    public long count(int n, int[] initialCols, int startRow) {
+        return fallback.count(n, initialCols, startRow);
+    }
+
+    /**
+     * Finds a solution that keeps the pinned queens.
+     *
+     * @param n board size
+     * @param pinned pinned[row] = column of a fixed queen, or -1 for a free row (null: no pins)
+     * @return cols[row] = column of the queen, or null if no attempt succeeded
+     *         (also when the pins attack each other or the calling thread was interrupted)
+     */
+    public int[] repair(int n, int[] pinned) {
+        if (n < 1 || n > ConstructiveSolver.MAX_N) {
+            throw new IllegalArgumentException("Board size must be between 1 and " + ConstructiveSolver.MAX_N + ": " + n);
+        }
+        if (pinned != null && pinned.length != n) {
+            throw new IllegalArgumentException("Expected " + n + " pinned rows, got " + pinned.length);
+        }
+
+        Thread caller = Thread.currentThread();
+        AtomicReference<int[]> result = new AtomicReference<>();
+        AtomicBoolean stopped = new AtomicBoolean(false);
+        // Only the caller sees its own interrupt flag; it passes it on to the other attempts
+        Stop stop = () -> {
+            if (Thread.currentThread() == caller && caller.isInterrupted()) {
+                stopped.set(true);
+            }
+            return stopped.get() || result.get() != null;
+        };
+
+        SplittableRandom root = new SplittableRandom(seed);
+        CompletableFuture<?>[] others = new CompletableFuture<?>[parallelism - 1];
+        SplittableRandom own = root.split();
+        for (int a = 0; a < others.length; a++) {
+            SplittableRandom random = root.split();
+            others[a] = CompletableFuture.runAsync(() -> attempt(n, pinned, random, stop, result));
+        }
+        attempt(n, pinned, own, stop, result);
+
+        CompletableFuture<Void> all = CompletableFuture.allOf(others);
+        try {
+            all.get();
+        } catch (InterruptedException e) {
+            stopped.set(true);
+            all.exceptionally(failure -> null).join(); // the attempts stop within a few thousand moves
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            stopped.set(true);
+            throw e.getCause() instanceof RuntimeException re ? re : new IllegalStateException(e.getCause());
+        }
+        return stopped.get() ? null : result.get();
+    }
+
+    /**
+     * Runs fresh starts of one attempt until it succeeds, is stopped or runs out of rounds.
+     */
+    private void attempt(int n, int[] pinned, SplittableRandom random, Stop stop, AtomicReference<int[]> result) {
+        if (stop.now()) {
+            return; // not started yet, nothing to allocate
+        }
+        Attempt attempt = Attempt.create(n, pinned, random);
+        if (attempt == null) {
+            return; // pins attack each other
+        }
+        try {
+            for (int round = 0; round < ROUNDS && !stop.now(); round++) {
+                if (attempt.run(stop)) {
+                    result.compareAndSet(null, attempt.cols);
+                    return;
+                }
+            }
+        } finally {
+            if (nodeCounter != null) {
+                nodeCounter.add(attempt.nodes);
+            }
+        }
+    }
+
+    private static List<Solution> report(int[] cols, Consumer<int[]> onStep, Consumer<Solution> onSolution) {
+        List<Solution> results = new ArrayList<>(1);
+        if (cols != null) {
+            if (onStep != null) {
+                onStep.accept(cols);
+            }
+            Solution solution = new Solution(cols);
+            results.add(solution);
+            if (onSolution != null) {
+                onSolution.accept(solution);
+            }
+        }
+        return results;
+    }
+
+    /** Stop signal checked between rows. */
+    private interface Stop {
+        boolean now();
+    }
+
+    /**
+     * State of one attempt: the board, the diagonal counters and the free rows.
+     * Only touched by the thread running the attempt.
+     */
+    private static final class Attempt {
+        final int n;
+        final int[] cols;
+        final int[] diag1; // queens per row + col
+        final int[] diag2; // queens per row - col + n - 1
+        final int[] freeRows;
+        final int[] freeCols;
+        final SplittableRandom random;
+        // Attacked free rows waiting for a repair (circular, each row at most once)
+        final int[] queue;
+        final boolean[] queued;
+        int head;
+        int size;
+        // Pairs of queens on a shared diagonal
+        long conflicts;
+        long nodes;
+        boolean placed;
+
+        private Attempt(int n, int[] cols, int[] freeRows, int[] freeCols, SplittableRandom random) {
+            this.n = n;
+            this.cols = cols;
+            this.diag1 = new int[2 * n - 1];
+            this.diag2 = new int[2 * n - 1];
+            this.freeRows = freeRows;
+            this.freeCols = freeCols;
+            this.random = random;
+            this.queue = new int[Math.max(1, freeRows.length)];
+            this.queued = new boolean[n];
+        }
+
+        /**
+         * @return null if two pinned queens attack each other
+         */
+        static Attempt create(int n, int[] pinned, SplittableRandom random) {
+            int[] cols = new int[n];
+            boolean[] usedCols = new boolean[n];
+            int pins = 0;
+            if (pinned != null) {
+                for (int row = 0; row < n; row++) {
+                    int col = pinned[row];
+                    if (col < -1 || col >= n) {
+                        throw new IllegalArgumentException("Pinned column out of range in row " + row + ": " + col);
+                    }
+                    if (col >= 0) {
+                        if (usedCols[col]) {
+                            return null;
+                        }
+                        usedCols[col] = true;
+                        pins++;
+                    }
+                }
+            }
+
+            int[] freeRows = new int[n - pins];
+            int[] freeCols = new int[n - pins];
+            for (int row = 0, r = 0, c = 0; row < n; row++) {
+                if (pinned == null || pinned[row] < 0) {
+                    freeRows[r++] = row;
+                }
+                if (!usedCols[row]) {
+                    freeCols[c++] = row;
+                }
+            }
+
+            Attempt attempt = new Attempt(n, cols, freeRows, freeCols, random);
+            if (pinned != null) {
+                for (int row = 0; row < n; row++) {
+                    if (pinned[row] >= 0) {
+                        cols[row] = pinned[row];
+                        attempt.add(row, pinned[row]);
+                    }
+                }
+                if (attempt.conflicts > 0) {
+                    return null;
+                }
+            }
+            return attempt;
+        }
+
+        /**
+         * One fresh start: greedy placement, then repairs of attacked rows.
+         *
+         * @return true if the board is a solution
+         */
+        boolean run(Stop stop) {
+            if (!place(stop)) {
+                return false;
+            }
+            queueAttacked();
+            long budget = (long) MOVES_PER_ROW * freeRows.length + MIN_MOVES;
+            int m = freeRows.length;
+            for (long step = 0; conflicts > 0 && size > 0 && step < budget; step++) {
+                if ((step & 0xFFF) == 0 && stop.now()) {
+                    return false;
+                }
+                int row = poll();
+                if (!attacked(row)) {
+                    continue;
+                }
+                for (int t = 0; t < SWAP_TRIES; t++) {
+                    int other = freeRows[random.nextInt(m)];
+                    if (other != row && trySwap(row, other)) {
+                        // Every remaining conflict still involves a queued row
+                        offer(other);
+                        break;
+                    }
+                }
+                offer(row); // kept if still attacked, also when no swap helped
+            }
+            return conflicts == 0;
+        }
+
+        /**
+         * Gives every free row an unused column, preferring columns whose diagonals are empty.
+         *
+         * @return false if stopped before every row was placed
+         */
+        private boolean place(Stop stop) {
+            if (placed) {
+                unplace(freeRows.length); // left by the previous start
+            }
+            placed = true;
+            int m = freeRows.length;
+            for (int p = 0; p < m; p++) {
+                if ((p & 0xFFF) == 0 && stop.now()) {
+                    nodes += p;
+                    unplace(p);
+                    return false;
+                }
+                int row = freeRows[p];
+                int pick = p + random.nextInt(m - p);
+                for (int t = 0; t < PLACEMENT_TRIES; t++) {
+                    int k = p + random.nextInt(m - p);
+                    int col = freeCols[k];
+                    if (diag1[row + col] == 0 && diag2[row - col + n - 1] == 0) {
+                        pick = k;
+                        break;
+                    }
+                }
+                int col = freeCols[pick];
+                freeCols[pick] = freeCols[p];
+                freeCols[p] = col;
+                cols[row] = col;
+                add(row, col);
+            }
+            nodes += m;
+            return true;
+        }
+
+        /** Takes back the queens of the first {@code count} free rows. */
+        private void unplace(int count) {
+            for (int p = 0; p < count; p++) {
+                remove(freeRows[p], cols[freeRows[p]]);
+            }
+            placed = false;
+        }
+
+        /** Queues every attacked free row; pinned queens are never moved. */
+        private void queueAttacked() {
+            head = 0;
+            size = 0;
+            Arrays.fill(queued, false);
+            for (int row : freeRows) {
+                offer(row);
+            }
+        }
+
+        private void offer(int row) {
+            if (!queued[row] && attacked(row)) {
+                queued[row] = true;
+                queue[(head + size++) % queue.length] = row;
+            }
+        }
+
+        private int poll() {
+            int row = queue[head];
+            head = (head + 1) % queue.length;
+            size--;
+            queued[row] = false;
+            return row;
+        }
+
+        private boolean attacked(int row) {
+            int col = cols[row];
+            return diag1[row + col] > 1 || diag2[row - col + n - 1] > 1;
+        }
+
+        /**
+         * Swaps the columns of two rows if that lowers the conflicts; O(1).
+         */
+        private boolean trySwap(int a, int b) {
+            int colA = cols[a];
+            int colB = cols[b];
+            long before = conflicts;
+            remove(a, colA);
+            remove(b, colB);
+            add(a, colB);
+            add(b, colA);
+            if (conflicts < before) {
+                cols[a] = colB;
+                cols[b] = colA;
+                nodes += 2;
+                return true;
+            }
+            remove(a, colB);
+            remove(b, colA);
+            add(a, colA);
+            add(b, colB);
+            return false;
+        }
+
+        private void add(int row, int col) {
+            conflicts += diag1[row + col]++;
+            conflicts += diag2[row - col + n - 1]++;
+        }
+
+        private void remove(int row, int col) {
+            conflicts -= --diag1[row + col];
+            conflicts -= --diag2[row - col + n - 1];
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package solver;
+
+import model.Solution;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * SolutionSpliterator
+ * -------------------
+ * Lazy, splittable source of N-Queens solutions.
+ *
+ * Responsibilities:
+ * - Generate solutions one at a time from an explicit stack (no recursion)
+ * - Split the remaining search by board prefixes for parallel streams
+ *
+ * Important design notes:
+ * - Uses the same bitmask representation as {@link BitboardSolver} (n <= 64)
+ * - Only the returned solutions are allocated; advancing is allocation-free
+ * - ORDERED: a split hands out the part of the search that comes first,
+ *   so limit and skip behave like in the sequential depth-first order
+ */
+public class SolutionSpliterator implements Spliterator<Solution> {
+
+    /** Subtrees with this many free rows or fewer are not split further. */
+    private static final int MIN_SPLIT_ROWS = 4;
+
+    private final int n;
+    private final long full;
+
+    // Per-row state of the explicit stack; index n is the "board complete" level
+    private final int[] cols;
+    private final long[] colMask;
+    private final long[] diag1;
+    private final long[] diag2;
+    private final long[] free; // candidates of each row that have not been tried yet
+
+    private int baseRow; // rows below baseRow are fixed for this spliterator
+    private int row;     // next row to place; below baseRow when exhausted
+
+    /**
+     * Spliterator over all solutions of an empty n x n board.
+     */
+    public SolutionSpliterator(int n) {
+        this(n, new int[0], 0);
+    }
+
+    /**
+     * Spliterator over all solutions extending a partially-filled board.
+     *
+     * @param n board size
+     * @param initialCols pre-filled column placements (rows below startRow)
+     * @param startRow first row to search
+     */
+    public SolutionSpliterator(int n, int[] initialCols, int startRow) {
+        BitboardSolver.checkSize(n);
+        this.n = n;
+        this.full = BitboardSolver.fullMask(n);
+        this.cols = new int[n];
+        this.colMask = new long[n + 1];
+        this.diag1 = new long[n + 1];
+        this.diag2 = new long[n + 1];
+        this.free = new long[n + 1];
+
+        Arrays.fill(cols, -1);
+        for (int r = 0; r < startRow; r++) {
+            long bit = 1L << initialCols[r];
+            int distance = startRow - r;
+            cols[r] = initialCols[r];
+            colMask[startRow] |= bit;
+            diag1[startRow] |= bit << distance;
+            diag2[startRow] |= bit >>> distance;
+        }
+        diag1[startRow] &= full;
+
+        this.baseRow = startRow;
+        this.row = startRow;
+        if (startRow < n) {
+            free[startRow] = candidates(startRow);
+        }
+    }
+
+    private SolutionSpliterator(SolutionSpliterator other) {
+        this.n = other.n;
+        this.full = other.full;
+        this.cols = other.cols.clone();
+        this.colMask = other.colMask.clone();
+        this.diag1 = other.diag1.clone();
+        this.diag2 = other.diag2.clone();
+        this.free = other.free.clone();
+        this.baseRow = other.baseRow;
+        this.row = other.row;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Solution> action) {
+        while (row >= baseRow) {
+            // Complete board: report it and resume from the last row
+            if (row == n) {
+                row--;
+                action.accept(new Solution(Arrays.copyOf(cols, n)));
+                return true;
+            }
+
+            long candidates = free[row];
+            if (candidates == 0) {
+                // Row exhausted: backtrack
+                cols[row] = -1;
+                row--;
+                continue;
+            }
+
+            placeNext(candidates);
+        }
+        return false;
+    }
+
+    /**
+     * Places the lowest untried candidate of the current row and moves one row down.
+     */
+    private void placeNext(long candidates) {
+        long bit = candidates & -candidates;
+        free[row] = candidates ^ bit;
+        cols[row] = Long.numberOfTrailingZeros(bit);
+
+        int next = row + 1;
+        colMask[next] = colMask[row] | bit;
+        diag1[next] = ((diag1[row] | bit) << 1) & full;
+        diag2[next] = (diag2[row] | bit) >>> 1;
+        row = next;
+        if (row < n) {
+            free[row] = candidates(row);
+        }
+    }
+
+    /**
+     * Splits off the part of the remaining search that comes first.
+     *
+     * The shallowest row with untried candidates is cut in two: the returned
+     * spliterator keeps the current path and the lower candidates, while this
+     * one restarts at that row with only the upper candidates.
+     */
+    @Override
+    public Spliterator<Solution> trySplit() {
+        int splitRow = findSplitRow();
+        if (splitRow < 0) {
+            return null;
+        }
+
+        long candidates = free[splitRow];
+        int keep = splitRow < row
+                ? Long.bitCount(candidates) / 2        // the current path stays with the first half
+                : (Long.bitCount(candidates) + 1) / 2;
+        long lower = 0;
+        for (int i = 0; i < keep; i++) {
+            long bit = (candidates & ~lower) & -(candidates & ~lower);
+            lower |= bit;
+        }
+
+        SolutionSpliterator first = new SolutionSpliterator(this);
+        first.free[splitRow] = lower;
+
+        // This spliterator becomes the second part: restart at splitRow with the upper candidates
+        baseRow = splitRow;
+        row = splitRow;
+        free[splitRow] = candidates & ~lower;
+        for (int r = splitRow; r < n; r++) {
+            cols[r] = -1;
+        }
+        return first;
+    }
+
+    private int findSplitRow() {
+        for (int r = baseRow; r < row && n - r > MIN_SPLIT_ROWS; r++) {
+            if (free[r] != 0) {
+                return r;
+            }
+        }
+
+        // At the frontier a single candidate cannot be shared: place it and look one row deeper
+        while (row >= baseRow && row < n && n - row > MIN_SPLIT_ROWS) {
+            int untried = Long.bitCount(free[row]);
+            if (untried >= 2) {
+                return row;
+            }
+            if (untried == 0) {
+                return -1;
+            }
+            placeNext(free[row]);
+        }
+        return -1;
+    }
+
+    private long candidates(int r) {
+        return ~(colMask[r] | diag1[r] | diag2[r]) & full;
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE; // unknown without searching
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | DISTINCT | NONNULL | IMMUTABLE;
+    }
+}
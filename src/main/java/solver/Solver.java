@@ -4,12 +4,15 @@ import model.Solution;
 
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public interface Solver {
     /**
      * Solve the N-Queens problem.
      * @param n board size
-     * @param onStep called whenever a step/state update happens (may be used for visualization)
+     * @param onStep called whenever a step/state update happens (may be used for visualization).
+     *               Implementations may pass their live board, so consumers must copy it to keep it.
      * @param onSolution called when a full solution is found
      * @param findAll if true, search all solutions; otherwise stop after first.
      * @return list of solutions found (may be large)
@@ -25,4 +28,31 @@ public interface Solver {
                         boolean findAll,
                         int[] cols,
                         int i);
+
+    /**
+     * Count all solutions without materializing them.
+     * @param n board size
+     * @return number of solutions
+     */
+    long count(int n);
+
+    /**
+     * Count all solutions that extend a partially-filled board.
+     * @param n board size
+     * @param initialCols pre-filled column placements (rows below startRow)
+     * @param startRow row index to start counting from
+     * @return number of solutions in the subtree, or the partial count if interrupted
+     */
+    long count(int n, int[] initialCols, int startRow);
+
+    /**
+     * Lazy stream of all solutions, generated only as far as the consumer pulls.
+     * Supports limit, skip and filter without running the whole search, and
+     * parallel() splits the remaining search by board prefixes.
+     * @param n board size (at most 64)
+     * @return sequential stream; call parallel() to split it
+     */
+    default Stream<Solution> stream(int n) {
+        return StreamSupport.stream(new SolutionSpliterator(n), false);
+    }
 }
@@ -0,0 +1,92 @@
+package solver;
+
+/**
+ * Symmetry
+ * --------
+ * The 8 symmetries of the square board (dihedral group D4) applied to
+ * N-Queens placements in cols[row] = col form.
+ *
+ * A solution is canonical when it is the lexicographically smallest board
+ * of its symmetry class, so every class has exactly one canonical member.
+ */
+public final class Symmetry {
+
+    /** Number of board symmetries (rotations and reflections). */
+    public static final int ORDER = 8;
+
+    private Symmetry() {
+    }
+
+    /**
+     * Left-right mirror image of a complete or partial board.
+     */
+    public static int[] mirror(int[] cols) {
+        int n = cols.length;
+        int[] out = new int[n];
+        for (int r = 0; r < n; r++) {
+            out[r] = cols[r] < 0 ? -1 : n - 1 - cols[r];
+        }
+        return out;
+    }
+
+    /**
+     * Writes the board transformed by symmetry {@code k} (0 = identity) into {@code out}.
+     * Only valid for complete boards.
+     */
+    public static void transform(int[] cols, int k, int[] out) {
+        int n = cols.length;
+        int m = n - 1;
+        for (int r = 0; r < n; r++) {
+            int c = cols[r];
+            switch (k) {
+                case 0 -> out[r] = c;              // identity
+                case 1 -> out[r] = m - c;          // mirror left-right
+                case 2 -> out[m - r] = c;          // mirror top-bottom
+                case 3 -> out[m - r] = m - c;      // rotate 180
+                case 4 -> out[c] = r;              // transpose
+                case 5 -> out[m - c] = m - r;      // anti-transpose
+                case 6 -> out[c] = m - r;          // rotate 90
+                case 7 -> out[m - c] = r;          // rotate 270
+                default -> throw new IllegalArgumentException("Unknown symmetry: " + k);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a complete board is the canonical member of its class.
+     */
+    public static boolean isCanonical(int[] cols) {
+        int[] image = new int[cols.length];
+        for (int k = 1; k < ORDER; k++) {
+            transform(cols, k, image);
+            if (compare(image, cols) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Number of distinct boards in the symmetry class of a complete board (1, 2, 4 or 8).
+     */
+    public static int multiplicity(int[] cols) {
+        int[] image = new int[cols.length];
+        int invariant = 1; // identity
+        for (int k = 1; k < ORDER; k++) {
+            transform(cols, k, image);
+            if (compare(image, cols) == 0) {
+                invariant++;
+            }
+        }
+        return ORDER / invariant;
+    }
+
+    private static int compare(int[] a, int[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] != b[i]) {
+                return Integer.compare(a[i], b[i]);
+            }
+        }
+        return 0;
+    }
+}
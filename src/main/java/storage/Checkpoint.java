@@ -0,0 +1,353 @@
+package storage;
+
+import model.SolveMode;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Checkpoint
+ * ----------
+ * Progress of a long COUNT, ALL or UNIQUE run at prefix granularity, saved
+ * to disk so that a restarted run skips the finished subtrees.
+ *
+ * Responsibilities:
+ * - Remember every completed leaf prefix with its solution counts
+ * - Save periodically to a temporary file that atomically replaces the checkpoint
+ * - Tell which boards of a partially written {@link SolutionFile} belong to
+ *   completed prefixes, so the file can be cleaned up on resume
+ *
+ * Important design notes:
+ * - Workers split the search into the same leaf prefixes on every run
+ *   (symmetric first row, extended to {@link #getSplitDepth()} rows), so a
+ *   prefix of the previous run is found again by its columns
+ * - Before each save the attached solution file is synced, so a prefix is
+ *   never marked complete while some of its boards are still in flight
+ * - Saving costs one small file write per interval; workers only touch a
+ *   concurrent map once per finished leaf
+ *
+ * Format: magic "NQCP", version, n, mode name, split depth, entry count, then
+ * per entry the prefix depth, its columns, its weight and the solution and
+ * total counts (DataOutput, big-endian).
+ */
+public final class Checkpoint implements Closeable {
+
+    /** Default time between two saves. */
+    public static final long DEFAULT_INTERVAL_MILLIS = 30_000;
+
+    /** Leaf depth for new checkpoints: a few thousand prefixes for N around 20. */
+    private static final int DEFAULT_SPLIT_DEPTH = 4;
+
+    private static final int MAGIC = 0x4E514350; // "NQCP"
+    private static final int VERSION = 1;
+
+    private final Path path;
+    private final int n;
+    private final SolveMode mode;
+    private final int splitDepth;
+    private final Map<Key, Entry> completed = new ConcurrentHashMap<>();
+    private final long resumedSolutions;
+    private final long resumedTotal;
+    private final ScheduledExecutorService saver;
+    private final AtomicReference<IOException> failure = new AtomicReference<>();
+    private volatile SolutionFile.Writer solutionFile;
+    private volatile boolean dirty;
+    private int maxDepth;
+
+    private Checkpoint(Path path, int n, SolveMode mode, int splitDepth, List<Entry> entries, long intervalMillis) {
+        this.path = path;
+        this.n = n;
+        this.mode = mode;
+        this.splitDepth = splitDepth;
+
+        long solutions = 0;
+        long total = 0;
+        for (Entry entry : entries) {
+            completed.put(new Key(entry.cols), entry);
+            maxDepth = Math.max(maxDepth, entry.cols.length);
+            solutions += entry.solutions;
+            total += entry.total;
+        }
+        this.resumedSolutions = solutions;
+        this.resumedTotal = total;
+
+        this.saver = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "checkpoint-saver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        saver.scheduleWithFixedDelay(this::saveQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Loads the checkpoint at path, or starts a new one if the file does not exist.
+     *
+     * @param splitDepth leaf depth of a new checkpoint, or 0 for the default; an existing one keeps its own
+     * @param intervalMillis time between two automatic saves
+     * @throws IOException if the file cannot be read or belongs to another board size or mode
+     */
+    public static Checkpoint open(Path path, int n, SolveMode mode, int splitDepth, long intervalMillis)
+            throws IOException {
+        if (mode == SolveMode.FIRST) {
+            throw new IllegalArgumentException("FIRST runs are too short to checkpoint");
+        }
+        if (intervalMillis < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive: " + intervalMillis);
+        }
+        if (!Files.exists(path)) {
+            int depth = splitDepth > 0 ? splitDepth : DEFAULT_SPLIT_DEPTH;
+            return new Checkpoint(path, n, mode, Math.min(depth, n), List.of(), intervalMillis);
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a checkpoint: " + path);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported checkpoint version " + version + ": " + path);
+            }
+            int storedN = in.readInt();
+            String storedMode = in.readUTF();
+            if (storedN != n || !storedMode.equals(mode.name())) {
+                throw new IOException("Checkpoint " + path + " belongs to n=" + storedN + " " + storedMode
+                        + ", not n=" + n + " " + mode);
+            }
+            int storedDepth = in.readInt();
+            int count = in.readInt();
+            List<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                entries.add(readEntry(in, n, path));
+            }
+            return new Checkpoint(path, n, mode, storedDepth, entries, intervalMillis);
+        }
+    }
+
+    /** Number of fixed rows of every leaf prefix. */
+    public int getSplitDepth() {
+        return splitDepth;
+    }
+
+    /**
+     * Solution total of a completed prefix (including mirrored boards).
+     *
+     * @return the total, or -1 if the prefix has not been completed
+     */
+    public long completedTotal(int[] prefix) {
+        Entry entry = completed.get(new Key(prefix));
+        return entry != null ? entry.total : -1;
+    }
+
+    public boolean isCompleted(int[] prefix) {
+        return completed.containsKey(new Key(prefix));
+    }
+
+    /**
+     * Marks a leaf prefix as completed; it is saved with the next checkpoint.
+     * Only call this when the leaf ran to the end (not cancelled or interrupted).
+     *
+     * @param weight 2 if the prefix also stands for its mirror image
+     * @param solutions boards reported by the leaf
+     * @param total solutions including symmetric copies
+     */
+    public void complete(int[] prefix, int weight, long solutions, long total) {
+        completed.put(new Key(prefix.clone()), new Entry(prefix.clone(), weight, solutions, total));
+        dirty = true;
+    }
+
+    /** Boards reported by the prefixes loaded from disk. */
+    public long getResumedSolutions() {
+        return resumedSolutions;
+    }
+
+    /** Solutions, including symmetric copies, of the prefixes loaded from disk. */
+    public long getResumedTotal() {
+        return resumedTotal;
+    }
+
+    /**
+     * Whether a stored board was produced by a completed prefix (directly, or as
+     * the mirror image of a weight 2 prefix). Boards of unfinished prefixes are
+     * dropped on resume because they will be found again.
+     */
+    public boolean covers(int[] board) {
+        int[] mirrored = null;
+        // Prefixes completed since loading have the split depth
+        int depth = Math.max(maxDepth, splitDepth);
+        for (int d = 1; d <= Math.min(depth, board.length); d++) {
+            if (completed.containsKey(new Key(Arrays.copyOf(board, d)))) {
+                return true;
+            }
+            if (mirrored == null) {
+                mirrored = new int[board.length];
+                for (int r = 0; r < board.length; r++) {
+                    mirrored[r] = board.length - 1 - board[r];
+                }
+            }
+            Entry entry = completed.get(new Key(Arrays.copyOf(mirrored, d)));
+            if (entry != null && entry.weight == 2) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Solution file that must be synced before each save.
+     * Close or discard the checkpoint before closing the file.
+     */
+    public void attach(SolutionFile.Writer file) {
+        this.solutionFile = file;
+    }
+
+    /**
+     * Writes the checkpoint now: to a temporary file first, which then atomically
+     * replaces the previous checkpoint.
+     */
+    public synchronized void save() throws IOException {
+        dirty = false;
+        List<Entry> snapshot = new ArrayList<>(completed.values());
+
+        // Boards of the snapshot's prefixes must be on disk before the prefixes are recorded
+        SolutionFile.Writer file = solutionFile;
+        if (file != null) {
+            file.sync();
+        }
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream stream = Channels.newOutputStream(channel);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(n);
+            out.writeUTF(mode.name());
+            out.writeInt(splitDepth);
+            out.writeInt(snapshot.size());
+            for (Entry entry : snapshot) {
+                out.writeByte(entry.cols.length);
+                for (int c : entry.cols) {
+                    out.writeShort(c);
+                }
+                out.writeByte(entry.weight);
+                out.writeLong(entry.solutions);
+                out.writeLong(entry.total);
+            }
+            out.flush();
+            channel.force(false);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Stops periodic saving and writes a final checkpoint.
+     *
+     * @throws IOException if this or an earlier periodic save failed
+     */
+    @Override
+    public void close() throws IOException {
+        stopSaver();
+        IOException error = failure.get();
+        if (error != null) {
+            throw error;
+        }
+        save();
+    }
+
+    /**
+     * Stops periodic saving and deletes the checkpoint (the run is complete).
+     */
+    public void discard() throws IOException {
+        stopSaver();
+        Files.deleteIfExists(path);
+    }
+
+    private void stopSaver() {
+        saver.shutdownNow();
+        try {
+            saver.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void saveQuietly() {
+        if (!dirty) {
+            return;
+        }
+        try {
+            save();
+        } catch (IOException e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    private static Entry readEntry(DataInputStream in, int n, Path path) throws IOException {
+        int depth = in.readUnsignedByte();
+        if (depth < 1 || depth > n) {
+            throw new IOException("Corrupt checkpoint: " + path);
+        }
+        int[] cols = new int[depth];
+        for (int r = 0; r < depth; r++) {
+            cols[r] = in.readUnsignedShort();
+        }
+        int weight = in.readUnsignedByte();
+        return new Entry(cols, weight, in.readLong(), in.readLong());
+    }
+
+    private static final class Entry {
+        final int[] cols;
+        final int weight;
+        final long solutions;
+        final long total;
+
+        Entry(int[] cols, int weight, long solutions, long total) {
+            this.cols = cols;
+            this.weight = weight;
+            this.solutions = solutions;
+            this.total = total;
+        }
+    }
+
+    /** Map key comparing prefixes by their columns. */
+    private static final class Key {
+        private final int[] cols;
+        private final int hash;
+
+        Key(int[] cols) {
+            this.cols = cols;
+            this.hash = Arrays.hashCode(cols);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && Arrays.equals(cols, key.cols);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package storage;
+
+import model.Solution;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * ChunkDirectory
+ * --------------
+ * Slot bookkeeping shared by the chunk implementations of {@link SolutionStore}.
+ *
+ * Responsibilities:
+ * - Hand out index ranges, refusing ranges that would exceed the capacity
+ * - Map an index to its chunk and offset, creating chunks on first use
+ * - Publish each written slot in a per-chunk bitmap, and advance the
+ *   published size over every gap-free run of written slots ({@link #commit})
+ *
+ * Important design notes:
+ * - Chunks double in size from FIRST_CHUNK up to MAX_CHUNK slots, then stay
+ *   at that size, so small stores stay small and nothing is ever copied
+ * - {@link #size()} only covers slots that are written, so readers never wait
+ * - The published size is advanced by whichever writer sees the gap closed:
+ *   a writer blocked behind a slower one never waits for it
+ *
+ * @param <C> storage of the slots of one chunk
+ */
+abstract class ChunkDirectory<C> implements SolutionChunks {
+
+    private static final int FIRST_CHUNK_BITS = 10;
+    private static final int FIRST_CHUNK = 1 << FIRST_CHUNK_BITS;
+    private static final int MAX_CHUNK_BITS = 16;
+    private static final int MAX_CHUNK = 1 << MAX_CHUNK_BITS;
+    /** Chunks that double in size before they reach MAX_CHUNK. */
+    private static final int GROWING_CHUNKS = MAX_CHUNK_BITS - FIRST_CHUNK_BITS;
+    private static final int MAX_CHUNKS = GROWING_CHUNKS + (1 << (Integer.SIZE - 1 - MAX_CHUNK_BITS));
+    private static final int MAX_SIZE = Integer.MAX_VALUE - FIRST_CHUNK;
+
+    private final AtomicReferenceArray<Chunk<C>> directory = new AtomicReferenceArray<>(MAX_CHUNKS);
+    private final AtomicInteger claimed = new AtomicInteger();
+    private final AtomicInteger published = new AtomicInteger();
+
+    /**
+     * Creates the storage of a chunk of the given number of slots.
+     */
+    protected abstract C newChunk(int capacity);
+
+    /**
+     * Writes a solution into its slot of a chunk.
+     */
+    protected abstract void write(C chunk, int offset, Solution solution);
+
+    /**
+     * Reads a written slot of a chunk.
+     */
+    protected abstract Solution read(C chunk, int offset);
+
+    @Override
+    public final int size() {
+        return published.get();
+    }
+
+    @Override
+    public final int claim(int count) {
+        while (true) {
+            int base = claimed.get();
+            if (count > MAX_SIZE - base) {
+                throw new IllegalStateException("SolutionStore is full");
+            }
+            if (claimed.compareAndSet(base, base + count)) {
+                return base;
+            }
+        }
+    }
+
+    @Override
+    public void set(int index, Solution solution) {
+        int chunkIndex = chunkOf(index);
+        int offset = offsetOf(index, chunkIndex);
+        Chunk<C> chunk = chunkFor(chunkIndex);
+        write(chunk.slots, offset, solution);
+        chunk.publish(offset);
+    }
+
+    /**
+     * Moves the published size past every written slot that directly follows it.
+     */
+    @Override
+    public final void commit() {
+        int from = published.get();
+        int to;
+        while ((to = firstUnwritten(from)) > from) {
+            from = published.compareAndSet(from, to) ? to : published.get();
+        }
+    }
+
+    /**
+     * Reads a published slot; callers check the index against {@link #size()}.
+     */
+    @Override
+    public final Solution get(int index) {
+        int chunkIndex = chunkOf(index);
+        return read(directory.get(chunkIndex).slots, offsetOf(index, chunkIndex));
+    }
+
+    /**
+     * First index from the given one whose slot is not written yet, at most the claimed size.
+     */
+    private int firstUnwritten(int from) {
+        int limit = claimed.get();
+        int index = from;
+        while (index < limit) {
+            int chunkIndex = chunkOf(index);
+            Chunk<C> chunk = directory.get(chunkIndex);
+            if (chunk == null) {
+                return index;
+            }
+            int offset = offsetOf(index, chunkIndex);
+            int bit = offset & (Long.SIZE - 1);
+            long unwritten = ~chunk.written.get(offset >>> 6) & (-1L << bit);
+            if (unwritten != 0) {
+                return Math.min(limit, index + Long.numberOfTrailingZeros(unwritten) - bit);
+            }
+            index += Long.SIZE - bit; // chunk sizes are multiples of 64, so this stays aligned
+        }
+        return limit;
+    }
+
+    private Chunk<C> chunkFor(int chunkIndex) {
+        Chunk<C> chunk = directory.get(chunkIndex);
+        if (chunk == null) {
+            Chunk<C> created = new Chunk<>(newChunk(capacityOf(chunkIndex)), capacityOf(chunkIndex));
+            chunk = directory.compareAndSet(chunkIndex, null, created) ? created : directory.get(chunkIndex);
+        }
+        return chunk;
+    }
+
+    private static int chunkOf(int index) {
+        // Growing chunk k holds positions FIRST_CHUNK << k up to (FIRST_CHUNK << (k + 1)) - 1
+        int position = index + FIRST_CHUNK;
+        if (position < MAX_CHUNK) {
+            return (Integer.SIZE - 1 - Integer.numberOfLeadingZeros(position)) - FIRST_CHUNK_BITS;
+        }
+        return GROWING_CHUNKS - 1 + (position >>> MAX_CHUNK_BITS);
+    }
+
+    private static int offsetOf(int index, int chunkIndex) {
+        int position = index + FIRST_CHUNK;
+        return chunkIndex < GROWING_CHUNKS ? position - (FIRST_CHUNK << chunkIndex) : position & (MAX_CHUNK - 1);
+    }
+
+    private static int capacityOf(int chunkIndex) {
+        return chunkIndex < GROWING_CHUNKS ? FIRST_CHUNK << chunkIndex : MAX_CHUNK;
+    }
+
+    /**
+     * Slots of one chunk plus the bitmap of the written ones.
+     */
+    private static final class Chunk<C> {
+        final C slots;
+        final AtomicLongArray written;
+
+        Chunk(C slots, int capacity) {
+            this.slots = slots;
+            this.written = new AtomicLongArray(capacity / Long.SIZE);
+        }
+
+        void publish(int offset) {
+            // Volatile read-modify-write: the slot is visible to anyone who sees the bit
+            written.getAndAccumulate(offset >>> 6, 1L << offset, (bitmap, bit) -> bitmap | bit);
+        }
+    }
+}
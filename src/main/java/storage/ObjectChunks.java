@@ -0,0 +1,26 @@
+package storage;
+
+import model.Solution;
+
+/**
+ * ObjectChunks
+ * ------------
+ * Keeps Solution objects in the chunks of a {@link ChunkDirectory}.
+ */
+final class ObjectChunks extends ChunkDirectory<Solution[]> {
+
+    @Override
+    protected Solution[] newChunk(int capacity) {
+        return new Solution[capacity];
+    }
+
+    @Override
+    protected void write(Solution[] chunk, int offset, Solution solution) {
+        chunk[offset] = solution;
+    }
+
+    @Override
+    protected Solution read(Solution[] chunk, int offset) {
+        return chunk[offset];
+    }
+}
@@ -0,0 +1,130 @@
+package storage;
+
+import model.Solution;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * PackedChunks
+ * ------------
+ * Keeps boards bit-packed in primitive {@code long} words instead of
+ * Solution objects; a Solution is only decoded when it is read.
+ *
+ * Layout of one board (all values use the same bit width):
+ * - value 0: log2 of the multiplicity (1, 2, 4 or 8)
+ * - values 1..n: column of the queen in each row
+ * Values never straddle a word, so a board takes ceil((n + 1) / (64 / bits)) words.
+ *
+ * The boards of a {@link ChunkDirectory} chunk live either in a heap
+ * {@code long[]} or in a direct (off-heap) ByteBuffer.
+ */
+final class PackedChunks extends ChunkDirectory<LongBuffer> {
+
+    private final boolean offHeap;
+    private final AtomicReference<Layout> layout = new AtomicReference<>();
+
+    /**
+     * @param offHeap whether chunks live in direct ByteBuffers instead of heap arrays
+     */
+    PackedChunks(boolean offHeap) {
+        this.offHeap = offHeap;
+    }
+
+    @Override
+    public void set(int index, Solution solution) {
+        layoutFor(solution.getCols().length); // fixes the layout before the first chunk is created
+        super.set(index, solution);
+    }
+
+    @Override
+    protected LongBuffer newChunk(int capacity) {
+        int words = layout.get().words * capacity;
+        return offHeap
+                ? ByteBuffer.allocateDirect(words * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer()
+                : LongBuffer.wrap(new long[words]);
+    }
+
+    @Override
+    protected void write(LongBuffer chunk, int offset, Solution solution) {
+        Layout current = layout.get();
+        current.encode(solution.getCols(), solution.getMultiplicity(), chunk, offset * current.words);
+    }
+
+    @Override
+    protected Solution read(LongBuffer chunk, int offset) {
+        Layout current = layout.get();
+        return current.decode(chunk, offset * current.words);
+    }
+
+    /**
+     * The layout is fixed by the first board; every board of a generation must have the same size.
+     */
+    private Layout layoutFor(int n) {
+        Layout current = layout.get();
+        if (current == null) {
+            layout.compareAndSet(null, new Layout(n));
+            current = layout.get();
+        }
+        if (current.n != n) {
+            throw new IllegalArgumentException("Packed store holds " + current.n + "x" + current.n
+                    + " boards, got " + n + "x" + n);
+        }
+        return current;
+    }
+
+    /**
+     * Bit widths and word counts for one board size.
+     */
+    private static final class Layout {
+        final int n;
+        final int bits;
+        final int perWord;
+        final int words;
+        final long mask;
+
+        Layout(int n) {
+            this.n = n;
+            // At least 2 bits so the multiplicity header (0..3) fits
+            this.bits = Math.max(2, Integer.SIZE - Integer.numberOfLeadingZeros(Math.max(1, n - 1)));
+            this.perWord = Long.SIZE / bits;
+            this.words = (n + 1 + perWord - 1) / perWord;
+            this.mask = (1L << bits) - 1;
+        }
+
+        void encode(int[] cols, int multiplicity, LongBuffer target, int start) {
+            long word = Integer.numberOfTrailingZeros(multiplicity);
+            int used = 1;
+            int wordIndex = start;
+            for (int c : cols) {
+                if (used == perWord) {
+                    target.put(wordIndex++, word);
+                    word = 0;
+                    used = 0;
+                }
+                word |= (long) c << (used * bits);
+                used++;
+            }
+            target.put(wordIndex, word);
+        }
+
+        Solution decode(LongBuffer source, int start) {
+            int[] cols = new int[n];
+            long word = source.get(start);
+            int multiplicity = 1 << (int) (word & mask);
+            int used = 1;
+            int wordIndex = start;
+            for (int r = 0; r < n; r++) {
+                if (used == perWord) {
+                    word = source.get(++wordIndex);
+                    used = 0;
+                }
+                cols[r] = (int) ((word >>> (used * bits)) & mask);
+                used++;
+            }
+            return new Solution(cols, multiplicity);
+        }
+    }
+}
@@ -0,0 +1,491 @@
+package storage;
+
+import model.Solution;
+import model.SolveMode;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.zip.CRC32C;
+
+/**
+ * ResultCache
+ * -----------
+ * Results of finished runs keyed by board size and mode, so that a repeated
+ * run is answered without solving.
+ *
+ * Responsibilities:
+ * - Keep recently used solution sets in memory (LRU, bounded by boards)
+ * - Keep counts and solution sets on disk (bounded by bytes, least recently
+ *   used entries are evicted first)
+ * - Check a cached file against its CRC-32C on its first use, and against its
+ *   length and modification time after that; a damaged or missing file only
+ *   drops its entry
+ *
+ * Important design notes:
+ * - Solution sets are stored as {@link SolutionFile}s and counts in the index,
+ *   which is rewritten through a temporary file and an atomic rename
+ * - New and dropped entries are saved right away; use times only every
+ *   {@value #INDEX_SAVE_MILLIS} ms and on {@link #close()}, as losing them only
+ *   changes the eviction order
+ * - An ALL or UNIQUE entry also answers COUNT for the same n
+ * - FIRST runs are not cached: they take microseconds
+ * - Only the entry maps are guarded by this object's lock: solution files are
+ *   read, checked and written outside it, on the calling thread, so a UI
+ *   should look up and store sets in the background
+ *
+ * Index format: magic "NQRC", version, entry count, then per entry n, mode
+ * name, total, boards, file bytes, file CRC-32C and last use (epoch millis),
+ * followed by the CRC-32C of all of the above (DataOutput, big-endian).
+ */
+public final class ResultCache implements Closeable {
+
+    /** Default bound of the files on disk. */
+    public static final long DEFAULT_MAX_BYTES = 256L << 20;
+
+    /** Default bound of the boards kept in memory. */
+    public static final int DEFAULT_MEMORY_BOARDS = 1 << 20;
+
+    private static final int MAGIC = 0x4E515243; // "NQRC"
+    private static final int VERSION = 1;
+    private static final String INDEX = "index";
+    private static final String SUFFIX = ".sol";
+    private static final int CRC_SEGMENT = 1 << 26;
+    /** Time between two index saves that only record use times. */
+    private static final long INDEX_SAVE_MILLIS = 10_000;
+
+    private final Path dir;
+    private final long maxBytes;
+    private final int memoryBoards;
+    private final Map<Key, Entry> entries = new HashMap<>();
+    private final LinkedHashMap<Key, SolutionStore> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private long heldBoards;
+    private boolean indexDirty;
+    private long indexSaved;
+
+    private ResultCache(Path dir, long maxBytes, int memoryBoards) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        this.memoryBoards = memoryBoards;
+    }
+
+    /**
+     * Opens (or creates) the cache in dir. A damaged index starts an empty cache.
+     *
+     * @param maxBytes bound of the solution files on disk
+     * @param memoryBoards bound of the boards kept in memory (0 to keep none)
+     */
+    public static ResultCache open(Path dir, long maxBytes, int memoryBoards) throws IOException {
+        if (maxBytes < 0 || memoryBoards < 0) {
+            throw new IllegalArgumentException("Cache bounds must not be negative");
+        }
+        Files.createDirectories(dir);
+        ResultCache cache = new ResultCache(dir, maxBytes, memoryBoards);
+        cache.loadIndex();
+        cache.deleteOrphans();
+        return cache;
+    }
+
+    /** ~/.nqueens/cache */
+    public static Path defaultDirectory() {
+        return Path.of(System.getProperty("user.home"), ".nqueens", "cache");
+    }
+
+    /**
+     * Number of solutions for n, from a COUNT, ALL or UNIQUE entry.
+     */
+    public synchronized OptionalLong count(int n) throws IOException {
+        for (SolveMode mode : new SolveMode[]{SolveMode.COUNT, SolveMode.ALL, SolveMode.UNIQUE}) {
+            Entry entry = entries.get(new Key(n, mode));
+            if (entry != null) {
+                used(entry);
+                return OptionalLong.of(entry.total);
+            }
+        }
+        return OptionalLong.empty();
+    }
+
+    public synchronized void putCount(int n, long count) throws IOException {
+        Entry entry = new Entry(new Key(n, SolveMode.COUNT), count, 0, 0, 0);
+        entry.lastUsed = System.currentTimeMillis();
+        entries.put(entry.key, entry);
+        saveIndex();
+    }
+
+    /**
+     * Adds a cached solution set to sink (e.g. the SolutionStore shown by the UI).
+     *
+     * @return number of boards added, or -1 if the set is not cached (or was damaged)
+     */
+    public long load(int n, SolveMode mode, SolutionSink sink) throws IOException {
+        Key key = new Key(n, mode);
+        Entry entry;
+        SolutionStore held;
+        synchronized (this) {
+            entry = entries.get(key);
+            held = memory.get(key);
+            if (held != null && entry != null) used(entry);
+        }
+        if (held != null) {
+            copy(held, sink, null);
+            return held.size();
+        }
+
+        try (SolutionFile.Reader reader = verify(entry)) {
+            if (reader == null) {
+                return -1;
+            }
+            SolutionStore copy = reader.size() <= memoryBoards ? new SolutionStore(SolutionStore.Mode.PACKED) : null;
+            copy(reader, sink, copy);
+            synchronized (this) {
+                if (entries.get(key) == entry) {
+                    if (copy != null) hold(key, copy);
+                    used(entry);
+                }
+            }
+            return reader.size();
+        }
+    }
+
+    /**
+     * Maps a cached solution set for reading, without copying it.
+     * The reader stays valid if the entry is evicted meanwhile (on POSIX file systems).
+     *
+     * @return the reader, or null if the set is not cached (or was damaged)
+     */
+    public SolutionFile.Reader open(int n, SolveMode mode) throws IOException {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(new Key(n, mode));
+        }
+        SolutionFile.Reader reader = verify(entry);
+        if (reader != null) {
+            synchronized (this) {
+                if (entries.get(entry.key) == entry) used(entry);
+            }
+        }
+        return reader;
+    }
+
+    /**
+     * Stores the solution set of a finished ALL or UNIQUE run.
+     * Sets larger than the disk bound are kept in memory only (if they fit there).
+     */
+    public void put(int n, SolveMode mode, SolutionSource solutions) throws IOException {
+        if (mode != SolveMode.ALL && mode != SolveMode.UNIQUE) {
+            throw new IllegalArgumentException("Only ALL and UNIQUE solution sets are cached: " + mode);
+        }
+        Key key = new Key(n, mode);
+        int size = solutions.size();
+        SolutionStore copy = size <= memoryBoards ? new SolutionStore(SolutionStore.Mode.PACKED) : null;
+
+        // Written and checked without the lock, so lookups are not held up
+        Path temp = Files.createTempFile(dir, key.fileName() + ".", ".tmp");
+        long total;
+        try (SolutionFile.Writer file = SolutionFile.create(temp, n)) {
+            total = copy(solutions, file, copy);
+        }
+        long bytes = Files.size(temp);
+        int crc = bytes <= maxBytes ? crc(temp) : 0;
+
+        synchronized (this) {
+            if (copy != null) hold(key, copy);
+            Entry entry;
+            if (bytes > maxBytes) {
+                Files.delete(temp);
+                entry = new Entry(key, total, size, 0, 0); // count only
+            } else {
+                Path path = dir.resolve(key.fileName());
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                entry = new Entry(key, total, size, bytes, crc);
+                entry.verifiedModified = Files.getLastModifiedTime(path).toMillis();
+            }
+            entry.lastUsed = System.currentTimeMillis();
+            entries.put(key, entry);
+            evict();
+            saveIndex();
+        }
+    }
+
+    /**
+     * Saves the use times recorded since the last save of the index.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (indexDirty) {
+            saveIndex();
+        }
+    }
+
+    /**
+     * Checks the file of an entry and maps it; drops the entry if the file is damaged.
+     * Called without the lock: the entry's file fields never change.
+     */
+    private SolutionFile.Reader verify(Entry entry) throws IOException {
+        if (entry == null || entry.bytes == 0) {
+            return null;
+        }
+        Path path = dir.resolve(entry.key.fileName());
+        try {
+            if (Files.size(path) == entry.bytes && checked(entry, path)) {
+                SolutionFile.Reader reader = SolutionFile.open(path);
+                if (reader.boardSize() == entry.key.n && reader.recordCount() == entry.records) {
+                    return reader;
+                }
+                reader.close();
+            }
+        } catch (IOException | IllegalArgumentException missingOrCorrupt) {
+            // dropped below
+        }
+        drop(entry);
+        return null;
+    }
+
+    /**
+     * Compares the file with the entry's CRC once; afterwards an unchanged
+     * modification time is trusted, so a hit does not read the whole file again.
+     */
+    private static boolean checked(Entry entry, Path path) throws IOException {
+        long modified = Files.getLastModifiedTime(path).toMillis();
+        if (entry.verifiedModified == modified) {
+            return true;
+        }
+        if (crc(path) != entry.crc) {
+            return false;
+        }
+        entry.verifiedModified = modified;
+        return true;
+    }
+
+    private synchronized void drop(Entry entry) throws IOException {
+        if (entries.get(entry.key) != entry) {
+            return; // replaced or evicted meanwhile
+        }
+        entries.remove(entry.key);
+        SolutionStore held = memory.remove(entry.key);
+        if (held != null) {
+            heldBoards -= held.size();
+        }
+        Files.deleteIfExists(dir.resolve(entry.key.fileName()));
+        saveIndex();
+    }
+
+    /**
+     * Marks an entry as used now; the index is saved if the last save is old enough.
+     */
+    private void used(Entry entry) throws IOException {
+        entry.lastUsed = System.currentTimeMillis();
+        indexDirty = true;
+        if (entry.lastUsed - indexSaved >= INDEX_SAVE_MILLIS) {
+            saveIndex();
+        }
+    }
+
+    /**
+     * Deletes the files of the least recently used entries beyond the disk bound;
+     * their counts stay cached.
+     */
+    private void evict() throws IOException {
+        long bytes = 0;
+        for (Entry e : entries.values()) {
+            bytes += e.bytes;
+        }
+        while (bytes > maxBytes) {
+            Entry oldest = null;
+            for (Entry e : entries.values()) {
+                if (e.bytes > 0 && (oldest == null || e.lastUsed < oldest.lastUsed)) {
+                    oldest = e;
+                }
+            }
+            Files.deleteIfExists(dir.resolve(oldest.key.fileName()));
+            bytes -= oldest.bytes;
+            Entry countOnly = new Entry(oldest.key, oldest.total, oldest.records, 0, 0);
+            countOnly.lastUsed = oldest.lastUsed;
+            entries.put(oldest.key, countOnly);
+        }
+    }
+
+    private void hold(Key key, SolutionStore boards) {
+        SolutionStore previous = memory.put(key, boards);
+        heldBoards += boards.size() - (previous != null ? previous.size() : 0);
+        Iterator<SolutionStore> oldest = memory.values().iterator();
+        while (heldBoards > memoryBoards && oldest.hasNext()) {
+            heldBoards -= oldest.next().size();
+            oldest.remove();
+        }
+    }
+
+    /**
+     * Adds every board of from to one or two sinks.
+     *
+     * @param also second destination (can be null)
+     * @return solutions including symmetric copies
+     */
+    private static long copy(SolutionSource from, SolutionSink to, SolutionSink also) {
+        long total = 0;
+        try (SolutionSink.Appender out = to.appender();
+             SolutionSink.Appender extra = also != null ? also.appender() : null) {
+            for (int i = 0; i < from.size(); i++) {
+                Solution solution = from.get(i);
+                out.add(solution);
+                if (extra != null) extra.add(solution);
+                total += solution.getMultiplicity();
+            }
+        }
+        return total;
+    }
+
+    private static int crc(Path path) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += CRC_SEGMENT) {
+                MappedByteBuffer segment = channel.map(
+                        FileChannel.MapMode.READ_ONLY, position, Math.min(CRC_SEGMENT, size - position));
+                crc.update(segment);
+            }
+        }
+        return (int) crc.getValue();
+    }
+
+    private void loadIndex() {
+        Path path = dir.resolve(INDEX);
+        if (!Files.exists(path)) {
+            return;
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(path);
+            if (bytes.length < Integer.BYTES) {
+                return;
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(bytes, 0, bytes.length - Integer.BYTES);
+            int stored = ByteBuffer.wrap(bytes, bytes.length - Integer.BYTES, Integer.BYTES).getInt();
+            if ((int) crc.getValue() != stored) {
+                return; // damaged: start empty, the orphaned files are deleted
+            }
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Key key = new Key(in.readUnsignedByte(), SolveMode.valueOf(in.readUTF()));
+                Entry entry = new Entry(key, in.readLong(), in.readLong(), in.readLong(), in.readInt());
+                entry.lastUsed = in.readLong();
+                entries.put(key, entry);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            entries.clear();
+        }
+    }
+
+    private void saveIndex() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(entries.size());
+        for (Entry entry : entries.values()) {
+            out.writeByte(entry.key.n);
+            out.writeUTF(entry.key.mode.name());
+            out.writeLong(entry.total);
+            out.writeLong(entry.records);
+            out.writeLong(entry.bytes);
+            out.writeInt(entry.crc);
+            out.writeLong(entry.lastUsed);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(bytes.toByteArray());
+        out.writeInt((int) crc.getValue());
+
+        Path temp = dir.resolve(INDEX + ".tmp");
+        Files.write(temp, bytes.toByteArray());
+        Files.move(temp, dir.resolve(INDEX), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        indexDirty = false;
+        indexSaved = System.currentTimeMillis();
+    }
+
+    /**
+     * Deletes solution files that no entry refers to (left by a crash or a damaged index).
+     */
+    private void deleteOrphans() throws IOException {
+        List<Path> orphans = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*{" + SUFFIX + ",.tmp}")) {
+            for (Path file : files) {
+                orphans.add(file);
+            }
+        }
+        for (Entry entry : entries.values()) {
+            if (entry.bytes > 0) {
+                orphans.remove(dir.resolve(entry.key.fileName()));
+            }
+        }
+        for (Path orphan : orphans) {
+            Files.deleteIfExists(orphan);
+        }
+    }
+
+    private static final class Entry {
+        final Key key;
+        final long total;
+        final long records;
+        final long bytes;
+        final int crc;
+        long lastUsed; // guarded by the cache
+        volatile long verifiedModified = Long.MIN_VALUE; // file time when the CRC last matched
+
+        Entry(Key key, long total, long records, long bytes, int crc) {
+            this.key = key;
+            this.total = total;
+            this.records = records;
+            this.bytes = bytes;
+            this.crc = crc;
+        }
+    }
+
+    private static final class Key {
+        final int n;
+        final SolveMode mode;
+
+        Key(int n, SolveMode mode) {
+            this.n = n;
+            this.mode = mode;
+        }
+
+        String fileName() {
+            return "nqueens-" + n + "-" + mode.name().toLowerCase(Locale.ROOT) + SUFFIX;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && key.n == n && key.mode == mode;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(n, mode);
+        }
+    }
+}
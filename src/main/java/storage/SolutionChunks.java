@@ -0,0 +1,32 @@
+package storage;
+
+import model.Solution;
+
+/**
+ * Backing storage of one generation of a {@link SolutionStore}.
+ *
+ * Implementations are append-only: writers first claim an index range,
+ * then fill every claimed slot and commit; readers only see the slots
+ * below {@link #size()}, which are all written.
+ */
+interface SolutionChunks {
+
+    /** Number of published slots; every slot below it is written. */
+    int size();
+
+    /**
+     * Reserves count consecutive indexes and returns the first one.
+     *
+     * @throws IllegalStateException if the store cannot hold count more slots
+     */
+    int claim(int count);
+
+    void set(int index, Solution solution);
+
+    /**
+     * Publishes the written slots; called after each batch of {@link #set} calls.
+     */
+    void commit();
+
+    Solution get(int index);
+}
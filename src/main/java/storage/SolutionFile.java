@@ -0,0 +1,442 @@
+package storage;
+
+import model.Solution;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+/**
+ * SolutionFile
+ * ------------
+ * Fixed-record binary file of solutions, for enumerations that do not fit in memory.
+ *
+ * Format:
+ * - Header: magic "NQSF", format version, board size n, record size (4 ints, big-endian)
+ * - Records: multiplicity (1 byte) followed by the column of each row
+ *   (1 byte per row for n <= 256, otherwise 2 bytes)
+ *
+ * Solutions are streamed in with a {@link Writer} while solving and read
+ * back with a {@link Reader}, which maps the file for O(1) access by index.
+ */
+public final class SolutionFile {
+
+    private static final int MAGIC = 0x4E515346; // "NQSF"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 * Integer.BYTES;
+    /** Largest board size a record can hold (columns are stored in at most 2 bytes). */
+    public static final int MAX_N = 1 << 16;
+
+    private SolutionFile() {
+    }
+
+    /**
+     * Creates (or truncates) a solution file for n x n boards.
+     */
+    public static Writer create(Path path, int n) throws IOException {
+        return new Writer(path, n);
+    }
+
+    /**
+     * Reopens a partially written solution file to continue a checkpointed run
+     * (or creates it if it does not exist yet).
+     *
+     * Records for which keep returns false are dropped, as are zero-filled
+     * holes left by batches that never reached the disk; the remaining records
+     * are compacted in place and new records are appended after them.
+     *
+     * @param keep receives the columns of each record (the array is reused)
+     */
+    public static Writer resume(Path path, int n, Predicate<int[]> keep) throws IOException {
+        return new Writer(path, n, keep);
+    }
+
+    /**
+     * Maps an existing solution file for reading.
+     */
+    public static Reader open(Path path) throws IOException {
+        return new Reader(path);
+    }
+
+    private static int recordSize(int n) {
+        return 1 + n * (n <= 256 ? 1 : 2);
+    }
+
+    /**
+     * Streams solutions to the file.
+     *
+     * Each solver thread fills its own {@link Appender}; full batches get a
+     * record range reserved with one atomic add and are written by a single
+     * background I/O thread with positional writes, so solver threads only
+     * wait when too many batches are already in flight.
+     */
+    public static final class Writer implements SolutionSink, Closeable {
+
+        /** Most records per appender batch. */
+        private static final int MAX_BATCH = 1024;
+        /** Most bytes per batch, so that a batch of large boards stays small. */
+        private static final int MAX_BATCH_BYTES = 1 << 18;
+        /** Batches that may wait for the I/O thread before writers are throttled. */
+        private static final int MAX_IN_FLIGHT = 64;
+
+        private final Path path;
+        private final FileChannel channel;
+        private final int n;
+        private final int recordSize;
+        private final int batch; // records per batch
+        private final AtomicLong records = new AtomicLong();
+        private final ExecutorService io = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "solution-file-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        private final Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+        private final AtomicReference<IOException> failure = new AtomicReference<>();
+
+        private Writer(Path path, int n) throws IOException {
+            this(path, n, null);
+        }
+
+        /**
+         * @param keep null to start a new file, otherwise the filter of {@link #resume}
+         */
+        private Writer(Path path, int n, Predicate<int[]> keep) throws IOException {
+            if (n < 1 || n > MAX_N) {
+                throw new IllegalArgumentException("Board size must be between 1 and " + MAX_N + ": " + n);
+            }
+            this.path = path;
+            this.n = n;
+            this.recordSize = recordSize(n);
+            this.batch = Math.max(1, Math.min(MAX_BATCH, MAX_BATCH_BYTES / recordSize));
+            this.channel = keep == null
+                    ? FileChannel.open(path,
+                            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)
+                    : FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+            try {
+                if (keep != null && channel.size() >= HEADER_BYTES) {
+                    checkHeader();
+                    records.set(compact(keep));
+                    return;
+                }
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                        .putInt(MAGIC).putInt(VERSION).putInt(n).putInt(recordSize)
+                        .flip();
+                writeFully(header, 0);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                io.shutdown();
+                throw e;
+            }
+        }
+
+        private void checkHeader() throws IOException {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                // read until the header is complete
+            }
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION
+                    || header.getInt() != n || header.getInt() != recordSize) {
+                throw new IOException("Cannot resume " + path + ": not a solution file for " + n + "x" + n + " boards");
+            }
+        }
+
+        /**
+         * Moves every kept record down over the dropped ones and truncates the rest.
+         *
+         * @return number of kept records
+         */
+        private long compact(Predicate<int[]> keep) throws IOException {
+            long total = (channel.size() - HEADER_BYTES) / recordSize;
+            ByteBuffer in = ByteBuffer.allocate(batch * recordSize);
+            ByteBuffer out = ByteBuffer.allocate(batch * recordSize);
+            int[] cols = new int[n];
+            long read = 0;
+            long kept = 0;
+
+            while (read < total) {
+                int count = (int) Math.min(batch, total - read);
+                in.clear().limit(count * recordSize);
+                long position = HEADER_BYTES + read * recordSize;
+                while (in.hasRemaining()) {
+                    position += channel.read(in, position);
+                }
+                in.flip();
+                out.clear();
+                for (int i = 0; i < count; i++) {
+                    int start = in.position();
+                    int multiplicity = in.get();
+                    for (int r = 0; r < n; r++) {
+                        cols[r] = n <= 256 ? in.get() & 0xFF : in.getShort() & 0xFFFF;
+                    }
+                    if (multiplicity > 0 && keep.test(cols)) { // a hole has multiplicity 0
+                        out.put(in.duplicate().position(start).limit(start + recordSize));
+                    }
+                }
+                out.flip();
+                int keptNow = out.remaining() / recordSize;
+                // The write position never passes the read position, so nothing unread is overwritten
+                writeFully(out, HEADER_BYTES + kept * recordSize);
+                kept += keptNow;
+                read += count;
+            }
+            channel.truncate(HEADER_BYTES + kept * recordSize);
+            return kept;
+        }
+
+        @Override
+        public Appender appender() {
+            return new Appender();
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        /** Number of records reserved so far (written or in flight). */
+        public long size() {
+            return records.get();
+        }
+
+        /**
+         * Waits for the batches submitted so far and forces them to disk.
+         * Writers may keep adding meanwhile. After {@link #close} there is nothing left to do.
+         *
+         * @throws IOException if any batch could not be written
+         */
+        public void sync() throws IOException {
+            try {
+                io.submit(() -> { }).get(); // the single I/O thread runs batches in order
+            } catch (RejectedExecutionException closed) {
+                IOException error = failure.get();
+                if (error != null) {
+                    throw error;
+                }
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while syncing " + path, e);
+            } catch (ExecutionException e) {
+                throw new IOException(e.getCause());
+            }
+            IOException error = failure.get();
+            if (error != null) {
+                throw error;
+            }
+            channel.force(false);
+        }
+
+        /**
+         * Waits for all queued batches, syncs and closes the file.
+         * Appenders must be flushed before.
+         *
+         * @throws IOException if any batch could not be written
+         */
+        @Override
+        public void close() throws IOException {
+            io.shutdown();
+            try {
+                io.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            try {
+                IOException error = failure.get();
+                if (error != null) {
+                    throw error;
+                }
+                channel.force(false);
+            } finally {
+                channel.close();
+            }
+        }
+
+        private void submit(ByteBuffer batch, int count) {
+            long first = records.getAndAdd(count);
+            long position = HEADER_BYTES + first * recordSize;
+
+            inFlight.acquireUninterruptibly();
+            io.execute(() -> {
+                try {
+                    writeFully(batch, position);
+                } catch (IOException e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+
+        private void writeFully(ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+
+        /**
+         * Per-thread record buffer. Not thread-safe.
+         */
+        public final class Appender implements SolutionSink.Appender {
+
+            private ByteBuffer buffer;
+            private int count;
+
+            private Appender() {
+            }
+
+            @Override
+            public void add(Solution solution) {
+                int[] cols = solution.getCols();
+                if (cols.length != n) {
+                    throw new IllegalArgumentException("File holds " + n + "x" + n + " boards, got " + cols.length);
+                }
+                if (buffer == null) {
+                    buffer = ByteBuffer.allocate(batch * recordSize);
+                }
+
+                buffer.put((byte) solution.getMultiplicity());
+                if (n <= 256) {
+                    for (int c : cols) buffer.put((byte) c);
+                } else {
+                    for (int c : cols) buffer.putShort((short) c);
+                }
+
+                if (++count == batch) {
+                    flush();
+                }
+            }
+
+            @Override
+            public void flush() {
+                if (count == 0) {
+                    return;
+                }
+                submit(buffer.flip(), count);
+                buffer = null; // owned by the I/O thread now
+                count = 0;
+            }
+        }
+    }
+
+    /**
+     * Memory-mapped, read-only view of a solution file.
+     * Safe for concurrent readers.
+     */
+    public static final class Reader implements SolutionSource, Closeable {
+
+        /** Largest mapping; each segment holds a whole number of records. */
+        private static final long MAX_SEGMENT_BYTES = Integer.MAX_VALUE;
+
+        private final FileChannel channel;
+        private final int n;
+        private final int recordSize;
+        private final long records;
+        private final int recordsPerSegment;
+        private final MappedByteBuffer[] segments;
+
+        private Reader(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                while (header.hasRemaining()) {
+                    if (channel.read(header, header.position()) < 0) break;
+                }
+                header.flip();
+                if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                    throw new IOException("Not a solution file: " + path);
+                }
+                int version = header.getInt();
+                if (version != VERSION) {
+                    throw new IOException("Unsupported solution file version " + version + ": " + path);
+                }
+                n = header.getInt();
+                recordSize = header.getInt();
+                if (n < 1 || n > MAX_N || recordSize != recordSize(n)) {
+                    throw new IOException("Corrupt solution file header: " + path);
+                }
+
+                records = (channel.size() - HEADER_BYTES) / recordSize;
+                recordsPerSegment = (int) (MAX_SEGMENT_BYTES / recordSize);
+                int segmentCount = (int) ((records + recordsPerSegment - 1) / recordsPerSegment);
+                segments = new MappedByteBuffer[segmentCount];
+                for (int s = 0; s < segmentCount; s++) {
+                    long first = (long) s * recordsPerSegment;
+                    long count = Math.min(recordsPerSegment, records - first);
+                    segments[s] = channel.map(FileChannel.MapMode.READ_ONLY,
+                            HEADER_BYTES + first * recordSize, count * recordSize);
+                }
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /** Board size of every record. */
+        public int boardSize() {
+            return n;
+        }
+
+        /** Number of complete records in the file. */
+        public long recordCount() {
+            return records;
+        }
+
+        /**
+         * Number of records addressable through {@link #get(int)}.
+         */
+        @Override
+        public int size() {
+            return (int) Math.min(records, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public Solution get(int index) {
+            int[] cols = readCols(index, new int[n]);
+            return new Solution(cols, multiplicity(index));
+        }
+
+        /**
+         * Copies the columns of record {@code index} into {@code into} (length n).
+         *
+         * @return into
+         */
+        public int[] readCols(long index, int[] into) {
+            Objects.checkIndex(index, records);
+            MappedByteBuffer segment = segments[(int) (index / recordsPerSegment)];
+            int offset = (int) (index % recordsPerSegment) * recordSize + 1;
+            if (n <= 256) {
+                for (int r = 0; r < n; r++) into[r] = segment.get(offset + r) & 0xFF;
+            } else {
+                for (int r = 0; r < n; r++) into[r] = segment.getShort(offset + 2 * r) & 0xFFFF;
+            }
+            return into;
+        }
+
+        /** Multiplicity stored with record {@code index}. */
+        public int multiplicity(long index) {
+            Objects.checkIndex(index, records);
+            MappedByteBuffer segment = segments[(int) (index / recordsPerSegment)];
+            return segment.get((int) (index % recordsPerSegment) * recordSize);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
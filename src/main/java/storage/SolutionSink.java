@@ -0,0 +1,35 @@
+package storage;
+
+import model.Solution;
+
+/**
+ * Destination for solutions produced by solver threads.
+ *
+ * Writers never share an appender: each thread or task asks for its own
+ * and flushes it when done, so the sink only sees whole batches.
+ */
+public interface SolutionSink {
+
+    /**
+     * Creates a buffer for a single writer thread.
+     */
+    Appender appender();
+
+    /**
+     * Per-thread write buffer. Not thread-safe.
+     */
+    interface Appender extends AutoCloseable {
+
+        void add(Solution solution);
+
+        /**
+         * Hands all buffered solutions to the sink.
+         */
+        void flush();
+
+        @Override
+        default void close() {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package storage;
+
+import model.Solution;
+
+/**
+ * Read-only, index-based view of stored solutions (used by the UI list).
+ */
+public interface SolutionSource {
+
+    int size();
+
+    Solution get(int index);
+}
@@ -3,29 +3,176 @@ package storage;
 import model.Solution;
 
 import java.util.*;
-import java.util.concurrent.CopyOnWriteArrayList;
 
-public class SolutionStore {
+/**
+ * SolutionStore
+ * -------------
+ * Concurrent append-only storage of solutions.
+ *
+ * Responsibilities:
+ * - Accept solutions from many solver threads without locks
+ * - Give stable index-based access (an index never moves once assigned)
+ * - Provide cheap snapshot iteration for the UI
+ *
+ * Design notes:
+ * - Solutions live in chunks, so nothing is ever copied while the store grows
+ * - {@link Mode#PACKED} and {@link Mode#PACKED_OFF_HEAP} keep bit-packed boards
+ *   instead of objects and decode a Solution only when it is read
+ * - Writers claim index ranges with a single compare-and-set
+ * - {@link #size()} only counts written solutions, so reads never wait for a writer
+ * - {@link Appender} gives each thread its own buffer and claims whole batches
+ * - {@link #clear()} must not race with writers of the same run
+ */
+public class SolutionStore implements SolutionSink, SolutionSource, Iterable<Solution> {
 
-    private final List<Solution> solutions = new CopyOnWriteArrayList<>();
+    /**
+     * How solutions are kept in memory.
+     */
+    public enum Mode {
+        /** Solution objects (fastest reads). */
+        OBJECTS,
+        /** Bit-packed boards in heap long arrays. */
+        PACKED,
+        /** Bit-packed boards in direct ByteBuffers, outside the Java heap. */
+        PACKED_OFF_HEAP
+    }
+
+    /** Number of solutions an Appender buffers before publishing them. */
+    private static final int APPENDER_BATCH = 256;
+
+    private final Mode mode;
+    private volatile SolutionChunks chunks;
+
+    public SolutionStore() {
+        this(Mode.OBJECTS);
+    }
+
+    /**
+     * @param mode storage mode; packed modes require all boards of a run to have the same size
+     */
+    public SolutionStore(Mode mode) {
+        this.mode = mode;
+        this.chunks = newChunks();
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
 
     public void add(Solution solution) {
-        solutions.add(solution);
+        SolutionChunks current = chunks;
+        int index = current.claim(1);
+        current.set(index, solution);
+        current.commit();
+    }
+
+    /**
+     * Creates a buffer for a single writer thread.
+     * Buffered solutions become visible on {@link Appender#flush()}.
+     */
+    @Override
+    public Appender appender() {
+        return new Appender();
     }
 
     public void clear() {
-        solutions.clear();
+        chunks = newChunks();
     }
 
     public List<Solution> getAll() {
-        return List.copyOf(solutions);
+        SolutionChunks current = chunks;
+        int size = current.size();
+        List<Solution> all = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            all.add(current.get(i));
+        }
+        return Collections.unmodifiableList(all);
     }
 
+    @Override
     public Solution get(int index) {
-        return solutions.get(index);
+        SolutionChunks current = chunks;
+        Objects.checkIndex(index, current.size());
+        return current.get(index);
     }
 
+    @Override
     public int size() {
-        return solutions.size();
+        return chunks.size();
+    }
+
+    /**
+     * Iterates over the solutions stored when the iterator was created.
+     * Later additions are not seen; nothing is copied.
+     */
+    @Override
+    public Iterator<Solution> iterator() {
+        SolutionChunks current = chunks;
+        int size = current.size();
+        return new Iterator<>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Solution next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return current.get(next++);
+            }
+        };
+    }
+
+    /**
+     * Per-thread write buffer. Not thread-safe: use one appender per thread or task.
+     */
+    public class Appender implements SolutionSink.Appender {
+
+        private Solution[] buffer;
+        private int count;
+
+        private Appender() {
+        }
+
+        @Override
+        public void add(Solution solution) {
+            if (buffer == null) {
+                buffer = new Solution[APPENDER_BATCH];
+            }
+            buffer[count++] = solution;
+            if (count == APPENDER_BATCH) {
+                flush();
+            }
+        }
+
+        /**
+         * Publishes all buffered solutions as one contiguous index range.
+         */
+        @Override
+        public void flush() {
+            if (count == 0) {
+                return;
+            }
+            SolutionChunks current = chunks;
+            int base = current.claim(count);
+            for (int i = 0; i < count; i++) {
+                current.set(base + i, buffer[i]);
+                buffer[i] = null;
+            }
+            current.commit();
+            count = 0;
+        }
+    }
+
+    private SolutionChunks newChunks() {
+        return switch (mode) {
+            case OBJECTS -> new ObjectChunks();
+            case PACKED -> new PackedChunks(false);
+            case PACKED_OFF_HEAP -> new PackedChunks(true);
+        };
     }
 }
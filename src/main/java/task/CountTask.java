@@ -0,0 +1,44 @@
+package task;
+
+import solver.Solver;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * CountTask
+ * ---------
+ * Counting counterpart of {@link SolverTask}.
+ *
+ * Each task:
+ * - Fixes the queens of its prefix
+ * - Counts the solutions of its branch starting from the first free row
+ * - Adds the weighted branch count to a shared LongAdder (no Solution objects)
+ */
+public class CountTask implements Callable<Long> {
+
+    private final Solver solver;
+    private final int n;
+    private final Prefix prefix;
+    private final LongAdder total;
+
+    /**
+     * @param solver solver implementation (pure algorithm)
+     * @param n board size
+     * @param prefix fixed rows of this branch; its weight accounts for mirrored branches
+     * @param total shared accumulator for all branches
+     */
+    public CountTask(Solver solver, int n, Prefix prefix, LongAdder total) {
+        this.solver = solver;
+        this.n = n;
+        this.prefix = prefix;
+        this.total = total;
+    }
+
+    @Override
+    public Long call() {
+        long branchCount = solver.count(n, prefix.toBoard(n), prefix.depth()) * prefix.getWeight();
+        total.add(branchCount);
+        return branchCount;
+    }
+}
@@ -0,0 +1,135 @@
+package task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Prefix
+ * ------
+ * A partially-filled board (the first rows are fixed) that forms one unit of work.
+ *
+ * The weight tells how many subtrees of the full search this prefix stands for:
+ * 1 for an ordinary prefix, 2 when its left-right mirror image is not searched.
+ */
+public final class Prefix {
+
+    private final int[] cols;
+    private final int weight;
+
+    /**
+     * @param cols cols[row] = column of the queen for each fixed row
+     * @param weight number of searched-equivalent subtrees (1 or 2)
+     */
+    public Prefix(int[] cols, int weight) {
+        this.cols = cols;
+        this.weight = weight;
+    }
+
+    /**
+     * One prefix per first-row column (the classic split).
+     */
+    public static List<Prefix> firstRow(int n) {
+        List<Prefix> prefixes = new ArrayList<>(n);
+        for (int col = 0; col < n; col++) {
+            prefixes.add(new Prefix(new int[]{col}, 1));
+        }
+        return prefixes;
+    }
+
+    /**
+     * Prefixes covering only the left half of the board; each stands for
+     * itself and its mirror image (weight 2).
+     *
+     * For odd n the middle column of row 0 is its own mirror, so it is split
+     * on row 1 instead, where the left half again stands for the right half.
+     */
+    public static List<Prefix> symmetricFirstRow(int n) {
+        if (n < 2) {
+            return firstRow(n);
+        }
+
+        List<Prefix> prefixes = new ArrayList<>();
+        for (int col = 0; col < n / 2; col++) {
+            prefixes.add(new Prefix(new int[]{col}, 2));
+        }
+
+        if (n % 2 == 1) {
+            int mid = n / 2;
+            for (int col = 0; col < mid - 1; col++) { // col = mid - 1 is attacked diagonally
+                prefixes.add(new Prefix(new int[]{mid, col}, 2));
+            }
+        }
+        return prefixes;
+    }
+
+    /**
+     * Extends every prefix to the given number of rows (or to a full board),
+     * the same leaves a {@link PrefixSplitTask} with this split depth runs.
+     */
+    public static List<Prefix> expand(int n, List<Prefix> prefixes, int depth) {
+        List<Prefix> leaves = new ArrayList<>();
+        for (Prefix prefix : prefixes) {
+            if (prefix.depth() >= depth || prefix.depth() >= n) {
+                leaves.add(prefix);
+            } else {
+                leaves.addAll(expand(n, prefix.extend(n), depth));
+            }
+        }
+        return leaves;
+    }
+
+    /**
+     * All valid prefixes one row deeper, keeping this prefix's weight.
+     */
+    public List<Prefix> extend(int n) {
+        int row = cols.length;
+        List<Prefix> children = new ArrayList<>();
+        for (int c = 0; c < n; c++) {
+            if (isFree(row, c)) {
+                int[] next = Arrays.copyOf(cols, row + 1);
+                next[row] = c;
+                children.add(new Prefix(next, weight));
+            }
+        }
+        return children;
+    }
+
+    private boolean isFree(int row, int col) {
+        for (int r = 0; r < row; r++) {
+            int c = cols[r];
+            if (c == col || Math.abs(c - col) == row - r) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int[] getCols() {
+        return cols;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    /** Number of fixed rows. */
+    public int depth() {
+        return cols.length;
+    }
+
+    /**
+     * Full board of size n with the prefix rows filled and every other row empty (-1).
+     */
+    public int[] toBoard(int n) {
+        int[] board = new int[n];
+        Arrays.fill(board, -1);
+        System.arraycopy(cols, 0, board, 0, cols.length);
+        return board;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(cols) + "x" + weight;
+    }
+}
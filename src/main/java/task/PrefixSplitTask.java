@@ -0,0 +1,81 @@
+package task;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * PrefixSplitTask
+ * ---------------
+ * Fork/join task that recursively splits a prefix into its valid
+ * one-row-deeper extensions until the split depth is reached.
+ *
+ * Each task:
+ * - Forks one subtask per valid placement in the next row
+ * - Hands prefixes at the split depth to the leaf action (solve or count)
+ * - Stops splitting once the shared stop flag is raised
+ *
+ * Idle pool threads steal the forked subtasks, which balances the
+ * very uneven subtree sizes of different prefixes.
+ */
+public class PrefixSplitTask extends RecursiveAction {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final int n;
+    // Tasks only live in the pool and are never serialized
+    private final transient Prefix prefix;
+    private final int splitDepth;
+    private final transient Consumer<Prefix> leaf;
+    private final AtomicBoolean stopped;
+
+    /**
+     * @param n board size
+     * @param prefix prefix to split
+     * @param splitDepth number of fixed rows at which splitting stops
+     * @param leaf action run for each prefix at the split depth
+     * @param stopped shared flag for early termination
+     */
+    public PrefixSplitTask(int n, Prefix prefix, int splitDepth, Consumer<Prefix> leaf, AtomicBoolean stopped) {
+        this.n = n;
+        this.prefix = prefix;
+        this.splitDepth = splitDepth;
+        this.leaf = leaf;
+        this.stopped = stopped;
+    }
+
+    /**
+     * Wraps root prefixes into split tasks.
+     */
+    public static List<PrefixSplitTask> of(
+            int n,
+            List<Prefix> prefixes,
+            int splitDepth,
+            Consumer<Prefix> leaf,
+            AtomicBoolean stopped
+    ) {
+        List<PrefixSplitTask> tasks = new ArrayList<>(prefixes.size());
+        for (Prefix prefix : prefixes) {
+            tasks.add(new PrefixSplitTask(n, prefix, splitDepth, leaf, stopped));
+        }
+        return tasks;
+    }
+
+    @Override
+    protected void compute() {
+        if (stopped.get()) {
+            return;
+        }
+
+        if (prefix.depth() >= splitDepth || prefix.depth() >= n) {
+            leaf.accept(prefix);
+            return;
+        }
+
+        invokeAll(of(n, prefix.extend(n), splitDepth, leaf, stopped));
+    }
+}
@@ -1,9 +1,10 @@
 package task;
 
 import model.Solution;
+import model.SolveMode;
 import solver.Solver;
+import solver.Symmetry;
 
-import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -15,16 +16,17 @@ import java.util.function.Consumer;
  * Represents a single parallel branch of the N-Queens solver.
  *
  * Each task:
- * - Fixes the queen position in row 0
- * - Runs the solver starting from row 1
+ * - Fixes the queens of its prefix (usually row 0)
+ * - Runs the solver starting from the first free row
+ * - Expands or filters solutions according to the symmetry mode
  * - Optionally stops all tasks when one solution is found
  */
 public class SolverTask implements Callable<List<Solution>> {
 
     private final Solver solver;
     private final int n;
-    private final int firstCol;
-    private final boolean findAll;
+    private final Prefix prefix;
+    private final SolveMode mode;
     private final Consumer<int[]> onStep;
     private final Consumer<Solution> onSolution;
     private final AtomicBoolean solutionFound;
@@ -33,8 +35,8 @@ public class SolverTask implements Callable<List<Solution>> {
     /**
      * @param solver solver implementation (pure algorithm)
      * @param n board size
-     * @param firstCol fixed column for row 0
-     * @param findAll whether to find all solutions
+     * @param prefix fixed rows of this branch
+     * @param mode FIRST, ALL or UNIQUE
      * @param onStep step callback
      * @param onSolution solution callback
      * @param solutionFound shared flag for early termination
@@ -43,17 +45,20 @@ public class SolverTask implements Callable<List<Solution>> {
     public SolverTask(
             Solver solver,
             int n,
-            int firstCol,
-            boolean findAll,
+            Prefix prefix,
+            SolveMode mode,
             Consumer<int[]> onStep,
             Consumer<Solution> onSolution,
             AtomicBoolean solutionFound,
             Runnable stopAll
     ) {
+        if (mode == SolveMode.COUNT) {
+            throw new IllegalArgumentException("Use CountTask for counting");
+        }
         this.solver = solver;
         this.n = n;
-        this.firstCol = firstCol;
-        this.findAll = findAll;
+        this.prefix = prefix;
+        this.mode = mode;
         this.onStep = onStep;
         this.onSolution = onSolution;
         this.solutionFound = solutionFound;
@@ -62,34 +67,44 @@ public class SolverTask implements Callable<List<Solution>> {
 
     @Override
     public List<Solution> call() throws Exception {
+        boolean findAll = mode != SolveMode.FIRST;
 
         // Skip execution if solution already found
         if (!findAll && solutionFound.get()) {
             return List.of();
         }
 
-        // Wrap solution callback to coordinate early termination
-        Consumer<Solution> wrappedOnSolution = solution -> {
-            if (!findAll && solutionFound.compareAndSet(false, true)) {
-                onSolution.accept(solution);
-                stopAll.run(); // interrupt all other tasks
-            } else if (findAll) {
+        // Wrap solution callback to coordinate early termination and symmetry
+        Consumer<Solution> wrappedOnSolution = switch (mode) {
+            case FIRST -> solution -> {
+                if (solutionFound.compareAndSet(false, true)) {
+                    onSolution.accept(solution);
+                    stopAll.run(); // interrupt all other tasks
+                }
+            };
+            case ALL -> solution -> {
                 onSolution.accept(solution);
-            }
+                if (prefix.getWeight() == 2) {
+                    // The mirrored half of the board is never searched
+                    onSolution.accept(new Solution(Symmetry.mirror(solution.getCols())));
+                }
+            };
+            case UNIQUE -> solution -> {
+                int[] cols = solution.getCols();
+                if (Symmetry.isCanonical(cols)) {
+                    onSolution.accept(new Solution(cols, Symmetry.multiplicity(cols)));
+                }
+            };
+            case COUNT -> throw new IllegalStateException();
         };
 
-        // Prepare initial board with fixed first row
-        int[] cols = new int[n];
-        Arrays.fill(cols, -1);
-        cols[0] = firstCol;
-
         return solver.solve(
                 n,
                 onStep,
                 wrappedOnSolution,
                 findAll,
-                cols,
-                1 // start from row 1
+                prefix.toBoard(n),
+                prefix.depth()
         );
     }
 }
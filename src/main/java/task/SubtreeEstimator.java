@@ -0,0 +1,167 @@
+package task;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SubtreeEstimator
+ * ----------------
+ * Estimates the number of search nodes below a prefix with Knuth's random probes.
+ *
+ * Responsibilities:
+ * - Walk one random path from the prefix to a dead end or a solution; the
+ *   running product of the branching factors met on the way, summed over
+ *   the rows, is an unbiased estimate of the subtree's node count
+ * - Average several probes per prefix, and add probe rounds only while their
+ *   cost stays within a fraction of the estimated work ({@link #estimate(List)})
+ * - Count the rows visited by all probes ({@link #getCost})
+ *
+ * Important design notes:
+ * - Nodes are counted like {@link solver.BitboardSolver} counts them: one per queen placed
+ * - A probe costs at most n - depth rows, against millions of nodes for the
+ *   subtrees worth estimating; single estimates are still rough (often off by
+ *   a factor of two), sums over many prefixes are much closer
+ * - Thread-safe: probes draw from {@link ThreadLocalRandom}, so runs are not reproducible
+ * - Boards up to 64 x 64, like the bitboard solver
+ */
+public class SubtreeEstimator {
+
+    /** Default share of the estimated work that probing may cost. */
+    public static final double DEFAULT_OVERHEAD = 0.01;
+
+    /** Smaller boards are searched about as fast as they are probed. */
+    public static final int MIN_N = 12;
+
+    /** Probes per prefix and round. */
+    private static final int PROBES = 16;
+    /** Upper bound on the rounds of {@link #estimate(List)}. */
+    private static final int MAX_ROUNDS = 64;
+
+    private final int n;
+    private final long full;
+    private final double overhead;
+    private final LongAdder cost = new LongAdder();
+
+    /**
+     * @param n board size, at most 64
+     * @param overhead share of the estimated nodes that probe rows may cost beyond the first round
+     */
+    public SubtreeEstimator(int n, double overhead) {
+        if (n < 1 || n > 64) {
+            throw new IllegalArgumentException("Board size must be between 1 and 64: " + n);
+        }
+        if (overhead < 0) {
+            throw new IllegalArgumentException("Overhead must not be negative: " + overhead);
+        }
+        this.n = n;
+        this.full = n == 64 ? -1L : (1L << n) - 1;
+        this.overhead = overhead;
+    }
+
+    /**
+     * One round of probes below a single prefix.
+     *
+     * @return estimated number of nodes below the prefix
+     */
+    public double estimate(Prefix prefix) {
+        return probes(prefix, PROBES) / PROBES;
+    }
+
+    /**
+     * Estimates every prefix, refining with further rounds while the probe
+     * rows stay below the overhead share of the estimated total.
+     *
+     * @return estimated nodes below each prefix, in list order
+     */
+    public double[] estimate(List<Prefix> prefixes) {
+        int count = prefixes.size();
+        double[] sums = new double[count];
+        long roundCost = 0;
+        for (Prefix prefix : prefixes) {
+            roundCost += (long) PROBES * (n - prefix.depth());
+        }
+
+        long spent = 0;
+        int rounds = 0;
+        double total;
+        do {
+            total = 0;
+            for (int i = 0; i < count; i++) {
+                sums[i] += probes(prefixes.get(i), PROBES);
+                total += sums[i];
+            }
+            spent += roundCost;
+            rounds++;
+            total /= (double) rounds * PROBES;
+        } while (rounds < MAX_ROUNDS && spent + roundCost <= overhead * total);
+
+        double[] estimates = new double[count];
+        for (int i = 0; i < count; i++) {
+            estimates[i] = sums[i] / ((double) rounds * PROBES);
+        }
+        return estimates;
+    }
+
+    /**
+     * Rows visited by all probes so far.
+     */
+    public long getCost() {
+        return cost.sum();
+    }
+
+    /**
+     * Sum of the estimates of several probes below one prefix.
+     */
+    private double probes(Prefix prefix, int probes) {
+        int[] cols = prefix.getCols();
+        int depth = prefix.depth();
+        long columns = 0;
+        long diag1 = 0;
+        long diag2 = 0;
+        for (int row = 0; row < depth; row++) {
+            long bit = 1L << cols[row];
+            int distance = depth - row;
+            columns |= bit;
+            diag1 |= bit << distance;
+            diag2 |= bit >>> distance;
+        }
+        diag1 &= full;
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double sum = 0;
+        long rows = 0;
+        for (int p = 0; p < probes; p++) {
+            sum += probe(columns, diag1, diag2, n - depth, random);
+            rows += n - depth;
+        }
+        cost.add(rows);
+        return sum;
+    }
+
+    /**
+     * Follows one random path down and returns the node estimate of that path.
+     */
+    private double probe(long columns, long diag1, long diag2, int rows, ThreadLocalRandom random) {
+        double width = 1;
+        double nodes = 0;
+        for (int row = 0; row < rows; row++) {
+            long free = ~(columns | diag1 | diag2) & full;
+            int choices = Long.bitCount(free);
+            if (choices == 0) {
+                break;
+            }
+            width *= choices;
+            nodes += width;
+
+            for (int skip = random.nextInt(choices); skip > 0; skip--) {
+                free &= free - 1;
+            }
+            long bit = free & -free;
+            columns |= bit;
+            diag1 = ((diag1 | bit) << 1) & full;
+            diag2 = (diag2 | bit) >>> 1;
+        }
+        return nodes;
+    }
+}
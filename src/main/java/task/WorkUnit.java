@@ -0,0 +1,142 @@
+package task;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * WorkUnit
+ * --------
+ * Prefixes that one pool task searches one after another, with their estimated size.
+ *
+ * Responsibilities:
+ * - Split prefixes whose estimated subtree is much larger than the target
+ *   size of a unit, one row at a time ({@link #partition})
+ * - Merge neighbouring small prefixes until they reach the target size
+ * - Carry the estimated nodes of the unit for progress reporting
+ *
+ * Important design notes:
+ * - The prefixes of all units together cover the same search as the input,
+ *   with the same weights; partitioning never changes a result
+ * - Splitting stops this many rows above the bottom, where subtrees are too
+ *   small to be worth another round of probes
+ */
+public final class WorkUnit {
+
+    /** Units aimed for per pool thread, so late stragglers are short. */
+    public static final int UNITS_PER_THREAD = 16;
+
+    /** Prefixes larger than this many target sizes are split. */
+    private static final double SPLIT_FACTOR = 2;
+    /** Rows that are never split off. */
+    private static final int MIN_ROWS_LEFT = 4;
+
+    private final List<Prefix> prefixes;
+    private final double estimatedNodes;
+
+    /**
+     * @param prefixes prefixes searched by this unit
+     * @param estimatedNodes estimated search nodes below all of them
+     */
+    public WorkUnit(List<Prefix> prefixes, double estimatedNodes) {
+        this.prefixes = prefixes;
+        this.estimatedNodes = estimatedNodes;
+    }
+
+    /**
+     * One unit per prefix, each counted as the same amount of work.
+     */
+    public static List<WorkUnit> each(List<Prefix> prefixes) {
+        List<WorkUnit> units = new ArrayList<>(prefixes.size());
+        for (Prefix prefix : prefixes) {
+            units.add(new WorkUnit(List.of(prefix), 1));
+        }
+        return units;
+    }
+
+    /**
+     * Splits and merges prefixes into units of about equal estimated size.
+     *
+     * @param n board size
+     * @param prefixes root prefixes of the search
+     * @param estimator estimates the subtree below every prefix considered
+     * @param targetUnits number of units aimed for
+     * @return units in the order of the input prefixes
+     */
+    public static List<WorkUnit> partition(int n, List<Prefix> prefixes, SubtreeEstimator estimator, int targetUnits) {
+        if (targetUnits < 1) {
+            throw new IllegalArgumentException("Target unit count must be positive: " + targetUnits);
+        }
+        double[] estimates = estimator.estimate(prefixes);
+        double total = 0;
+        for (double estimate : estimates) {
+            total += estimate;
+        }
+        double target = total / targetUnits;
+
+        List<Prefix> leaves = new ArrayList<>();
+        List<Double> sizes = new ArrayList<>();
+        for (int i = 0; i < prefixes.size(); i++) {
+            split(n, prefixes.get(i), estimates[i], target, estimator, leaves, sizes);
+        }
+
+        List<WorkUnit> units = new ArrayList<>();
+        List<Prefix> group = new ArrayList<>();
+        double size = 0;
+        for (int i = 0; i < leaves.size(); i++) {
+            group.add(leaves.get(i));
+            size += sizes.get(i);
+            if (size >= target) {
+                units.add(new WorkUnit(group, size));
+                group = new ArrayList<>();
+                size = 0;
+            }
+        }
+        if (!group.isEmpty()) {
+            units.add(new WorkUnit(group, size));
+        }
+        return units;
+    }
+
+    public List<Prefix> getPrefixes() {
+        return prefixes;
+    }
+
+    public double getEstimatedNodes() {
+        return estimatedNodes;
+    }
+
+    /**
+     * Sum of the estimated nodes of all units.
+     */
+    public static double totalNodes(List<WorkUnit> units) {
+        double total = 0;
+        for (WorkUnit unit : units) {
+            total += unit.estimatedNodes;
+        }
+        return total;
+    }
+
+    /**
+     * Adds the prefix, or its children split down to the target size, to the leaves.
+     */
+    private static void split(
+            int n,
+            Prefix prefix,
+            double estimate,
+            double target,
+            SubtreeEstimator estimator,
+            List<Prefix> leaves,
+            List<Double> sizes
+    ) {
+        if (estimate > SPLIT_FACTOR * target && prefix.depth() < n - MIN_ROWS_LEFT) {
+            List<Prefix> children = prefix.extend(n);
+            double[] estimates = estimator.estimate(children);
+            for (int i = 0; i < children.size(); i++) {
+                split(n, children.get(i), estimates[i], target, estimator, leaves, sizes);
+            }
+            return;
+        }
+        leaves.add(prefix);
+        sizes.add(estimate);
+    }
+}
@@ -0,0 +1,185 @@
+package trace;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Trace storage in a file (see {@link SearchTrace} for the format).
+ *
+ * While recording, event batches are appended with positional writes; the
+ * keyframe table and the final counts are written by {@link #finish}. For
+ * replay the event data is mapped read-only in segments, like
+ * {@link storage.SolutionFile.Reader}.
+ */
+final class FileTraceStore implements TraceStore {
+
+    /** Largest mapping of the event data. */
+    private static final long SEGMENT_BYTES = 1L << 30;
+
+    private final Path path;
+    private final FileChannel channel;
+    private long written;
+    private MappedByteBuffer[] segments;
+
+    private FileTraceStore(Path path, FileChannel channel) {
+        this.path = path;
+        this.channel = channel;
+    }
+
+    static FileTraceStore create(Path path, int n, int interval) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        FileTraceStore store = new FileTraceStore(path, channel);
+        try {
+            store.writeHeader(n, interval, 0, 0, 0);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return store;
+    }
+
+    static TraceReplay open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(SearchTrace.HEADER_BYTES);
+            readFully(channel, header, 0);
+            if (header.getInt() != SearchTrace.MAGIC) {
+                throw new IOException("Not a search trace: " + path);
+            }
+            int version = header.getInt();
+            if (version != SearchTrace.VERSION) {
+                throw new IOException("Unsupported search trace version " + version + ": " + path);
+            }
+            int n = header.getInt();
+            header.getInt(); // keyframe interval, informational
+            long events = header.getLong();
+            long solutions = header.getLong();
+            long tableOffset = header.getLong();
+            if (n < 1 || n > SearchTrace.MAX_N || tableOffset < SearchTrace.HEADER_BYTES
+                    || tableOffset > channel.size()) {
+                throw new IOException("Corrupt or unfinished search trace: " + path);
+            }
+
+            FileTraceStore store = new FileTraceStore(path, channel);
+            store.written = tableOffset - SearchTrace.HEADER_BYTES;
+            store.map();
+            return new TraceReplay(store, n, events, solutions, readKeyframes(channel, tableOffset, path));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void append(ByteBuffer batch) throws IOException {
+        while (batch.hasRemaining()) {
+            written += channel.write(batch, SearchTrace.HEADER_BYTES + written);
+        }
+    }
+
+    @Override
+    public long start() {
+        return 0;
+    }
+
+    @Override
+    public byte get(long offset) {
+        return segments[(int) (offset / SEGMENT_BYTES)].get((int) (offset % SEGMENT_BYTES));
+    }
+
+    /**
+     * Writes the keyframe table and the final header, then reopens the file for replay.
+     */
+    @Override
+    public TraceReplay finish(int n, int interval, long events, long solutions, List<Keyframe> keyframes)
+            throws IOException {
+        try {
+            long tableOffset = SearchTrace.HEADER_BYTES + written;
+            ByteBuffer table = ByteBuffer.allocate(tableSize(keyframes));
+            table.putInt(keyframes.size());
+            for (Keyframe keyframe : keyframes) {
+                table.putLong(keyframe.event).putLong(keyframe.solutions).putLong(keyframe.offset)
+                        .put((byte) keyframe.cols.length).put(keyframe.cols);
+            }
+            writeFully(table.flip(), tableOffset);
+            writeHeader(n, interval, events, solutions, tableOffset);
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+        return open(path);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void writeHeader(int n, int interval, long events, long solutions, long tableOffset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(SearchTrace.HEADER_BYTES)
+                .putInt(SearchTrace.MAGIC).putInt(SearchTrace.VERSION).putInt(n).putInt(interval)
+                .putLong(events).putLong(solutions).putLong(tableOffset)
+                .flip();
+        writeFully(header, 0);
+    }
+
+    private void map() throws IOException {
+        int count = (int) ((written + SEGMENT_BYTES - 1) / SEGMENT_BYTES);
+        segments = new MappedByteBuffer[count];
+        for (int s = 0; s < count; s++) {
+            long first = s * SEGMENT_BYTES;
+            segments[s] = channel.map(FileChannel.MapMode.READ_ONLY,
+                    SearchTrace.HEADER_BYTES + first, Math.min(SEGMENT_BYTES, written - first));
+        }
+    }
+
+    private static List<Keyframe> readKeyframes(FileChannel channel, long tableOffset, Path path) throws IOException {
+        ByteBuffer table = ByteBuffer.allocate((int) Math.min(Integer.MAX_VALUE, channel.size() - tableOffset));
+        readFully(channel, table, tableOffset);
+        int count = table.getInt();
+        if (count < 1) {
+            throw new IOException("Search trace has no keyframes: " + path);
+        }
+        List<Keyframe> keyframes = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) {
+            long event = table.getLong();
+            long solutions = table.getLong();
+            long offset = table.getLong();
+            byte[] cols = new byte[table.get()];
+            table.get(cols);
+            keyframes.add(new Keyframe(event, solutions, offset, cols));
+        }
+        return keyframes;
+    }
+
+    private static int tableSize(List<Keyframe> keyframes) {
+        int size = Integer.BYTES;
+        for (Keyframe keyframe : keyframes) {
+            size += 3 * Long.BYTES + 1 + keyframe.cols.length;
+        }
+        return size;
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Truncated search trace");
+            }
+        }
+        buffer.flip();
+    }
+}
@@ -0,0 +1,23 @@
+package trace;
+
+/**
+ * Board state after a number of events, and where decoding continues.
+ */
+final class Keyframe {
+
+    /** Number of events before this point. */
+    final long event;
+    /** Number of solutions among those events. */
+    final long solutions;
+    /** Data offset of the next event. */
+    final long offset;
+    /** Columns of the placed rows (the board depth is its length). */
+    final byte[] cols;
+
+    Keyframe(long event, long solutions, long offset, byte[] cols) {
+        this.event = event;
+        this.solutions = solutions;
+        this.offset = offset;
+        this.cols = cols;
+    }
+}
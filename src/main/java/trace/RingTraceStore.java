@@ -0,0 +1,59 @@
+package trace;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * In-memory trace storage of fixed size; the oldest bytes are overwritten.
+ */
+final class RingTraceStore implements TraceStore {
+
+    private static final int MIN_CAPACITY = 1 << 12;
+
+    private final byte[] ring;
+    private long written;
+
+    RingTraceStore(int capacity) {
+        this.ring = new byte[Math.max(MIN_CAPACITY, capacity)];
+    }
+
+    @Override
+    public void append(ByteBuffer batch) {
+        int length = batch.remaining();
+        if (length > ring.length) {
+            // Only the tail of an oversized batch survives anyway
+            batch.position(batch.position() + length - ring.length);
+            written += length - ring.length;
+            length = ring.length;
+        }
+        while (length > 0) {
+            int at = (int) (written % ring.length);
+            int chunk = Math.min(length, ring.length - at);
+            batch.get(ring, at, chunk);
+            written += chunk;
+            length -= chunk;
+        }
+    }
+
+    @Override
+    public long start() {
+        return Math.max(0, written - ring.length);
+    }
+
+    @Override
+    public byte get(long offset) {
+        if (offset < start() || offset >= written) {
+            throw new IndexOutOfBoundsException("Offset " + offset + " is outside the ring [" + start() + ", " + written + ")");
+        }
+        return ring[(int) (offset % ring.length)];
+    }
+
+    @Override
+    public TraceReplay finish(int n, int interval, long events, long solutions, List<Keyframe> keyframes) {
+        return new TraceReplay(this, n, events, solutions, keyframes);
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,85 @@
+package trace;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * SearchTrace
+ * -----------
+ * Compact binary recording of a depth-first search, for replay after the fact.
+ *
+ * Every step of the search (a queen placed on row r) is one event. Events are
+ * delta-encoded against the previous one:
+ * - {@code 0x00..0x7F}: descend one row and place the queen in column {@code b}
+ * - {@code 0x80 | k} (k = 1..126) followed by a column byte: leave k rows
+ *   (backtrack k - 1 rows, then move sideways) and place the queen there
+ * - {@code 0xFF} followed by a depth d and d column bytes: jump to a new board
+ *   (first step of another task or of a solver that does not pass its live board)
+ * A step that fills the last row is a solution, so solutions need no extra event.
+ *
+ * Every {@link #DEFAULT_KEYFRAME_INTERVAL} events a keyframe stores the board,
+ * the event and solution counts and the byte offset, so a {@link TraceReplay}
+ * can seek to event k or to solution j without decoding from the start.
+ *
+ * File format:
+ * - Header: magic "NQTR", format version, n, keyframe interval (4 ints),
+ *   event count, solution count, keyframe table offset (3 longs), big-endian
+ * - Event bytes
+ * - Keyframe table: count, then per keyframe event, solutions, data offset (longs),
+ *   depth (1 byte) and one column byte per placed row
+ */
+public final class SearchTrace {
+
+    /** Largest board that can be traced (one byte per column, see the event encoding). */
+    public static final int MAX_N = 64;
+
+    /** Events between two keyframes of a file trace. */
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 1 << 14;
+
+    static final int MAGIC = 0x4E515452; // "NQTR"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 4 * Integer.BYTES + 3 * Long.BYTES;
+
+    static final int POP = 0x80;
+    static final int JUMP = 0xFF;
+
+    /** Keyframes an in-memory ring keeps at least, so replay never runs out of entry points. */
+    private static final int MIN_RING_KEYFRAMES = 16;
+
+    private SearchTrace() {
+    }
+
+    /**
+     * Records into a file (created or truncated); the whole search is kept.
+     */
+    public static TraceRecorder record(Path path, int n) throws IOException {
+        checkSize(n);
+        return new TraceRecorder(n, DEFAULT_KEYFRAME_INTERVAL, FileTraceStore.create(path, n, DEFAULT_KEYFRAME_INTERVAL));
+    }
+
+    /**
+     * Records into a fixed-size ring in memory; only the most recent events are kept.
+     *
+     * @param capacityBytes ring size; the keyframe interval is chosen so that the ring
+     *                      always holds several keyframes
+     */
+    public static TraceRecorder recordInMemory(int n, int capacityBytes) {
+        checkSize(n);
+        int interval = Math.max(1, Math.min(DEFAULT_KEYFRAME_INTERVAL,
+                capacityBytes / MIN_RING_KEYFRAMES / (n + 2)));
+        return new TraceRecorder(n, interval, new RingTraceStore(capacityBytes));
+    }
+
+    /**
+     * Opens a finished trace file for replay.
+     */
+    public static TraceReplay open(Path path) throws IOException {
+        return FileTraceStore.open(path);
+    }
+
+    static void checkSize(int n) {
+        if (n < 1 || n > MAX_N) {
+            throw new IllegalArgumentException("Board size must be between 1 and " + MAX_N + ": " + n);
+        }
+    }
+}
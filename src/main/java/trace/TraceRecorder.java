@@ -0,0 +1,154 @@
+package trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * TraceRecorder
+ * -------------
+ * {@code onStep} consumer that encodes the search into a {@link SearchTrace}.
+ *
+ * Important design notes:
+ * - Like the animation pipeline, only the first thread that reports a step is
+ *   recorded; steps of other threads are ignored
+ * - Boards are only read during the call, so solvers can pass their live board;
+ *   the last array is kept for an identity check (a new array starts a jump),
+ *   never to read its contents later
+ * - Events are staged in a small buffer and handed to the store in batches,
+ *   so memory does not grow with the search (except one keyframe per interval
+ *   for file traces)
+ * - I/O failures are kept and rethrown by {@link #finish()}
+ */
+public class TraceRecorder implements Consumer<int[]>, Closeable {
+
+    private static final int BATCH_BYTES = 1 << 16;
+
+    private final int n;
+    private final int interval;
+    private final TraceStore store;
+    private final ByteBuffer batch = ByteBuffer.allocate(BATCH_BYTES);
+    private final ArrayDeque<Keyframe> keyframes = new ArrayDeque<>();
+    private final AtomicReference<Thread> producer = new AtomicReference<>();
+    private volatile boolean closed;
+
+    // Producer-only state
+    private int[] lastBoard; // compared by identity only
+    private int lastRow = -1;
+    private long events;
+    private long solutions;
+    private long flushed; // bytes handed to the store
+    private IOException failure;
+
+    TraceRecorder(int n, int interval, TraceStore store) {
+        this.n = n;
+        this.interval = interval;
+        this.store = store;
+        keyframes.add(new Keyframe(0, 0, 0, new byte[0]));
+    }
+
+    /**
+     * Records one step of the recorded thread.
+     *
+     * @param cols board with the queens of rows 0..k placed and every deeper row empty (-1)
+     */
+    @Override
+    public void accept(int[] cols) {
+        Thread current = Thread.currentThread();
+        Thread owner = producer.get();
+        if (owner != current && (owner != null || !producer.compareAndSet(null, current))) {
+            return;
+        }
+        if (closed || failure != null) {
+            return;
+        }
+
+        int row = 0;
+        while (row < n && cols[row] >= 0) {
+            row++;
+        }
+        if (row == 0) {
+            return;
+        }
+        row--;
+
+        if (batch.remaining() < n + 2) {
+            flush();
+        }
+        if (cols != lastBoard) {
+            batch.put((byte) SearchTrace.JUMP).put((byte) (row + 1));
+            for (int r = 0; r <= row; r++) {
+                batch.put((byte) cols[r]);
+            }
+            lastBoard = cols;
+        } else if (row == lastRow + 1) {
+            batch.put((byte) cols[row]);
+        } else {
+            batch.put((byte) (SearchTrace.POP | (lastRow + 1 - row))).put((byte) cols[row]);
+        }
+        lastRow = row;
+
+        events++;
+        if (row == n - 1) {
+            solutions++;
+        }
+        if (events % interval == 0) {
+            byte[] board = new byte[row + 1];
+            for (int r = 0; r <= row; r++) {
+                board[r] = (byte) cols[r];
+            }
+            keyframes.add(new Keyframe(events, solutions, flushed + batch.position(), board));
+        }
+    }
+
+    /**
+     * Stops recording, writes the remaining events and returns a replay of the trace.
+     * Must be called after the search ended (the recorded thread no longer reports steps).
+     *
+     * @throws IOException if any batch could not be written
+     */
+    public TraceReplay finish() throws IOException {
+        closed = true;
+        flush();
+        if (failure != null) {
+            store.close();
+            throw failure;
+        }
+        return store.finish(n, interval, events, solutions, new ArrayList<>(keyframes));
+    }
+
+    /** Number of recorded events. */
+    public long eventCount() {
+        return events;
+    }
+
+    /**
+     * Stops recording without producing a replay.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        store.close();
+    }
+
+    private void flush() {
+        batch.flip();
+        flushed += batch.remaining();
+        try {
+            store.append(batch);
+        } catch (IOException e) {
+            failure = e;
+        }
+        batch.clear();
+
+        // Keyframes whose events were overwritten in a ring are no longer usable
+        long start = store.start();
+        while (!keyframes.isEmpty() && keyframes.peekFirst().offset < start) {
+            keyframes.pollFirst();
+        }
+    }
+}
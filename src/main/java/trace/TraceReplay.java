@@ -0,0 +1,216 @@
+package trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * TraceReplay
+ * -----------
+ * Decodes a recorded {@link SearchTrace} one event at a time.
+ *
+ * Responsibilities:
+ * - Step forward through the search, keeping the current board
+ * - Seek to event k or to solution j through the nearest keyframe before it
+ *
+ * Event and solution numbers always count from the start of the search; an
+ * in-memory ring only keeps the events from {@link #firstEvent()} on.
+ * Not thread-safe: use one replay per consumer.
+ */
+public class TraceReplay implements Closeable {
+
+    private final TraceStore store;
+    private final int n;
+    private final long events;
+    private final long solutions;
+    private final Keyframe[] keyframes;
+
+    private final int[] board;
+    private int row;
+    private long position;  // events applied
+    private long solutionsSeen;
+    private long offset;    // data offset of the next event
+
+    TraceReplay(TraceStore store, int n, long events, long solutions, List<Keyframe> keyframes) {
+        if (keyframes.isEmpty()) {
+            throw new IllegalArgumentException("A trace needs at least one keyframe");
+        }
+        this.store = store;
+        this.n = n;
+        this.events = events;
+        this.solutions = solutions;
+        this.keyframes = keyframes.toArray(new Keyframe[0]);
+        this.board = new int[n];
+        restore(this.keyframes[0]);
+    }
+
+    public int boardSize() {
+        return n;
+    }
+
+    /** First event that can be reached (0 unless a ring dropped older events). */
+    public long firstEvent() {
+        return keyframes[0].event;
+    }
+
+    /** Number of events of the whole search. */
+    public long eventCount() {
+        return events;
+    }
+
+    /** Number of solutions of the whole search. */
+    public long solutionCount() {
+        return solutions;
+    }
+
+    /** Number of events applied to the current board. */
+    public long position() {
+        return position;
+    }
+
+    /** Number of solutions among the applied events. */
+    public long solutionsSeen() {
+        return solutionsSeen;
+    }
+
+    /**
+     * The current board (cols[row] = col, -1 for empty rows).
+     * The array is updated in place by later calls.
+     */
+    public int[] board() {
+        return board;
+    }
+
+    /**
+     * Applies the next event.
+     *
+     * @return false at the end of the trace
+     */
+    public boolean next() {
+        if (position >= events) {
+            return false;
+        }
+
+        int code = store.get(offset++) & 0xFF;
+        if (code == SearchTrace.JUMP) {
+            int depth = store.get(offset++);
+            for (int r = 0; r < depth; r++) {
+                board[r] = store.get(offset++);
+            }
+            Arrays.fill(board, depth, n, -1);
+            row = depth - 1;
+        } else if (code < SearchTrace.POP) {
+            board[++row] = code;
+        } else {
+            int next = row + 1 - (code & ~SearchTrace.POP);
+            Arrays.fill(board, next + 1, row + 1, -1);
+            board[next] = store.get(offset++);
+            row = next;
+        }
+
+        position++;
+        if (row == n - 1) {
+            solutionsSeen++;
+        }
+        return true;
+    }
+
+    /**
+     * Applies up to count events.
+     *
+     * @return number of events applied
+     */
+    public long skip(long count) {
+        long applied = 0;
+        while (applied < count && next()) {
+            applied++;
+        }
+        return applied;
+    }
+
+    /**
+     * Moves to the board after the first {@code event} events.
+     *
+     * @throws IndexOutOfBoundsException if the event is not in [firstEvent, eventCount]
+     */
+    public void seek(long event) {
+        if (event < firstEvent() || event > events) {
+            throw new IndexOutOfBoundsException("Event " + event + " is outside [" + firstEvent() + ", " + events + "]");
+        }
+        if (event < position || nearest(event) > position) {
+            restore(keyframes[keyframeBefore(event)]);
+        }
+        skip(event - position);
+    }
+
+    /**
+     * Moves to the board of solution {@code index} (counted from 0).
+     *
+     * @throws IndexOutOfBoundsException if the solution was not recorded or was dropped from a ring
+     */
+    public void seekSolution(long index) {
+        if (index < keyframes[0].solutions || index >= solutions) {
+            throw new IndexOutOfBoundsException("Solution " + index + " is outside ["
+                    + keyframes[0].solutions + ", " + solutions + ")");
+        }
+        int k = solutionKeyframeBefore(index);
+        if (solutionsSeen > index || keyframes[k].event > position) {
+            restore(keyframes[k]);
+        }
+        while (solutionsSeen <= index && next()) {
+            // decode up to the event that completes the board
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        store.close();
+    }
+
+    private long nearest(long event) {
+        return keyframes[keyframeBefore(event)].event;
+    }
+
+    /** Index of the last keyframe at or before the event. */
+    private int keyframeBefore(long event) {
+        int low = 0;
+        int high = keyframes.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (keyframes[mid].event <= event) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /** Index of the last keyframe that comes before solution index was completed. */
+    private int solutionKeyframeBefore(long index) {
+        int low = 0;
+        int high = keyframes.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (keyframes[mid].solutions <= index) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private void restore(Keyframe keyframe) {
+        int depth = keyframe.cols.length;
+        for (int r = 0; r < depth; r++) {
+            board[r] = keyframe.cols[r];
+        }
+        Arrays.fill(board, depth, n, -1);
+        row = depth - 1;
+        position = keyframe.event;
+        solutionsSeen = keyframe.solutions;
+        offset = keyframe.offset;
+    }
+}
@@ -0,0 +1,30 @@
+package trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Byte storage behind a trace: written once by the recorder, then read by replays.
+ * Offsets are logical positions in the event data, starting at 0.
+ */
+interface TraceStore extends Closeable {
+
+    /**
+     * Appends the remaining bytes of batch.
+     */
+    void append(ByteBuffer batch) throws IOException;
+
+    /** Oldest offset that can still be read. */
+    long start();
+
+    byte get(long offset);
+
+    /**
+     * Called once by the recorder after the last event.
+     *
+     * @return a replay over the recorded events
+     */
+    TraceReplay finish(int n, int interval, long events, long solutions, List<Keyframe> keyframes) throws IOException;
+}
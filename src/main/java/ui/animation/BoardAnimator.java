@@ -4,34 +4,78 @@ import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.util.Duration;
 
-import java.util.ArrayDeque;
-import java.util.Queue;
+import java.util.Arrays;
 import java.util.function.Consumer;
 
+/**
+ * BoardAnimator
+ * -------------
+ * Plays back frames at a fixed frame delay on the FX thread.
+ *
+ * Live steps arrive through a bounded {@link StepPipeline} that holds about
+ * {@value #BUFFERED_PLAYBACK_MS} ms of playback: at slow speeds the solver
+ * drops almost every step instead of queueing frames that would never be shown.
+ * Recorded searches are played from a {@link TraceFrames} source instead.
+ */
 public class BoardAnimator {
 
-    private final Queue<int[]> frames = new ArrayDeque<>();
+    /** Playback time the pipeline can buffer ahead of the display. */
+    private static final int BUFFERED_PLAYBACK_MS = 2_000;
+    private static final int MIN_CAPACITY = 64;
+    private static final int MAX_CAPACITY = 1 << 14;
+
+    private final StepPipeline steps; // null when playing a recording
+    private final int[] board;
     private final Timeline timeline;
 
-    public BoardAnimator(Consumer<int[]> renderer, int delayMs, Runnable onEmpty) {
+    /**
+     * Animator for live solver steps, see {@link #submit}.
+     *
+     * @param renderer draws a board; called on the FX thread with an array that is reused between frames
+     * @param n board size
+     * @param delayMs time between two frames
+     * @param onEmpty called once playback has caught up with a finished search
+     */
+    public BoardAnimator(Consumer<int[]> renderer, int n, int delayMs, Runnable onEmpty) {
+        this(renderer, pipelineFor(n, delayMs), n, delayMs, onEmpty);
+    }
+
+    /**
+     * Animator for any frame source, e.g. a recorded trace.
+     */
+    public BoardAnimator(Consumer<int[]> renderer, FrameSource frames, int n, int delayMs, Runnable onEmpty) {
+        this.steps = frames instanceof StepPipeline pipeline ? pipeline : null;
+        this.board = new int[n];
+        Arrays.fill(board, -1);
+
         timeline = new Timeline(new KeyFrame(
                 Duration.millis(delayMs),
                 e -> {
-                    int[] next = frames.poll();
-                    if (next != null) {
-                        renderer.accept(next);
-                    } else {
+                    if (frames.poll(board)) {
+                        renderer.accept(board);
+                    } else if (frames.isClosed()) {
                         stop();
                         if (onEmpty != null) onEmpty.run();
                     }
+                    // otherwise the search is still running and has not produced the next step yet
                 }
         ));
         timeline.setCycleCount(Timeline.INDEFINITE);
     }
 
-
+    /**
+     * Offers a solver step; safe to call from any thread with the live board.
+     * Only one solver thread is animated, steps of the others are ignored.
+     */
     public void submit(int[] cols) {
-        frames.offer(cols);
+        if (steps != null) steps.offer(cols);
+    }
+
+    /**
+     * Signals that no more steps will come; playback stops once the buffer is drained.
+     */
+    public void finish() {
+        if (steps != null) steps.close();
     }
 
     public void start() {
@@ -40,11 +84,16 @@ public class BoardAnimator {
 
     public void stop() {
         timeline.stop();
-        frames.clear();
+        finish();
     }
 
     public boolean isRunning() {
         return timeline.getStatus() == Timeline.Status.RUNNING;
     }
 
+    private static StepPipeline pipelineFor(int n, int delayMs) {
+        int capacity = BUFFERED_PLAYBACK_MS / Math.max(1, delayMs);
+        return new StepPipeline(n, Math.max(MIN_CAPACITY, Math.min(MAX_CAPACITY, capacity)));
+    }
+
 }
@@ -0,0 +1,18 @@
+package ui.animation;
+
+/**
+ * Where {@link BoardAnimator} takes its frames from: live solver steps or a recorded trace.
+ * Polled on the FX thread only.
+ */
+public interface FrameSource {
+
+    /**
+     * Advances to the next frame and writes it into board.
+     *
+     * @return false if no frame is available right now
+     */
+    boolean poll(int[] board);
+
+    /** Whether no more frames will become available once the buffered ones are polled. */
+    boolean isClosed();
+}
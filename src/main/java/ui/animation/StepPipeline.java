@@ -0,0 +1,151 @@
+package ui.animation;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * StepPipeline
+ * ------------
+ * Bounded, lock-free hand-off of search steps from one solver thread to the animator.
+ *
+ * Responsibilities:
+ * - Turn live boards from {@code onStep} into compact place events (one int each)
+ * - Drop steps instead of blocking or growing when the animator falls behind
+ * - Rebuild the consumer's board exactly after drops or a switch to another task
+ *
+ * Important design notes:
+ * - Single producer, single consumer ring: the first thread that offers a step
+ *   becomes the producer, steps of every other thread are ignored (one coherent
+ *   search is animated instead of interleaving all threads)
+ * - An event "place (row, col)" also removes the queens of all deeper rows,
+ *   so backtracking needs no separate remove events
+ * - After a drop, or when the producer passes a different board array, the next
+ *   step is sent as a keyframe: one place event per row, applied in a single poll
+ * - Offered boards are only read during the call, so solvers can pass their live
+ *   board; the last array is kept for an identity check, never read later
+ */
+public class StepPipeline implements FrameSource {
+
+    /** Set on every keyframe event except the last one. */
+    private static final int CONTINUED = 1 << 31;
+    private static final int ROW_SHIFT = 16;
+    private static final int COL_MASK = (1 << ROW_SHIFT) - 1;
+
+    private final int n;
+    private final int[] ring;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(); // next event to poll (consumer)
+    private final AtomicLong tail = new AtomicLong(); // next free slot (producer)
+    private final AtomicReference<Thread> producer = new AtomicReference<>();
+    private volatile boolean closed;
+
+    // Producer-only state
+    private int[] lastBoard; // compared by identity only
+    private boolean resync = true;
+
+    /**
+     * @param n board size
+     * @param capacity number of buffered events, rounded up to a power of two (at least n)
+     */
+    public StepPipeline(int n, int capacity) {
+        if (n < 1 || n > COL_MASK) {
+            throw new IllegalArgumentException("Board size must be between 1 and " + COL_MASK + ": " + n);
+        }
+        int size = Integer.highestOneBit(Math.max(Math.max(capacity, n), 2) - 1) << 1;
+        this.n = n;
+        this.ring = new int[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Publishes one step of the producer thread.
+     * Returns immediately for other threads, after {@link #close()} and when the ring is full.
+     *
+     * @param cols board with the queens of rows 0..k placed and every deeper row empty (-1)
+     */
+    public void offer(int[] cols) {
+        Thread current = Thread.currentThread();
+        Thread owner = producer.get();
+        if (owner != current && (owner != null || !producer.compareAndSet(null, current))) {
+            return;
+        }
+        if (closed) {
+            return;
+        }
+
+        int row = 0;
+        while (row < n && cols[row] >= 0) {
+            row++;
+        }
+        if (row == 0) {
+            return; // empty board: nothing to show
+        }
+        row--; // deepest placed row
+
+        boolean keyframe = resync || cols != lastBoard;
+        long t = tail.get();
+        int needed = keyframe ? row + 1 : 1;
+        if (ring.length - (t - head.get()) < needed) {
+            resync = true; // dropped: the next accepted step is a keyframe
+            return;
+        }
+
+        if (keyframe) {
+            for (int r = 0; r < row; r++) {
+                ring[(int) (t++ & mask)] = CONTINUED | encode(r, cols[r]);
+            }
+            lastBoard = cols;
+            resync = false;
+        }
+        ring[(int) (t++ & mask)] = encode(row, cols[row]);
+        tail.set(t); // publishes the events written above
+    }
+
+    /**
+     * Applies the next step (a single event or a whole keyframe) to {@code board}.
+     * Consumer thread only.
+     *
+     * @param board the consumer's board of length n
+     * @return false if no complete step is buffered
+     */
+    @Override
+    public boolean poll(int[] board) {
+        long h = head.get();
+        long t = tail.get();
+        if (h == t) {
+            return false;
+        }
+        int event;
+        do {
+            event = ring[(int) (h++ & mask)];
+            int row = (event & ~CONTINUED) >>> ROW_SHIFT;
+            board[row] = event & COL_MASK;
+            Arrays.fill(board, row + 1, n, -1);
+        } while ((event & CONTINUED) != 0 && h != t);
+        head.set(h); // frees the slots for the producer
+        return true;
+    }
+
+    /**
+     * Marks the end of the search; later steps are ignored.
+     */
+    public void close() {
+        closed = true;
+    }
+
+    /** Whether {@link #close()} was called. */
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /** Whether no step is waiting to be polled. */
+    public boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    private static int encode(int row, int col) {
+        return row << ROW_SHIFT | col;
+    }
+}
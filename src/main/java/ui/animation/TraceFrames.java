@@ -0,0 +1,36 @@
+package ui.animation;
+
+import trace.TraceReplay;
+
+/**
+ * Frames of a recorded search trace; plays back at any speed by skipping
+ * a fixed number of events per frame.
+ */
+public class TraceFrames implements FrameSource {
+
+    private final TraceReplay replay;
+    private final long eventsPerFrame;
+
+    /**
+     * @param replay positioned at the first event to show
+     * @param eventsPerFrame events applied between two frames (1 shows every step)
+     */
+    public TraceFrames(TraceReplay replay, long eventsPerFrame) {
+        this.replay = replay;
+        this.eventsPerFrame = Math.max(1, eventsPerFrame);
+    }
+
+    @Override
+    public boolean poll(int[] board) {
+        if (replay.skip(eventsPerFrame) == 0) {
+            return false;
+        }
+        System.arraycopy(replay.board(), 0, board, 0, board.length);
+        return true;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return true; // the trace is complete
+    }
+}
@@ -0,0 +1,167 @@
+package ui.board;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.ImagePattern;
+import javafx.scene.paint.Paint;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+import java.util.Arrays;
+
+/**
+ * BoardCanvas
+ * -----------
+ * Chess board drawn on a single {@link Canvas} instead of n² scene-graph nodes.
+ *
+ * Responsibilities:
+ * - Paint the squares once from a cached two-by-two tile pattern
+ * - Remember the column shown in every row and redraw only the rows that
+ *   changed since the previous frame
+ * - Draw queens as glyphs on large squares and as filled squares on small ones
+ *
+ * Important design notes:
+ * - Squares are whole pixels, so redrawing one row never touches its neighbours;
+ *   boards with more squares than pixels to fill are wider and scrolled
+ * - A frame costs O(n) to compare plus O(changed rows) to draw, independent of n²
+ * - Must be used on the FX thread; the array passed to {@link #render} is not kept
+ */
+public class BoardCanvas extends Region {
+
+    /** Largest board: one pixel per square, so the canvas stays within texture limits. */
+    public static final int MAX_N = 4096;
+
+    /** Default width of the board; small boards get bigger squares to fill it. */
+    public static final int BOARD_PX = 600;
+    /** Squares below this size get no border line. */
+    private static final int MIN_BORDER_PX = 8;
+    /** Squares below this size get a filled square instead of the queen glyph. */
+    private static final int MIN_GLYPH_PX = 12;
+
+    private static final Color LIGHT = Color.WHITESMOKE;
+    private static final Color DARK = Color.LIGHTGRAY;
+    private static final Color BORDER = Color.GRAY;
+    private static final Color QUEEN = Color.BLACK;
+
+    private final int n;
+    private final int cell;
+    private final Canvas canvas;
+    private final GraphicsContext gc;
+    private final Paint background;
+    private final int[] shown; // column drawn in each row, -1 for none
+
+    public BoardCanvas(int n) {
+        this(n, BOARD_PX);
+    }
+
+    /**
+     * @param n board size, at most {@value #MAX_N}
+     * @param boardPx width to fill; the board is wider if n exceeds it
+     */
+    public BoardCanvas(int n, int boardPx) {
+        if (n < 1 || n > MAX_N) {
+            throw new IllegalArgumentException("Board size must be between 1 and " + MAX_N + ": " + n);
+        }
+        this.n = n;
+        this.cell = Math.max(1, boardPx / n);
+        this.canvas = new Canvas(n * cell, n * cell);
+        this.gc = canvas.getGraphicsContext2D();
+        this.background = backgroundFor(cell);
+        this.shown = new int[n];
+        Arrays.fill(shown, -1);
+
+        if (cell >= MIN_GLYPH_PX) {
+            gc.setFont(Font.font(cell * 0.7));
+            gc.setTextAlign(TextAlignment.CENTER);
+            gc.setTextBaseline(VPos.CENTER);
+        }
+        gc.setFill(background);
+        gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+
+        getChildren().add(canvas);
+        setMinSize(canvas.getWidth(), canvas.getHeight());
+        setPrefSize(canvas.getWidth(), canvas.getHeight());
+        setMaxSize(canvas.getWidth(), canvas.getHeight());
+    }
+
+    public int getBoardSize() {
+        return n;
+    }
+
+    /**
+     * Shows a board; only rows whose queen moved are redrawn.
+     *
+     * @param cols cols[row] = column of the queen, or -1 for an empty row
+     */
+    public void render(int[] cols) {
+        int rows = Math.min(n, cols.length);
+        for (int row = 0; row < rows; row++) {
+            int col = cols[row] >= 0 && cols[row] < n ? cols[row] : -1;
+            if (col != shown[row]) {
+                drawRow(row, col);
+                shown[row] = col;
+            }
+        }
+    }
+
+    /** Removes all queens. */
+    public void clear() {
+        for (int row = 0; row < n; row++) {
+            if (shown[row] >= 0) {
+                drawRow(row, -1);
+                shown[row] = -1;
+            }
+        }
+    }
+
+    private void drawRow(int row, int col) {
+        double y = row * cell;
+        gc.setFill(background);
+        if (shown[row] >= 0) {
+            gc.fillRect(shown[row] * cell, y, cell, cell); // only the old queen's square is dirty
+        }
+        if (col < 0) {
+            return;
+        }
+        double x = col * cell;
+        gc.setFill(QUEEN);
+        if (cell >= MIN_GLYPH_PX) {
+            gc.fillText("♛", x + cell / 2.0, y + cell / 2.0);
+        } else {
+            double inset = cell >= 4 ? 1 : 0;
+            gc.fillRect(x + inset, y + inset, cell - 2 * inset, cell - 2 * inset);
+        }
+    }
+
+    /**
+     * Checkered fill anchored at the board origin. Squares of one or two
+     * pixels get a plain fill: the pattern would only read as grey noise.
+     */
+    private static Paint backgroundFor(int cell) {
+        if (cell < 3) {
+            return LIGHT;
+        }
+        int tile = 2 * cell;
+        WritableImage image = new WritableImage(tile, tile);
+        PixelWriter pixels = image.getPixelWriter();
+        boolean border = cell >= MIN_BORDER_PX;
+        for (int y = 0; y < tile; y++) {
+            for (int x = 0; x < tile; x++) {
+                boolean edge = border && (x % cell == 0 || y % cell == 0);
+                boolean light = (x / cell + y / cell) % 2 == 0;
+                pixels.setColor(x, y, edge ? BORDER : light ? LIGHT : DARK);
+            }
+        }
+        return new ImagePattern(image, 0, 0, tile, tile, false);
+    }
+
+    @Override
+    protected void layoutChildren() {
+        canvas.relocate(0, 0);
+    }
+}
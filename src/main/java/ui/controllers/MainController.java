@@ -1,16 +1,47 @@
 package ui.controllers;
 
+import metrics.MetricsSnapshot;
+import metrics.SearchMetrics;
+import metrics.WorkProgress;
+import model.Solution;
+import model.SolveMode;
+import storage.ResultCache;
+import storage.SolutionFile;
+import storage.SolutionSink;
+import storage.SolutionSource;
 import storage.SolutionStore;
-import solver.BacktrackingSolver;
+import solver.BitboardSolver;
+import solver.ConstructiveSolver;
 import solver.Solver;
+import trace.SearchTrace;
+import trace.TraceRecorder;
+import trace.TraceReplay;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
+import javafx.util.Duration;
 import ui.animation.BoardAnimator;
-import worker.ParallelSolverWorker;
-
-import java.util.concurrent.atomic.AtomicInteger;
+import ui.animation.TraceFrames;
+import ui.board.BoardCanvas;
+import ui.list.SolutionCell;
+import ui.list.SolutionRows;
+import ui.progress.ProgressPulse;
+import ui.progress.SolveProgress;
+import worker.ForkJoinSolverWorker;
+import worker.SolverWorker;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.OptionalLong;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * MainController
@@ -30,75 +61,203 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 public class MainController {
 
+    /** Longest replay of a whole trace; bigger traces skip events between frames. */
+    private static final long MAX_REPLAY_MS = 60_000;
+    /** How often live metrics are sampled while solving. */
+    private static final double METRICS_INTERVAL_MS = 500;
+
     @FXML private Spinner<Integer> nSpinner;
     @FXML private Button solveBtn;
     @FXML private Button stopBtn;
     @FXML private CheckBox findAllCheckbox;
+    @FXML private CheckBox uniqueCheckbox;
+    @FXML private CheckBox countOnlyCheckbox;
+    @FXML private CheckBox diskCheckbox;
+    @FXML private CheckBox traceCheckbox;
+    @FXML private Button replayBtn;
+    @FXML private CheckBox metricsCheckbox;
+    @FXML private CheckBox cacheCheckbox;
     @FXML private ToggleButton animateToggle;
     @FXML private StackPane boardContainer;
     @FXML private Label statusLabel;
     @FXML private Label solutionsLabel;
     @FXML private Slider speedSlider;
-    @FXML private ListView<String> solutionList;
+    @FXML private ListView<Integer> solutionList;
+    @FXML private TextField jumpField;
+    @FXML private Label metricsLabel;
+    @FXML private Label threadMetricsLabel;
 
-    private Pane boardGrid; // will contain GridPane
-    private StackPane[][] cellGrid; // Fast lookup array
+    private BoardCanvas board;
     private int currentN = 8;
-    private ParallelSolverWorker parallelSolverWorker;
-    private final Solver solver = new BacktrackingSolver();
-    private AtomicInteger solutionCount = new AtomicInteger(0);
+    private SolverWorker solverWorker;
+    private ProgressPulse progressPulse; // publishes the running solve once per frame
     private BoardAnimator animator;
     private SolutionStore solutionStore;
+    private SolutionSource solutionSource; // what the list shows: the store or a mapped file
+    private SolutionFile.Reader solutionFile;
+    private TraceReplay trace; // last recorded search, replayed on demand
+    private Timeline metricsTicker;
+    private final SolutionRows solutionRows = new SolutionRows(); // rows are indices into solutionSource
+    private ResultCache cache; // null if the cache directory is not usable
+    private volatile boolean stopped; // results of a stopped run are incomplete and not cached
+    private int runs; // bumped by every solve and stop, so a late cache lookup is ignored
 
 
     @FXML
     public void initialize() {
         // Spinner for N
-        SpinnerValueFactory<Integer> valFactory = new SpinnerValueFactory.IntegerSpinnerValueFactory(4, 15, 8);
+        SpinnerValueFactory<Integer> valFactory = new SpinnerValueFactory.IntegerSpinnerValueFactory(4, BoardCanvas.MAX_N, 8);
         nSpinner.setValueFactory(valFactory);
 
         solveBtn.setOnAction(e -> startSolving());
         stopBtn.setOnAction(e -> stopSolving());
+        replayBtn.setOnAction(e -> replayTrace());
+        jumpField.setOnAction(e -> jumpToSolution());
+
+        // Only the visible rows are decoded, however many solutions there are
+        solutionList.setItems(solutionRows);
+        solutionList.setCellFactory(view -> new SolutionCell(solutionRows));
 
         solutionList.getSelectionModel().selectedIndexProperty().addListener(
                 (obs, oldVal, newVal) -> {
                     int index = newVal.intValue();
-                    if (index >= 0 && index < solutionStore.size()) {
-                        render(solutionStore.get(index).getCols());
+                    if (index >= 0 && index < solutionSource.size()) {
+                        render(solutionSource.get(index).getCols());
                     }
                 }
         );
 
-        solutionStore = new SolutionStore();
+        // Boards are packed and only decoded when selected
+        solutionStore = new SolutionStore(SolutionStore.Mode.PACKED);
+        solutionSource = solutionStore;
+
+        // Metrics are sampled, never pushed by the workers
+        metricsTicker = new Timeline(new KeyFrame(Duration.millis(METRICS_INTERVAL_MS), e -> showMetrics()));
+        metricsTicker.setCycleCount(Timeline.INDEFINITE);
+
+        try {
+            cache = ResultCache.open(ResultCache.defaultDirectory(),
+                    ResultCache.DEFAULT_MAX_BYTES, ResultCache.DEFAULT_MEMORY_BOARDS);
+        } catch (IOException ex) {
+            cacheCheckbox.setSelected(false);
+            cacheCheckbox.setDisable(true);
+            ex.printStackTrace();
+        }
+    }
+
+    /**
+     * Called when the window closes: saves the cache's pending use times.
+     */
+    public void shutdown() {
+        if (cache == null) return;
+        try {
+            cache.close();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
     }
 
     private void startSolving() {
         currentN = nSpinner.getValue();
         double speed = this.speedSlider.getValue();
 
-        boardContainer.getChildren().clear();
-        boardGrid = createBoardGrid(currentN);
-        boardContainer.getChildren().add(boardGrid);
+        showBoard(currentN);
 
         solutionStore.clear();
-        solutionList.getItems().clear();
+        solutionSource = solutionStore;
+        closeSolutionFile();
+        if (animator != null) animator.stop(); // e.g. a running replay
+        closeTrace();
+        showSolutionList();
 
         statusLabel.setText("Solving...");
-        solutionCount.set(0);
+        if (progressPulse != null) progressPulse.stop();
         solutionsLabel.setText("0");
+        stopped = false;
+        runs++;
 
         solveBtn.setDisable(true);
         stopBtn.setDisable(false);
 
         boolean findAll = findAllCheckbox.isSelected();
+        SolveMode mode = uniqueCheckbox.isSelected() ? SolveMode.UNIQUE
+                : findAll ? SolveMode.ALL
+                : SolveMode.FIRST;
         boolean animate = animateToggle.isSelected();
+        // A traced run needs the search itself, so it is always solved again
+        boolean useCache = cache != null && cacheCheckbox.isSelected() && !traceCheckbox.isSelected();
+
+        if (currentN > BitboardSolver.MAX_N) {
+            showConstructedSolution(mode == SolveMode.FIRST && !countOnlyCheckbox.isSelected());
+            return;
+        }
+
+        int n = currentN;
+        if (countOnlyCheckbox.isSelected()) {
+            Runnable count = () -> {
+                // initialize it every time clicking on solve(Solving the empty board bug)
+                solverWorker = createWorker(solutionStore);
+                startCounting(useCache);
+            };
+            if (useCache) {
+                lookUpCache(() -> {
+                    OptionalLong total = cache.count(n);
+                    return total.isPresent() ? total.getAsLong() : null;
+                }, this::showCachedCount, count);
+            } else {
+                count.run();
+            }
+            return;
+        }
+
+        if (useCache && mode != SolveMode.FIRST) {
+            Runnable solve = () -> solve(mode, useCache, animate, speed);
+            if (diskCheckbox.isSelected()) {
+                // Large sets are paged straight from the cached file
+                lookUpCache(() -> cache.open(n, mode), this::showCachedFile, solve);
+            } else {
+                // Loaded into a store of its own, so a late lookup never fills the next run's store
+                lookUpCache(() -> {
+                    SolutionStore loaded = new SolutionStore(SolutionStore.Mode.PACKED);
+                    return cache.load(n, mode, loaded) < 0 ? null : loaded;
+                }, this::showCachedStore, solve);
+            }
+            return;
+        }
+        solve(mode, useCache, animate, speed);
+    }
+
+    private void solve(SolveMode mode, boolean useCache, boolean animate, double speed) {
+        int n = currentN;
+
+        // Large enumerations go to a solution file instead of memory
+        SolutionFile.Writer fileWriter;
+        TraceRecorder recorder;
+        try {
+            fileWriter = diskCheckbox.isSelected() ? openSolutionFile(currentN) : null;
+            recorder = traceCheckbox.isSelected() ? openTrace(currentN) : null;
+        } catch (IOException ex) {
+            statusLabel.setText("Failed");
+            solveBtn.setDisable(false);
+            stopBtn.setDisable(true);
+            ex.printStackTrace();
+            return;
+        }
+        SolutionSink sink = fileWriter != null ? fileWriter : solutionStore;
+
+        // Workers only bump counters; the UI samples them once per frame
+        SolveProgress progress = new SolveProgress();
+        ProgressPulse pulse = new ProgressPulse(progress, this::showProgress);
+        progressPulse = pulse;
+        pulse.start();
 
         // initialize it every time clicking on solve(Solving the empty board bug)
-        parallelSolverWorker = new ParallelSolverWorker(solver, solutionStore);
+        solverWorker = createWorker(sink);
 
         animator = animate
                 ? new BoardAnimator(
-                cols -> Platform.runLater(() -> render(cols)),
+                this::render, // timeline frames already run on the FX thread
+                currentN,
                 (int) speed,
                 () -> Platform.runLater(() -> {
                     solveBtn.setDisable(false);
@@ -110,115 +269,430 @@ public class MainController {
 
         if (animator != null) animator.start();
 
-        parallelSolverWorker.start(
+        solverWorker.start(
                 currentN,
-                findAll,
+                mode,
 
                 // onStep
                 cols -> {
                     if (animator != null) {
-                        // Pass a clone to avoid concurrent modification issues
-                        animator.submit(cols.clone());
+                        // The live board is encoded into the animator's pipeline, no copy needed
+                        animator.submit(cols);
                     }
+                    if (recorder != null) recorder.accept(cols);
                 },
 
                 // onSolution
-                solution -> Platform.runLater(() -> {
-                    int c = solutionCount.incrementAndGet();
-                    solutionsLabel.setText(String.valueOf(c));
-
-                    if (animator == null) render(solution.getCols());
-                }),
+                progress::solutionFound,
 
                 // onFinished
-                () -> Platform.runLater(() -> {
-                    solutionList.getItems().clear();
-                    for (int i = 0; i < solutionStore.size(); i++) {
-                        solutionList.getItems().add("Solution #" + (i + 1));
+                () -> {
+                    if (animator != null) animator.finish();
+                    // Finish the file on this worker thread, then page boards from the mapping
+                    SolutionFile.Reader reader = fileWriter != null ? finishSolutionFile(fileWriter) : null;
+                    TraceReplay recorded = recorder != null ? finishTrace(recorder) : null;
+                    if (useCache && mode != SolveMode.FIRST && !stopped) {
+                        storeInCache(n, mode, reader != null ? reader : solutionStore);
                     }
-                    statusLabel.setText("Done (Calculation)");
-                    if (animator == null || !animator.isRunning()){
-                        solveBtn.setDisable(false); // Enable solve button
+                    Platform.runLater(() -> {
+                        if (reader != null) {
+                            solutionFile = reader;
+                            solutionSource = reader;
+                        }
+                        if (recorded != null) {
+                            trace = recorded;
+                            replayBtn.setDisable(false);
+                        }
+                        pulse.finish();
+                        showSolutionList();
+                        statusLabel.setText("Done (Calculation)");
+                        stopMetrics();
+                        if (animator == null || !animator.isRunning()){
+                            solveBtn.setDisable(false); // Enable solve button
+                            stopBtn.setDisable(true); // Disable stop button
+                        }
+                    });
+                },
+
+                // onError
+                ex -> {
+                    // Release the file and trace of the failed run on this worker thread; the partial file is deleted
+                    if (fileWriter != null) discardSolutionFile(fileWriter);
+                    if (recorder != null) discardTrace(recorder);
+                    Platform.runLater(() -> {
+                        statusLabel.setText("Failed");
+                        stopMetrics();
+                        pulse.stop();
+                        if (animator != null) animator.stop();
+                        solveBtn.setDisable(false);
                         stopBtn.setDisable(true); // Disable stop button
+                        ex.printStackTrace();
+                    });
+                }
+        );
+    }
+
+
+    // Count-only mode: no boards, no animation, just the total
+    private void startCounting(boolean useCache) {
+        statusLabel.setText("Counting...");
+        int n = currentN;
+
+        // No solutions arrive while counting; the pulse only moves the estimate
+        ProgressPulse pulse = new ProgressPulse(new SolveProgress(), snapshot -> showEstimate("Counting..."));
+        progressPulse = pulse;
+        pulse.start();
+
+        solverWorker.count(
+                n,
+
+                // onFinished
+                total -> {
+                    if (useCache) {
+                        try {
+                            cache.putCount(n, total);
+                        } catch (IOException ex) {
+                            ex.printStackTrace();
+                        }
                     }
-                }),
+                    Platform.runLater(() -> {
+                        pulse.stop();
+                        solutionsLabel.setText(String.valueOf(total));
+                        statusLabel.setText("Done (Count)");
+                        stopMetrics();
+                        solveBtn.setDisable(false);
+                        stopBtn.setDisable(true);
+                    });
+                },
 
                 // onError
                 ex -> Platform.runLater(() -> {
                     statusLabel.setText("Failed");
-                    if (animator != null) animator.stop();
+                    stopMetrics();
+                    pulse.stop();
                     solveBtn.setDisable(false);
-                    stopBtn.setDisable(true); // Disable stop button
+                    stopBtn.setDisable(true);
                     ex.printStackTrace();
                 })
         );
     }
 
 
-    private void stopSolving() {
-        parallelSolverWorker.cancel();
-        statusLabel.setText("Stopped");
-        if (animator != null) animator.stop();
+    // Boards too large to search: the first solution is built in O(n), so right here on the FX thread
+    private void showConstructedSolution(boolean firstOnly) {
+        if (!firstOnly) {
+            statusLabel.setText("Above N=" + BitboardSolver.MAX_N + " only the first solution is available");
+        } else {
+            int[] cols = new int[currentN];
+            ConstructiveSolver.construct(cols);
+            // A single board: a packed store would reserve a whole chunk of such boards
+            SolutionStore constructed = new SolutionStore(SolutionStore.Mode.OBJECTS);
+            constructed.add(new Solution(cols));
+            solutionSource = constructed;
+            render(cols);
+            solutionsLabel.setText("1");
+            showSolutionList();
+            statusLabel.setText("Done (Constructed)");
+        }
         solveBtn.setDisable(false);
         stopBtn.setDisable(true);
     }
 
+    // Called once per frame at most while solving
+    private void showProgress(SolveProgress.Snapshot progress) {
+        solutionsLabel.setText(String.format(Locale.ROOT, "%,d  (%s/s, %.1f s)",
+                progress.getSolutions(),
+                formatRate(progress.getSolutionsPerSecond()),
+                progress.getElapsedSeconds()));
+        if (animator == null && progress.getLatest() != null) render(progress.getLatest().getCols());
+        solutionRows.sync(); // the list grows with the store; a file is only shown once finished
+        showEstimate("Solving...");
+    }
 
-    private Pane createBoardGrid(int n) {
-        GridPane grid = new GridPane();
-        cellGrid = new StackPane[n][n];
+    // Percent complete and ETA of the running search, if the worker estimates it
+    private void showEstimate(String activity) {
+        WorkProgress estimate = solverWorker != null ? solverWorker.progress() : null;
+        if (stopped || estimate == null) return;
+        long eta = estimate.getEtaMillis();
+        statusLabel.setText(String.format(Locale.ROOT, "%s %.0f%%%s",
+                activity,
+                estimate.getFraction() * 100,
+                eta < 0 ? "" : "  (ETA " + formatDuration(eta) + ")"));
+    }
 
-        double size = Math.min(600, 600);
-        grid.setPrefSize(size, size);
+    private void showSolutionList() {
+        solutionRows.setSource(solutionSource);
+    }
 
-        for (int r = 0; r < n; r++) {
-            RowConstraints rc = new RowConstraints();
-            rc.setPercentHeight(100.0 / n);
-            grid.getRowConstraints().add(rc);
+    // Jumps to a 1-based solution number typed by the user
+    private void jumpToSolution() {
+        int size = solutionRows.size();
+        int number;
+        try {
+            number = Integer.parseInt(jumpField.getText().trim());
+        } catch (NumberFormatException ex) {
+            number = 0;
         }
-
-        for (int c = 0; c < n; c++) {
-            ColumnConstraints cc = new ColumnConstraints();
-            cc.setPercentWidth(100.0 / n);
-            grid.getColumnConstraints().add(cc);
+        if (number < 1 || number > size) {
+            statusLabel.setText(size == 0 ? "No solutions to show" : "Solution number must be between 1 and " + size);
+            return;
         }
+        solutionList.scrollTo(number - 1);
+        solutionList.getSelectionModel().clearAndSelect(number - 1);
+    }
 
-        for (int r = 0; r < n; r++) {
-            for (int c = 0; c < n; c++) {
-                StackPane cell = new StackPane();
-                cell.setStyle(((r + c) % 2 == 0) ? "-fx-background-color: whitesmoke; -fx-border-color: gray;" :
-                        "-fx-background-color: lightgray; -fx-border-color: gray;");
-                cell.setId("cell-"+r+"-"+c);
-                grid.add(cell, c, r);
-                cellGrid[r][c] = cell;
+    /**
+     * Looks a result up in the cache off the FX thread, then calls back on it:
+     * onHit with a non-null result, otherwise onMiss (also when the lookup fails).
+     * A result that arrives after the run was stopped is closed and dropped.
+     */
+    private <T> void lookUpCache(Callable<T> lookup, Consumer<T> onHit, Runnable onMiss) {
+        int run = runs;
+        statusLabel.setText("Looking up cache...");
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return lookup.call();
+            } catch (Exception ex) {
+                ex.printStackTrace();
+                return null;
             }
+        }).thenAccept(result -> Platform.runLater(() -> {
+            if (run != runs) {
+                if (result instanceof AutoCloseable closeable) {
+                    try {
+                        closeable.close();
+                    } catch (Exception ex) {
+                        ex.printStackTrace();
+                    }
+                }
+                return;
+            }
+            if (result != null) {
+                onHit.accept(result);
+            } else {
+                statusLabel.setText("Solving...");
+                onMiss.run();
+            }
+        }));
+    }
+
+    private void showCachedCount(long total) {
+        solutionsLabel.setText(String.valueOf(total));
+        showCached();
+    }
+
+    private void showCachedFile(SolutionFile.Reader reader) {
+        solutionFile = reader;
+        solutionSource = reader;
+        showCachedSolutions();
+    }
+
+    private void showCachedStore(SolutionStore loaded) {
+        solutionStore = loaded;
+        solutionSource = loaded;
+        showCachedSolutions();
+    }
+
+    private void showCachedSolutions() {
+        solutionsLabel.setText(String.valueOf(solutionSource.size()));
+        showSolutionList();
+        showCached();
+    }
+
+    private void showCached() {
+        statusLabel.setText("Done (Cached)");
+        metricsLabel.setText("");
+        threadMetricsLabel.setText("");
+        solveBtn.setDisable(false);
+        stopBtn.setDisable(true);
+    }
+
+    // Runs on the worker thread that finished the run
+    private void storeInCache(int n, SolveMode mode, SolutionSource solutions) {
+        try {
+            cache.put(n, mode, solutions);
+        } catch (IOException ex) {
+            ex.printStackTrace();
         }
-        return grid;
     }
 
-    // Render board from cols array. cols[row] = col index or -1
-    private void render(int[] cols) {
-        if (cellGrid == null) return;
+    // Instrumentation is only attached when switched on, so normal runs keep the plain hot path
+    private SolverWorker createWorker(SolutionSink sink) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        SearchMetrics metrics = null;
+        if (metricsCheckbox.isSelected()) {
+            metrics = new SearchMetrics(threads);
+            metrics.expose(); // also visible in JConsole / VisualVM
+            metricsTicker.play();
+        }
+        metricsLabel.setText("");
+        threadMetricsLabel.setText("");
+        Solver solver = new BitboardSolver(null, metrics);
+        return new ForkJoinSolverWorker(solver, sink, threads, 0, metrics);
+    }
 
-        int n = cols.length;
+    private void stopMetrics() {
+        metricsTicker.stop();
+        showMetrics(); // final figures
+    }
 
-        if (boardGrid == null) return;
-        GridPane grid = (GridPane) boardGrid;
+    private void showMetrics() {
+        MetricsSnapshot metrics = solverWorker != null ? solverWorker.snapshotMetrics() : null;
+        if (metrics == null) return;
+
+        metricsLabel.setText(String.format(Locale.ROOT,
+                "Nodes: %,d (%s/s)   Tasks: %d (mean %.1f ms, max %.1f ms)   Utilization: %.0f%%",
+                metrics.getNodes(),
+                formatRate(metrics.getNodesPerSecond()),
+                metrics.getTasks(),
+                metrics.getMeanTaskMillis(),
+                metrics.getMaxTaskMillis(),
+                metrics.getUtilization() * 100));
+
+        StringBuilder details = new StringBuilder("Prunes per row:");
+        for (long prunes : metrics.getRowPrunes()) {
+            details.append(' ').append(formatRate(prunes));
+        }
+        details.append(System.lineSeparator()).append("Threads:");
+        for (MetricsSnapshot.ThreadSample thread : metrics.getPerThread()) {
+            details.append(String.format(Locale.ROOT, "  %s %s/s (%d tasks)",
+                    thread.getThreadName(), formatRate(thread.getNodesPerSecond()), thread.getTasks()));
+        }
+        threadMetricsLabel.setText(details.toString());
+    }
 
-        // 1. Clear old queens (efficiently)
-        for(int r=0; r<n; r++) {
-            for(int c=0; c<n; c++) {
-                cellGrid[r][c].getChildren().clear();
-            }
+    private static String formatDuration(long millis) {
+        long seconds = (millis + 500) / 1000;
+        if (seconds >= 3600) return String.format(Locale.ROOT, "%dh %02dm", seconds / 3600, seconds / 60 % 60);
+        if (seconds >= 60) return String.format(Locale.ROOT, "%dm %02ds", seconds / 60, seconds % 60);
+        return seconds + " s";
+    }
+
+    private static String formatRate(double value) {
+        if (value >= 1e9) return String.format(Locale.ROOT, "%.1fG", value / 1e9);
+        if (value >= 1e6) return String.format(Locale.ROOT, "%.1fM", value / 1e6);
+        if (value >= 1e3) return String.format(Locale.ROOT, "%.1fk", value / 1e3);
+        return String.format(Locale.ROOT, "%.0f", value);
+    }
+
+
+    private SolutionFile.Writer openSolutionFile(int n) throws IOException {
+        Path path = Files.createTempFile("nqueens-" + n + "-", ".sol");
+        path.toFile().deleteOnExit();
+        return SolutionFile.create(path, n);
+    }
+
+    private SolutionFile.Reader finishSolutionFile(SolutionFile.Writer writer) {
+        try {
+            writer.close();
+            return SolutionFile.open(writer.getPath());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
         }
-        // place queens
-        for (int r = 0; r < n; r++) {
-            int c = cols[r];
-            if (c >= 0 && c < n) {
-                Label q = new Label("♛");
-                q.setStyle("-fx-font-size: 24px;");
-                cellGrid[r][c].getChildren().add(q);
-            }
+    }
+
+    private void discardSolutionFile(SolutionFile.Writer writer) {
+        try {
+            writer.close();
+        } catch (IOException ex) {
+            ex.printStackTrace(); // the file is deleted either way
+        }
+        try {
+            Files.deleteIfExists(writer.getPath());
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    private TraceRecorder openTrace(int n) throws IOException {
+        Path path = Files.createTempFile("nqueens-" + n + "-", ".trace");
+        path.toFile().deleteOnExit();
+        return SearchTrace.record(path, n);
+    }
+
+    private TraceReplay finishTrace(TraceRecorder recorder) {
+        try {
+            return recorder.finish();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
         }
     }
+
+    private void discardTrace(TraceRecorder recorder) {
+        try {
+            recorder.close();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    private void closeTrace() {
+        replayBtn.setDisable(true);
+        if (trace == null) return;
+        try {
+            trace.close();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+        trace = null;
+    }
+
+    // Replays the recorded search from the start; the solver is not involved
+    private void replayTrace() {
+        if (trace == null) return;
+        if (animator != null) animator.stop();
+
+        int n = trace.boardSize();
+        int delay = (int) speedSlider.getValue();
+        showBoard(n);
+
+        trace.seek(trace.firstEvent());
+        long events = trace.eventCount() - trace.firstEvent();
+        long eventsPerFrame = Math.max(1, events * delay / MAX_REPLAY_MS);
+
+        statusLabel.setText("Replaying...");
+        animator = new BoardAnimator(
+                this::render,
+                new TraceFrames(trace, eventsPerFrame),
+                n,
+                delay,
+                () -> statusLabel.setText("Done (Replay)")
+        );
+        animator.start();
+    }
+
+    private void closeSolutionFile() {
+        if (solutionFile == null) return;
+        try {
+            solutionFile.close();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+        solutionFile = null;
+    }
+
+
+    private void stopSolving() {
+        stopped = true;
+        runs++;
+        if (solverWorker != null) solverWorker.cancel(); // null while the first cache lookup runs
+        statusLabel.setText("Stopped");
+        stopMetrics();
+        if (progressPulse != null) progressPulse.finish();
+        if (animator != null) animator.stop();
+        solveBtn.setDisable(false);
+        stopBtn.setDisable(true);
+    }
+
+
+    private void showBoard(int n) {
+        board = new BoardCanvas(n);
+        boardContainer.getChildren().setAll(board);
+    }
+
+    // Render board from cols array. cols[row] = col index or -1
+    private void render(int[] cols) {
+        if (board == null || cols.length != board.getBoardSize()) return;
+        board.render(cols);
+    }
 }
@@ -0,0 +1,61 @@
+package ui.list;
+
+import javafx.scene.control.ListCell;
+import model.Solution;
+import storage.SolutionSource;
+import ui.board.BoardCanvas;
+
+/**
+ * SolutionCell
+ * ------------
+ * Row of the solution list: label and board preview of one solution index.
+ *
+ * The solution is read from the source only when the cell shows it, and the
+ * preview canvas is kept across reuses of the cell, so scrolling redraws only
+ * the squares that differ from the previous board.
+ */
+public class SolutionCell extends ListCell<Integer> {
+
+    /** Width of the board preview. */
+    private static final int PREVIEW_PX = 48;
+    /** Larger boards get no preview: their squares would be smaller than two pixels. */
+    private static final int PREVIEW_MAX_N = PREVIEW_PX / 2;
+
+    private final SolutionRows rows;
+    private BoardCanvas preview;
+
+    public SolutionCell(SolutionRows rows) {
+        this.rows = rows;
+    }
+
+    @Override
+    protected void updateItem(Integer index, boolean empty) {
+        super.updateItem(index, empty);
+        SolutionSource source = rows.getSource();
+        if (empty || index == null || source == null || index >= source.size()) {
+            setText(null);
+            setGraphic(null);
+            return;
+        }
+
+        Solution solution = source.get(index);
+        setText(label(index, solution));
+
+        int n = solution.getCols().length;
+        if (n > PREVIEW_MAX_N) {
+            setGraphic(null);
+            return;
+        }
+        if (preview == null || preview.getBoardSize() != n) {
+            preview = new BoardCanvas(n, PREVIEW_PX);
+        }
+        preview.render(solution.getCols());
+        setGraphic(preview);
+    }
+
+    private static String label(int index, Solution solution) {
+        return solution.getMultiplicity() > 1
+                ? "Solution #" + (index + 1) + " (x" + solution.getMultiplicity() + ")"
+                : "Solution #" + (index + 1);
+    }
+}
@@ -0,0 +1,95 @@
+package ui.list;
+
+import javafx.collections.ObservableListBase;
+import storage.SolutionSource;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * SolutionRows
+ * ------------
+ * Observable list of solution indices 0..size-1 for a {@link javafx.scene.control.ListView}.
+ *
+ * Responsibilities:
+ * - Derive every row from its index; nothing is stored per row
+ * - Grow with the {@link SolutionSource} while a solve is still adding to it ({@link #sync})
+ * - Switch to another source in a single change event
+ *
+ * Important design notes:
+ * - Boards are decoded by the cells, and only for the rows on screen, so
+ *   memory and FX-thread work do not depend on the number of solutions
+ * - Must be used on the FX thread
+ */
+public class SolutionRows extends ObservableListBase<Integer> {
+
+    private SolutionSource source;
+    private int size;
+
+    public SolutionSource getSource() {
+        return source;
+    }
+
+    /**
+     * Shows another source (or none), replacing all rows.
+     */
+    public void setSource(SolutionSource source) {
+        this.source = source;
+        int newSize = source != null ? source.size() : 0;
+        if (size == 0 && newSize == 0) {
+            return;
+        }
+        beginChange();
+        if (size > 0) {
+            nextRemove(0, indices(size));
+        }
+        size = newSize;
+        if (size > 0) {
+            nextAdd(0, size);
+        }
+        endChange();
+    }
+
+    /**
+     * Appends the rows the source gained since the last call.
+     */
+    public void sync() {
+        int newSize = source != null ? source.size() : 0;
+        if (newSize < size) {
+            setSource(source); // the source was cleared
+        } else if (newSize > size) {
+            beginChange();
+            nextAdd(size, newSize);
+            size = newSize;
+            endChange();
+        }
+    }
+
+    @Override
+    public Integer get(int index) {
+        Objects.checkIndex(index, size);
+        return index;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** The removed rows 0..count-1, without boxing them all up front. */
+    private static List<Integer> indices(int count) {
+        return new AbstractList<>() {
+            @Override
+            public Integer get(int index) {
+                Objects.checkIndex(index, count);
+                return index;
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+}
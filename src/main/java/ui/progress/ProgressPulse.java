@@ -0,0 +1,50 @@
+package ui.progress;
+
+import javafx.animation.AnimationTimer;
+
+import java.util.function.Consumer;
+
+/**
+ * ProgressPulse
+ * -------------
+ * Publishes a {@link SolveProgress} to the UI at most once per rendered frame.
+ *
+ * Solver threads never post to the FX event queue: however fast solutions
+ * arrive, the UI does one update per pulse, and none while neither the count
+ * nor the elapsed tenth of a second changed.
+ */
+public class ProgressPulse extends AnimationTimer {
+
+    private final SolveProgress progress;
+    private final Consumer<SolveProgress.Snapshot> listener;
+    private long published = -1;
+    private long publishedTenths = -1;
+
+    /**
+     * @param progress progress of the running solve
+     * @param listener called on the FX thread with each new snapshot
+     */
+    public ProgressPulse(SolveProgress progress, Consumer<SolveProgress.Snapshot> listener) {
+        this.progress = progress;
+        this.listener = listener;
+    }
+
+    @Override
+    public void handle(long now) {
+        SolveProgress.Snapshot snapshot = progress.snapshot();
+        long tenths = (long) (snapshot.getElapsedSeconds() * 10);
+        if (snapshot.getSolutions() != published || tenths != publishedTenths) {
+            published = snapshot.getSolutions();
+            publishedTenths = tenths;
+            listener.accept(snapshot);
+        }
+    }
+
+    /**
+     * Stops the pulse and publishes the final figures; call on the FX thread.
+     */
+    public void finish() {
+        stop();
+        listener.accept(progress.snapshot());
+    }
+}
@@ -0,0 +1,99 @@
+package ui.progress;
+
+import model.Solution;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SolveProgress
+ * -------------
+ * Progress of one run, written by the solver threads and sampled by the UI.
+ *
+ * Responsibilities:
+ * - Count solutions and remember the latest one without touching the FX thread
+ * - Produce {@link Snapshot}s with the count, the recent rate and the elapsed time
+ *
+ * Important design notes:
+ * - {@link #solutionFound} is a LongAdder increment and a release store,
+ *   so worker threads neither block nor contend on a lock
+ * - Snapshots are taken by a single reader ({@link ProgressPulse}); the rate
+ *   is measured over windows of about {@value #RATE_WINDOW_MS} ms so it does
+ *   not jitter from frame to frame
+ */
+public class SolveProgress {
+
+    private static final long RATE_WINDOW_MS = 500;
+    private static final long RATE_WINDOW_NANOS = RATE_WINDOW_MS * 1_000_000;
+
+    private final LongAdder solutions = new LongAdder();
+    private final AtomicReference<Solution> latest = new AtomicReference<>();
+    private final long startNanos = System.nanoTime();
+
+    // Reader state, only used by the thread taking snapshots
+    private long windowStartNanos = startNanos;
+    private long windowStartCount;
+    private double rate;
+
+    /**
+     * Records a solution; safe to call from any thread.
+     */
+    public void solutionFound(Solution solution) {
+        solutions.increment();
+        latest.lazySet(solution);
+    }
+
+    public long getSolutions() {
+        return solutions.sum();
+    }
+
+    /**
+     * Samples the progress; call from one thread only.
+     */
+    public Snapshot snapshot() {
+        long now = System.nanoTime();
+        long count = solutions.sum();
+        long window = now - windowStartNanos;
+        if (window >= RATE_WINDOW_NANOS) {
+            rate = (count - windowStartCount) * 1e9 / window;
+            windowStartNanos = now;
+            windowStartCount = count;
+        }
+        return new Snapshot(count, rate, latest.get(), now - startNanos);
+    }
+
+    /**
+     * Immutable sample of {@link SolveProgress}.
+     */
+    public static final class Snapshot {
+        private final long solutions;
+        private final double solutionsPerSecond;
+        private final Solution latest;
+        private final long elapsedNanos;
+
+        Snapshot(long solutions, double solutionsPerSecond, Solution latest, long elapsedNanos) {
+            this.solutions = solutions;
+            this.solutionsPerSecond = solutionsPerSecond;
+            this.latest = latest;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getSolutions() {
+            return solutions;
+        }
+
+        /** Rate over the last completed window (0 during the first one). */
+        public double getSolutionsPerSecond() {
+            return solutionsPerSecond;
+        }
+
+        /** Most recent solution, or null if none was found yet. */
+        public Solution getLatest() {
+            return latest;
+        }
+
+        public double getElapsedSeconds() {
+            return elapsedNanos / 1e9;
+        }
+    }
+}
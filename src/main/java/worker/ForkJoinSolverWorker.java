@@ -0,0 +1,355 @@
+package worker;
+
+import metrics.MetricsSnapshot;
+import metrics.SearchMetrics;
+import metrics.WorkProgress;
+import model.Solution;
+import model.SolveMode;
+import storage.Checkpoint;
+import storage.SolutionSink;
+import solver.Solver;
+import task.CountTask;
+import task.Prefix;
+import task.PrefixSplitTask;
+import task.SolverTask;
+import task.SubtreeEstimator;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * ForkJoinSolverWorker
+ * --------------------
+ * Work-stealing execution engine built on a ForkJoinPool.
+ *
+ * Responsibilities:
+ * - Recursively split prefixes down to a configurable (or adaptive) depth
+ * - Let idle threads steal sub-prefixes to balance uneven subtrees
+ * - Coordinate early termination and cancellation
+ * - Collect solutions in a SolutionSink (or only count them)
+ * - Notify UI through the same callbacks as ParallelSolverWorker
+ * - Time every leaf when SearchMetrics are attached
+ * - Skip and record finished leaves when a Checkpoint is attached
+ * - Report progress in estimated nodes: the roots are probed up front
+ *   and every finished leaf adds its own estimate ({@link SubtreeEstimator})
+ *
+ * No extra waiter thread is used: the root task runs the completion
+ * callbacks itself once all forked work is joined.
+ */
+public class ForkJoinSolverWorker implements SolverWorker {
+
+    /** Target number of leaf tasks per pool thread when choosing the split depth. */
+    private static final int TASKS_PER_THREAD = 32;
+
+    private final Solver solver;
+    private final SolutionSink sink;
+    private final int parallelism;
+    private final int splitDepth;
+    private final SearchMetrics metrics;
+    private final Checkpoint checkpoint;
+
+    private ForkJoinPool pool;
+    private final AtomicBoolean solutionFound = new AtomicBoolean(false);
+    private final AtomicBoolean stopped = new AtomicBoolean(false);
+    private final Set<Thread> runningLeaves = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled = false;
+    private volatile WorkProgress progress;
+
+    public ForkJoinSolverWorker(Solver solver, SolutionSink sink) {
+        this(solver, sink, Runtime.getRuntime().availableProcessors(), 0);
+    }
+
+    /**
+     * @param solver solver implementation (pure algorithm)
+     * @param sink destination for found solutions (SolutionStore or SolutionFile)
+     * @param parallelism number of pool threads
+     * @param splitDepth number of fixed rows per leaf task, or 0 to choose it from n and parallelism
+     */
+    public ForkJoinSolverWorker(Solver solver, SolutionSink sink, int parallelism, int splitDepth) {
+        this(solver, sink, parallelism, splitDepth, null);
+    }
+
+    /**
+     * @param metrics receives leaf task times (can be null to switch instrumentation off)
+     */
+    public ForkJoinSolverWorker(
+            Solver solver,
+            SolutionSink sink,
+            int parallelism,
+            int splitDepth,
+            SearchMetrics metrics
+    ) {
+        this(solver, sink, parallelism, splitDepth, metrics, null);
+    }
+
+    /**
+     * @param checkpoint finished leaves to skip and to record (can be null);
+     *                   its split depth then replaces splitDepth except in FIRST mode
+     */
+    public ForkJoinSolverWorker(
+            Solver solver,
+            SolutionSink sink,
+            int parallelism,
+            int splitDepth,
+            SearchMetrics metrics,
+            Checkpoint checkpoint
+    ) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.solver = solver;
+        this.sink = sink;
+        this.parallelism = parallelism;
+        this.splitDepth = splitDepth;
+        this.metrics = metrics;
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * Starts parallel solving in the given mode.
+     *
+     * @param mode FIRST, ALL or UNIQUE (use {@link #count} for COUNT)
+     */
+    @Override
+    public void start(
+            int n,
+            SolveMode mode,
+            Consumer<int[]> onStep,
+            Consumer<Solution> onSolution,
+            Runnable onFinished,
+            Consumer<Exception> onError
+    ) {
+        progress = null;
+        boolean resumable = checkpoint != null && mode != SolveMode.FIRST;
+        List<Prefix> prefixes = mode == SolveMode.FIRST
+                ? Prefix.firstRow(n)
+                : Prefix.symmetricFirstRow(n);
+
+        Consumer<Prefix> leaf = prefix -> {
+            if (resumable && checkpoint.isCompleted(prefix.getCols())) {
+                return; // its solutions were kept from the previous run
+            }
+            long[] emitted = new long[2]; // records and solutions of this leaf
+            boolean finished;
+            // Each leaf buffers its own solutions and publishes them in batches
+            try (SolutionSink.Appender appender = sink.appender()) {
+                finished = runLeaf(new SolverTask(
+                        solver,
+                        n,
+                        prefix,
+                        mode,
+                        onStep,
+                        solution -> {
+                            appender.add(solution);
+                            emitted[0]++;
+                            emitted[1] += solution.getMultiplicity();
+                            onSolution.accept(solution);
+                        },
+                        solutionFound,
+                        this::stopAll
+                ));
+            }
+            // Recorded after the appender has handed its last batch to the sink
+            if (resumable && finished) {
+                checkpoint.complete(prefix.getCols(), prefix.getWeight(), emitted[0], emitted[1]);
+            }
+        };
+
+        if (mode != SolveMode.FIRST) {
+            leaf = estimated(n, leaf);
+        }
+        // onFinished also runs after cancel(), like ParallelSolverWorker
+        run(n, prefixes, resumable ? checkpoint.getSplitDepth() : splitDepthFor(n), leaf, onFinished, onError);
+    }
+
+    /**
+     * Starts parallel counting.
+     * No Solution objects are created and nothing is added to the sink.
+     */
+    @Override
+    public void count(
+            int n,
+            LongConsumer onFinished,
+            Consumer<Exception> onError
+    ) {
+        progress = null;
+        LongAdder total = new LongAdder();
+        Consumer<Prefix> leaf = prefix -> {
+            if (checkpoint == null) {
+                runLeaf(new CountTask(solver, n, prefix, total));
+                return;
+            }
+            long done = checkpoint.completedTotal(prefix.getCols());
+            if (done >= 0) {
+                total.add(done);
+                return;
+            }
+            // The leaf's own adder tells its count apart from the other leaves'
+            LongAdder branch = new LongAdder();
+            if (runLeaf(new CountTask(solver, n, prefix, branch))) {
+                checkpoint.complete(prefix.getCols(), prefix.getWeight(), branch.sum(), branch.sum());
+            }
+            total.add(branch.sum());
+        };
+
+        int depth = checkpoint != null ? checkpoint.getSplitDepth() : splitDepthFor(n);
+        run(n, Prefix.symmetricFirstRow(n), depth, estimated(n, leaf), () -> {
+            if (!cancelled) onFinished.accept(total.sum());
+        }, onError);
+    }
+
+    /**
+     * Cancel execution manually.
+     */
+    @Override
+    public void cancel() {
+        cancelled = true;
+        stopAll();
+    }
+
+    /**
+     * Samples the attached metrics.
+     *
+     * @return the current figures, or null if instrumentation is off
+     */
+    @Override
+    public MetricsSnapshot snapshotMetrics() {
+        return metrics != null ? metrics.snapshot() : null;
+    }
+
+    /**
+     * Estimated progress of the current ALL, UNIQUE or COUNT run.
+     *
+     * @return the progress, or null for small boards and in FIRST mode
+     */
+    @Override
+    public WorkProgress progress() {
+        return progress;
+    }
+
+    /**
+     * Split depth used for a board of size n: the configured depth, or the
+     * smallest depth that yields enough leaf tasks to keep every thread busy.
+     */
+    public int splitDepthFor(int n) {
+        if (splitDepth > 0) {
+            return Math.min(splitDepth, n);
+        }
+
+        int depth = 1;
+        double leaves = n;
+        while (depth < n - 1 && leaves < (double) parallelism * TASKS_PER_THREAD) {
+            // Rough branching factor: each placed queen removes about three squares of the next row
+            leaves *= Math.max(2, n - 3 * depth);
+            depth++;
+        }
+        return depth;
+    }
+
+    private void run(
+            int n,
+            List<Prefix> prefixes,
+            int depth,
+            Consumer<Prefix> leaf,
+            Runnable onFinished,
+            Consumer<Exception> onError
+    ) {
+        try {
+            pool = new ForkJoinPool(parallelism);
+            if (metrics != null) metrics.start();
+            List<PrefixSplitTask> roots = PrefixSplitTask.of(n, prefixes, depth, leaf, stopped);
+
+            pool.execute(() -> {
+                try {
+                    ForkJoinTask.invokeAll(roots);
+                    if (metrics != null) metrics.finish();
+                    WorkProgress current = progress;
+                    if (current != null && !stopped.get()) current.finish();
+                    onFinished.run();
+                } catch (Exception ex) {
+                    onError.accept(unwrap(ex));
+                } finally {
+                    pool.shutdown();
+                }
+            });
+
+        } catch (Exception ex) {
+            onError.accept(ex);
+        }
+    }
+
+    /**
+     * Probes the whole search once and wraps a leaf action so that every
+     * finished leaf adds its own estimate to the progress. Small boards are
+     * left unestimated.
+     */
+    private Consumer<Prefix> estimated(int n, Consumer<Prefix> leaf) {
+        if (n < SubtreeEstimator.MIN_N) {
+            return leaf;
+        }
+        SubtreeEstimator estimator = new SubtreeEstimator(n, SubtreeEstimator.DEFAULT_OVERHEAD / parallelism);
+        double total = 0;
+        for (double estimate : estimator.estimate(Prefix.symmetricFirstRow(n))) {
+            total += estimate;
+        }
+        WorkProgress current = new WorkProgress(total);
+        progress = current;
+        return prefix -> {
+            leaf.accept(prefix);
+            if (!stopped.get()) {
+                current.completed(estimator.estimate(prefix));
+            }
+        };
+    }
+
+    /**
+     * Runs one leaf task on the current pool thread.
+     * The thread is registered while running so stopAll can interrupt it.
+     *
+     * @return true if the task ran to the end, false if it was skipped or stopped
+     */
+    private boolean runLeaf(Callable<?> task) {
+        Thread current = Thread.currentThread();
+        runningLeaves.add(current);
+        long start = System.nanoTime();
+        try {
+            if (stopped.get()) {
+                return false;
+            }
+            task.call();
+            return !stopped.get() && !current.isInterrupted();
+        } catch (Exception ex) {
+            throw new CompletionException(ex);
+        } finally {
+            if (metrics != null) metrics.recordTask(System.nanoTime() - start);
+            runningLeaves.remove(current);
+            Thread.interrupted(); // do not leak a stop request into the next leaf
+        }
+    }
+
+    /**
+     * Strips the CompletionException wrappers added around leaf failures.
+     */
+    private static Exception unwrap(Exception ex) {
+        Throwable cause = ex;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof Exception unwrapped ? unwrapped : ex;
+    }
+
+    /**
+     * Stop splitting and interrupt all running leaves.
+     */
+    private void stopAll() {
+        stopped.set(true);
+        for (Thread thread : runningLeaves) {
+            thread.interrupt();
+        }
+    }
+}
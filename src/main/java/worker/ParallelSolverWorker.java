@@ -1,14 +1,25 @@
 package worker;
 
+import metrics.MetricsSnapshot;
+import metrics.SearchMetrics;
+import metrics.WorkProgress;
 import model.Solution;
-import storage.SolutionStore;
+import model.SolveMode;
+import storage.Checkpoint;
+import storage.SolutionSink;
 import solver.Solver;
+import task.CountTask;
+import task.Prefix;
 import task.SolverTask;
+import task.SubtreeEstimator;
+import task.WorkUnit;
 
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 
 /**
  * ParallelSolverWorker
@@ -18,94 +29,461 @@ import java.util.function.Consumer;
  * Responsibilities:
  * - Split work across CPU cores
  * - Coordinate early termination
- * - Collect solutions in SolutionStore
+ * - Collect solutions in a SolutionSink (or only count them)
  * - Notify UI through callbacks
+ * - Time every task when SearchMetrics are attached
+ * - Skip and record finished prefixes when a Checkpoint is attached
+ * - Partition the search into units of about equal estimated size
+ *   ({@link SubtreeEstimator}, {@link WorkUnit}) and report progress in them
+ *
+ * Work is planned on the waiter thread, so probing never blocks the caller,
+ * unless the worker runs on a shared executor: then its units are submitted
+ * before start() returns, so runs started one after another are queued in
+ * that order ({@link RangeSweep}). The worker never shuts a shared executor
+ * down; it stops its own tasks only. With a checkpoint the prefixes of its
+ * split depth are used unchanged, one per unit, because finished prefixes are
+ * looked up by their columns.
  */
-public class ParallelSolverWorker {
+public class ParallelSolverWorker implements SolverWorker {
 
     private final Solver solver;
-    private final SolutionStore solutionStore;
+    private final SolutionSink sink;
+    private final int threads;
+    private final SearchMetrics metrics;
+    private final Checkpoint checkpoint;
+    private final double estimateOverhead;
+    private final ExecutorService sharedExecutor;
 
     private ExecutorService executor;
+    private volatile WorkProgress progress;
     private final AtomicBoolean solutionFound = new AtomicBoolean(false);
+    private final Set<Thread> runningTasks = new HashSet<>(); // guarded by itself
+    private volatile boolean stopping = false;
     private volatile boolean cancelled = false;
 
-    public ParallelSolverWorker(Solver solver, SolutionStore store) {
+    public ParallelSolverWorker(Solver solver, SolutionSink sink) {
+        this(solver, sink, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param solver solver implementation (pure algorithm)
+     * @param sink destination for found solutions (SolutionStore or SolutionFile)
+     * @param threads number of pool threads
+     */
+    public ParallelSolverWorker(Solver solver, SolutionSink sink, int threads) {
+        this(solver, sink, threads, null);
+    }
+
+    /**
+     * @param solver solver implementation (pure algorithm), usually sharing the same metrics
+     * @param sink destination for found solutions (SolutionStore or SolutionFile)
+     * @param threads number of pool threads
+     * @param metrics receives task times (can be null to switch instrumentation off)
+     */
+    public ParallelSolverWorker(Solver solver, SolutionSink sink, int threads, SearchMetrics metrics) {
+        this(solver, sink, threads, metrics, null);
+    }
+
+    /**
+     * @param checkpoint finished prefixes to skip and to record (can be null);
+     *                   work is then split into prefixes of its split depth
+     */
+    public ParallelSolverWorker(
+            Solver solver,
+            SolutionSink sink,
+            int threads,
+            SearchMetrics metrics,
+            Checkpoint checkpoint
+    ) {
+        this(solver, sink, threads, metrics, checkpoint, SubtreeEstimator.DEFAULT_OVERHEAD);
+    }
+
+    /**
+     * @param executor shared pool to run on; it is used by other runs too and is never shut down
+     * @param threads number of threads of that pool, used to size the work units
+     */
+    public ParallelSolverWorker(Solver solver, SolutionSink sink, ExecutorService executor, int threads) {
+        this(solver, sink, threads, null, null, SubtreeEstimator.DEFAULT_OVERHEAD, executor);
+    }
+
+    /**
+     * @param estimateOverhead share of the run's wall time that subtree probing may
+     *                         take; 0 splits by first row only, with progress per prefix
+     */
+    public ParallelSolverWorker(
+            Solver solver,
+            SolutionSink sink,
+            int threads,
+            SearchMetrics metrics,
+            Checkpoint checkpoint,
+            double estimateOverhead
+    ) {
+        this(solver, sink, threads, metrics, checkpoint, estimateOverhead, null);
+    }
+
+    /**
+     * @param executor shared pool to run on, or null to start a pool of the given size per run
+     */
+    public ParallelSolverWorker(
+            Solver solver,
+            SolutionSink sink,
+            int threads,
+            SearchMetrics metrics,
+            Checkpoint checkpoint,
+            double estimateOverhead,
+            ExecutorService executor
+    ) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        if (estimateOverhead < 0) {
+            throw new IllegalArgumentException("Estimate overhead must not be negative: " + estimateOverhead);
+        }
         this.solver = solver;
-        this.solutionStore = store;
+        this.sink = sink;
+        this.threads = threads;
+        this.metrics = metrics;
+        this.checkpoint = checkpoint;
+        this.estimateOverhead = estimateOverhead;
+        this.sharedExecutor = executor;
     }
 
     /**
-     * Starts parallel solving.
+     * Starts parallel solving in the given mode.
+     * ALL and UNIQUE search only the left half of the board and rebuild the
+     * rest from symmetry; UNIQUE stores one solution per symmetry class.
+     *
+     * @param mode FIRST, ALL or UNIQUE (use {@link #count} for COUNT)
      */
+    @Override
     public void start(
             int n,
-            boolean findAll,
+            SolveMode mode,
             Consumer<int[]> onStep,
             Consumer<Solution> onSolution,
             Runnable onFinished,
             Consumer<Exception> onError
     ) {
-        int cores = Runtime.getRuntime().availableProcessors();
-        executor = Executors.newFixedThreadPool(cores);
+        executor = sharedExecutor != null ? sharedExecutor : Executors.newFixedThreadPool(threads);
+        if (metrics != null) metrics.start();
+        progress = null;
 
-        List<Future<List<Solution>>> futures = new ArrayList<>();
+        boolean resumable = checkpoint != null && mode != SolveMode.FIRST;
 
-        // Store solution and forward to UI
-        Consumer<Solution> wrappedOnSolution = solution -> {
-            solutionStore.add(solution);
-            onSolution.accept(solution);
-        };
+        launch(() -> {
+            List<WorkUnit> units = mode == SolveMode.FIRST
+                    ? WorkUnit.each(Prefix.firstRow(n))
+                    : units(n);
+            WorkProgress current = new WorkProgress(WorkUnit.totalNodes(units));
+            progress = current;
 
-        try {
-            for (int col = 0; col < n; col++) {
-                SolverTask task = new SolverTask(
-                        solver,
-                        n,
-                        col,
-                        findAll,
-                        onStep,
-                        wrappedOnSolution,
-                        solutionFound,
-                        this::stopAll
-                );
-                futures.add(executor.submit(task));
+            List<Future<?>> futures = new ArrayList<>();
+            for (WorkUnit unit : units) {
+                // Each task runs on one thread, so it gets its own appender
+                SolutionSink.Appender appender = sink.appender();
+                Future<?> future = submit(() -> {
+                    current.start();
+                    try (appender) {
+                        for (Prefix prefix : unit.getPrefixes()) {
+                            if (Thread.currentThread().isInterrupted()) break;
+                            if (resumable && checkpoint.isCompleted(prefix.getCols())) {
+                                continue; // its solutions were kept from the previous run
+                            }
+                            long[] emitted = new long[2]; // records and solutions of this prefix
+                            new SolverTask(
+                                    solver,
+                                    n,
+                                    prefix,
+                                    mode,
+                                    onStep,
+                                    solution -> {
+                                        appender.add(solution);
+                                        emitted[0]++;
+                                        emitted[1] += solution.getMultiplicity();
+                                        onSolution.accept(solution);
+                                    },
+                                    solutionFound,
+                                    this::stopAll
+                            ).call();
+                            if (resumable) {
+                                // Recorded after the appender has handed the prefix's last batch to the sink
+                                appender.flush();
+                                completed(prefix, emitted[0], emitted[1]);
+                            }
+                        }
+                    }
+                    finished(current, unit);
+                    return null;
+                });
+                if (future == null) {
+                    break; // an early task already found the solution and stopped the run
+                }
+                futures.add(future);
+            }
+            if (executor != sharedExecutor) executor.shutdown();
+            return futures;
+        }, futures -> {
+            for (Future<?> future : futures) {
+                if (cancelled) break;
+                try {
+                    future.get();
+                } catch (CancellationException skipped) {
+                    // Never started: another task already found the solution
+                }
+            }
+            if (metrics != null) metrics.finish();
+            WorkProgress current = progress;
+            if (!cancelled) current.finish();
+            onFinished.run();
+        }, onError);
+    }
+
+    /**
+     * Starts parallel counting.
+     * No Solution objects are created and nothing is added to the SolutionStore,
+     * so memory stays bounded regardless of the number of solutions.
+     * Only the left half of the board is searched; mirrored branches are weighted.
+     *
+     * @param n board size
+     * @param onFinished receives the total number of solutions
+     * @param onError error callback
+     */
+    @Override
+    public void count(
+            int n,
+            LongConsumer onFinished,
+            Consumer<Exception> onError
+    ) {
+        executor = sharedExecutor != null ? sharedExecutor : Executors.newFixedThreadPool(threads);
+        if (metrics != null) metrics.start();
+        progress = null;
+
+        LongAdder total = new LongAdder();
+
+        launch(() -> {
+            List<WorkUnit> units = units(n);
+            WorkProgress current = new WorkProgress(WorkUnit.totalNodes(units));
+            progress = current;
+
+            List<Future<?>> futures = new ArrayList<>();
+            for (WorkUnit unit : units) {
+                Future<?> future = submit(() -> {
+                    current.start();
+                    for (Prefix prefix : unit.getPrefixes()) {
+                        if (Thread.currentThread().isInterrupted()) break;
+                        long done = checkpoint != null ? checkpoint.completedTotal(prefix.getCols()) : -1;
+                        if (done >= 0) {
+                            total.add(done);
+                            continue;
+                        }
+                        long branchCount = new CountTask(solver, n, prefix, total).call();
+                        if (checkpoint != null) completed(prefix, branchCount, branchCount);
+                    }
+                    finished(current, unit);
+                    return null;
+                });
+                if (future == null) {
+                    break; // cancelled while planning
+                }
+                futures.add(future);
+            }
+            if (executor != sharedExecutor) executor.shutdown();
+            return futures;
+        }, futures -> {
+            for (Future<?> future : futures) {
+                if (cancelled) return;
+                try {
+                    future.get();
+                } catch (CancellationException skipped) {
+                    return; // cancelled before it started
+                }
             }
+            if (metrics != null) metrics.finish();
+            progress.finish();
+            if (!cancelled) onFinished.accept(total.sum());
+        }, ex -> {
+            if (!cancelled) onError.accept(ex);
+        });
+    }
+
+    /**
+     * Cancel execution manually.
+     */
+    @Override
+    public void cancel() {
+        cancelled = true;
+        stopAll();
+    }
+
+    /**
+     * Samples the attached metrics.
+     *
+     * @return the current figures, or null if instrumentation is off
+     */
+    @Override
+    public MetricsSnapshot snapshotMetrics() {
+        return metrics != null ? metrics.snapshot() : null;
+    }
 
-            executor.shutdown();
+    /**
+     * Estimated progress of the current run; in FIRST mode it only counts
+     * first-row prefixes tried.
+     *
+     * @return the progress, or null before planning has finished
+     */
+    @Override
+    public WorkProgress progress() {
+        return progress;
+    }
+
+    /**
+     * Work units of the symmetric split. With a checkpoint, its prefixes are
+     * extended to the checkpoint's split depth so that finished ones can be
+     * skipped on resume; otherwise they are partitioned by estimated size.
+     */
+    private List<WorkUnit> units(int n) {
+        List<Prefix> prefixes = Prefix.symmetricFirstRow(n);
+        if (checkpoint != null) {
+            return WorkUnit.each(Prefix.expand(n, prefixes, checkpoint.getSplitDepth()));
+        }
+        if (estimateOverhead == 0 || n < SubtreeEstimator.MIN_N) {
+            return WorkUnit.each(prefixes);
+        }
+        // Probing runs on one thread while the pool waits, so its budget is shared out per thread
+        SubtreeEstimator estimator = new SubtreeEstimator(n, estimateOverhead / threads);
+        return WorkUnit.partition(n, prefixes, estimator, threads * WorkUnit.UNITS_PER_THREAD);
+    }
 
-            // Wait for all tasks in background thread
+    /**
+     * Plans and submits the run, then waits for it in a background thread.
+     * On a shared executor the units are submitted on the calling thread, so
+     * runs started one after another keep their order in the pool's queue.
+     */
+    private void launch(Callable<List<Future<?>>> submitAll, Waiter waiter, Consumer<Exception> onError) {
+        if (sharedExecutor == null) {
             new Thread(() -> {
                 try {
-                    for (Future<List<Solution>> future : futures) {
-                        if (cancelled) break;
-                        future.get();
-                    }
-                    onFinished.run();
+                    waiter.await(submitAll.call());
                 } catch (Exception ex) {
                     onError.accept(ex);
                 }
             }).start();
+            return;
+        }
 
+        List<Future<?>> futures;
+        try {
+            futures = submitAll.call();
         } catch (Exception ex) {
             onError.accept(ex);
+            return;
         }
+        new Thread(() -> {
+            try {
+                waiter.await(futures);
+            } catch (Exception ex) {
+                onError.accept(ex);
+            }
+        }).start();
     }
 
     /**
-     * Cancel execution manually.
+     * Submits one task of the current run.
+     *
+     * @return its future, or null once the run is stopped
      */
-    public void cancel() {
-        cancelled = true;
-        stopAll();
+    private Future<?> submit(Callable<?> task) {
+        if (stopping) {
+            return null;
+        }
+        try {
+            return executor.submit(timed(guarded(task)));
+        } catch (RejectedExecutionException stopped) {
+            return null; // our own pool was shut down by stopAll
+        }
+    }
+
+    /**
+     * Skips a task once the run is stopped; otherwise registers its thread
+     * while it runs, so stopAll interrupts this run's tasks only.
+     */
+    private <T> Callable<T> guarded(Callable<T> task) {
+        return () -> {
+            Thread current = Thread.currentThread();
+            synchronized (runningTasks) {
+                if (stopping) {
+                    return null;
+                }
+                runningTasks.add(current);
+            }
+            try {
+                return task.call();
+            } finally {
+                synchronized (runningTasks) {
+                    runningTasks.remove(current);
+                    Thread.interrupted(); // a stop request must not reach the next task on a shared pool
+                }
+            }
+        };
+    }
+
+    /**
+     * Counts a unit as done unless its task was stopped before the end.
+     */
+    private void finished(WorkProgress current, WorkUnit unit) {
+        if (current != null && !cancelled && !Thread.currentThread().isInterrupted()) {
+            current.completed(unit.getEstimatedNodes());
+        }
+    }
+
+    /**
+     * Records a prefix in the checkpoint unless its task was stopped before the end.
+     */
+    private void completed(Prefix prefix, long solutions, long total) {
+        if (!cancelled && !Thread.currentThread().isInterrupted()) {
+            checkpoint.complete(prefix.getCols(), prefix.getWeight(), solutions, total);
+        }
     }
 
     /**
-     * Interrupt all running tasks.
+     * Wraps a task so its wall time is recorded (unchanged if instrumentation is off).
+     */
+    private <T> Callable<T> timed(Callable<T> task) {
+        if (metrics == null) {
+            return task;
+        }
+        return () -> {
+            long start = System.nanoTime();
+            try {
+                return task.call();
+            } finally {
+                metrics.recordTask(System.nanoTime() - start);
+            }
+        };
+    }
+
+    /**
+     * Interrupt all running tasks and skip the queued ones.
      */
     private void stopAll() {
-        if (executor != null) {
-            executor.shutdownNow();
+        synchronized (runningTasks) {
+            stopping = true;
+            for (Thread thread : runningTasks) {
+                thread.interrupt();
+            }
         }
+        if (executor != null && executor != sharedExecutor) {
+            // Queued tasks are dropped by shutdownNow; cancel them so waiters do not block
+            for (Runnable pending : executor.shutdownNow()) {
+                if (pending instanceof Future<?> future) {
+                    future.cancel(false);
+                }
+            }
+        }
+    }
+
+    /** Waits for the submitted tasks of a run and reports its end. */
+    private interface Waiter {
+        void await(List<Future<?>> futures) throws Exception;
     }
 }
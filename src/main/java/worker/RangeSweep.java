@@ -0,0 +1,266 @@
+package worker;
+
+import metrics.WorkProgress;
+import model.Solution;
+import model.SolveMode;
+import solver.BitboardSolver;
+import storage.SolutionSink;
+import task.SubtreeEstimator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * RangeSweep
+ * ----------
+ * Solves a range of board sizes on one shared executor.
+ *
+ * Responsibilities:
+ * - Start one {@link ParallelSolverWorker} per size, smallest first, all
+ *   submitting their work units to the same pool
+ * - Complete a future per size with its counts, nodes and timing as soon as
+ *   that size is done, so results stream in while larger sizes still run
+ * - Collect the results into a table ordered by n ({@link #run})
+ *
+ * Important design notes:
+ * - The units of a size are queued behind those of the smaller sizes, so
+ *   small sizes finish first, and the tail of one size is overlapped by the
+ *   next one instead of leaving cores idle
+ * - A size's time is measured from its first unit starting to its last unit
+ *   ending, so time spent queued behind smaller sizes is not counted
+ * - The executor belongs to the caller and is not shut down
+ * - Boards up to {@link BitboardSolver#MAX_N}
+ */
+public class RangeSweep {
+
+    /** Sink for sweeps whose boards are not kept. */
+    private static final SolutionSink DISCARD = () -> new SolutionSink.Appender() {
+        @Override
+        public void add(Solution solution) {
+        }
+
+        @Override
+        public void flush() {
+        }
+    };
+
+    private final ExecutorService executor;
+    private final int threads;
+    private final double estimateOverhead;
+    private final List<SolverWorker> workers = new ArrayList<>();
+
+    /**
+     * @param executor shared pool for all sizes
+     * @param threads number of threads of that pool
+     */
+    public RangeSweep(ExecutorService executor, int threads) {
+        this(executor, threads, SubtreeEstimator.DEFAULT_OVERHEAD);
+    }
+
+    /**
+     * @param estimateOverhead share of each size's run spent estimating subtree sizes
+     */
+    public RangeSweep(ExecutorService executor, int threads, double estimateOverhead) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        this.executor = executor;
+        this.threads = threads;
+        this.estimateOverhead = estimateOverhead;
+    }
+
+    /**
+     * Solves n = from..to and waits for all of them; boards are not kept.
+     *
+     * @return one result per size, ordered by n
+     * @throws ExecutionException if any size failed
+     */
+    public List<Result> run(int from, int to, SolveMode mode) throws InterruptedException, ExecutionException {
+        if (from > to) {
+            throw new IllegalArgumentException("Empty size range: " + from + "-" + to);
+        }
+        List<Integer> sizes = new ArrayList<>();
+        for (int n = from; n <= to; n++) {
+            sizes.add(n);
+        }
+
+        List<Result> results = new ArrayList<>(sizes.size());
+        for (Run run : start(sizes, mode, n -> DISCARD)) {
+            results.add(run.getResult().get());
+        }
+        return results;
+    }
+
+    /**
+     * Queues every size on the executor and returns right away.
+     *
+     * @param sizes board sizes in increasing order
+     * @param mode solve mode for all sizes
+     * @param sinks destination of the boards of each size (ignored in COUNT mode)
+     * @return one run per size, in the order given
+     */
+    public List<Run> start(List<Integer> sizes, SolveMode mode, IntFunction<SolutionSink> sinks) {
+        int previous = 0;
+        for (int n : sizes) {
+            if (n < 1 || n > BitboardSolver.MAX_N) {
+                throw new IllegalArgumentException("Board size must be between 1 and " + BitboardSolver.MAX_N + ": " + n);
+            }
+            if (n <= previous) {
+                throw new IllegalArgumentException("Board sizes must be increasing: " + previous + ", " + n);
+            }
+            previous = n;
+        }
+
+        List<Run> runs = new ArrayList<>(sizes.size());
+        for (int n : sizes) {
+            runs.add(start(n, mode, mode == SolveMode.COUNT ? DISCARD : sinks.apply(n)));
+        }
+        return runs;
+    }
+
+    /**
+     * Cancels every size that has not finished yet; their futures never complete.
+     */
+    public void cancel() {
+        List<SolverWorker> started;
+        synchronized (workers) {
+            started = new ArrayList<>(workers);
+        }
+        for (SolverWorker worker : started) {
+            worker.cancel();
+        }
+    }
+
+    /**
+     * Starts one size; its units are queued before this returns.
+     */
+    private Run start(int n, SolveMode mode, SolutionSink sink) {
+        LongAdder nodes = new LongAdder();
+        ParallelSolverWorker worker = new ParallelSolverWorker(new BitboardSolver(nodes), sink, threads, null, null,
+                estimateOverhead, executor);
+        synchronized (workers) {
+            workers.add(worker);
+        }
+        CompletableFuture<Result> result = new CompletableFuture<>();
+
+        if (mode == SolveMode.COUNT) {
+            worker.count(
+                    n,
+                    count -> result.complete(new Result(n, mode, count, count, elapsed(worker), nodes.sum())),
+                    result::completeExceptionally
+            );
+        } else {
+            LongAdder solutions = new LongAdder();
+            LongAdder total = new LongAdder();
+            worker.start(
+                    n,
+                    mode,
+                    null,
+                    solution -> {
+                        solutions.increment();
+                        total.add(solution.getMultiplicity());
+                    },
+                    () -> result.complete(new Result(n, mode, solutions.sum(), total.sum(), elapsed(worker),
+                            nodes.sum())),
+                    result::completeExceptionally
+            );
+        }
+        return new Run(n, worker, result);
+    }
+
+    private static long elapsed(SolverWorker worker) {
+        WorkProgress progress = worker.progress();
+        return progress != null ? progress.getElapsedNanos() : 0;
+    }
+
+    /**
+     * One size of a sweep while it runs.
+     */
+    public static final class Run {
+
+        private final int n;
+        private final SolverWorker worker;
+        private final CompletableFuture<Result> result;
+
+        private Run(int n, SolverWorker worker, CompletableFuture<Result> result) {
+            this.n = n;
+            this.worker = worker;
+            this.result = result;
+        }
+
+        public int getN() {
+            return n;
+        }
+
+        /** Completes when the size is done, or exceptionally when it failed. */
+        public CompletableFuture<Result> getResult() {
+            return result;
+        }
+
+        /**
+         * @return the estimated progress of this size, or null before it is planned
+         */
+        public WorkProgress progress() {
+            return worker.progress();
+        }
+    }
+
+    /**
+     * Outcome of one size.
+     */
+    public static final class Result {
+
+        private final int n;
+        private final SolveMode mode;
+        private final long solutions;
+        private final long total;
+        private final long elapsedNanos;
+        private final long nodes;
+
+        /**
+         * @param n board size
+         * @param mode solve mode of the run
+         * @param solutions number of boards reported (one per symmetry class in UNIQUE mode)
+         * @param total number of solutions including symmetric copies
+         * @param elapsedNanos time from the first unit starting to the last one ending
+         * @param nodes queens placed by the search
+         */
+        public Result(int n, SolveMode mode, long solutions, long total, long elapsedNanos, long nodes) {
+            this.n = n;
+            this.mode = mode;
+            this.solutions = solutions;
+            this.total = total;
+            this.elapsedNanos = elapsedNanos;
+            this.nodes = nodes;
+        }
+
+        public int getN() {
+            return n;
+        }
+
+        public SolveMode getMode() {
+            return mode;
+        }
+
+        public long getSolutions() {
+            return solutions;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package worker;
+
+import metrics.MetricsSnapshot;
+import metrics.WorkProgress;
+import model.Solution;
+import model.SolveMode;
+
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * SolverWorker
+ * ------------
+ * Execution engine that runs a Solver over many branches and reports
+ * back through callbacks. Callbacks are invoked from worker threads.
+ */
+public interface SolverWorker {
+
+    /**
+     * Starts solving.
+     *
+     * @param n board size
+     * @param findAll whether to find all solutions
+     * @param onStep step callback (can be null)
+     * @param onSolution called for each solution as it is found; the sink may still
+     *                   buffer it, but every solution is stored before onFinished
+     * @param onFinished called once when all branches are done
+     * @param onError called instead of onFinished when a branch fails
+     */
+    default void start(
+            int n,
+            boolean findAll,
+            Consumer<int[]> onStep,
+            Consumer<Solution> onSolution,
+            Runnable onFinished,
+            Consumer<Exception> onError
+    ) {
+        start(n, findAll ? SolveMode.ALL : SolveMode.FIRST, onStep, onSolution, onFinished, onError);
+    }
+
+    /**
+     * Starts solving in the given mode.
+     *
+     * @param mode FIRST, ALL or UNIQUE (use {@link #count} for COUNT)
+     */
+    void start(
+            int n,
+            SolveMode mode,
+            Consumer<int[]> onStep,
+            Consumer<Solution> onSolution,
+            Runnable onFinished,
+            Consumer<Exception> onError
+    );
+
+    /**
+     * Starts counting without materializing solutions.
+     *
+     * @param onFinished receives the total number of solutions
+     */
+    void count(int n, LongConsumer onFinished, Consumer<Exception> onError);
+
+    /**
+     * Cancel execution manually.
+     */
+    void cancel();
+
+    /**
+     * Samples the instrumentation of the current run.
+     *
+     * @return the current figures, or null if instrumentation is off
+     */
+    default MetricsSnapshot snapshotMetrics() {
+        return null;
+    }
+
+    /**
+     * Progress of the current run, measured in estimated search nodes.
+     *
+     * @return the progress, or null if this worker or run is not estimated
+     */
+    default WorkProgress progress() {
+        return null;
+    }
+}
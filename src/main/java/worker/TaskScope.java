@@ -0,0 +1,92 @@
+package worker;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * TaskScope
+ * ---------
+ * Small structured-concurrency scope: every forked task runs on its own
+ * virtual thread, and the scope completes once all of them have ended.
+ *
+ * Semantics follow StructuredTaskScope (a preview API in Java 21):
+ * - {@link #shutdown()} interrupts every running task and skips later forks
+ *   (used for shutdown-on-success in FIRST mode and for cancel)
+ * - The first failure is kept and also shuts the scope down
+ * - There is no join(): the last task to end runs the completion callback,
+ *   so nothing blocks waiting for the tasks
+ */
+final class TaskScope {
+
+    private static final ThreadFactory THREADS = Thread.ofVirtual().name("solver-virtual-", 0).factory();
+
+    private final Consumer<Throwable> onComplete;
+    private final Set<Thread> running = ConcurrentHashMap.newKeySet();
+    // One extra count for the owner, released by close(), so the scope cannot complete while forking
+    private final AtomicInteger open = new AtomicInteger(1);
+    private final AtomicBoolean shutdown = new AtomicBoolean(false);
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * @param onComplete receives the first failure, or null if no task failed
+     */
+    TaskScope(Consumer<Throwable> onComplete) {
+        this.onComplete = onComplete;
+    }
+
+    /**
+     * Starts a task on a new virtual thread (skipped once the scope is shut down).
+     */
+    void fork(Callable<?> task) {
+        if (shutdown.get()) {
+            return;
+        }
+        open.incrementAndGet();
+        Thread thread = THREADS.newThread(() -> {
+            try {
+                if (!shutdown.get()) {
+                    task.call();
+                }
+            } catch (Throwable t) {
+                if (failure.compareAndSet(null, t)) {
+                    shutdown();
+                }
+            } finally {
+                running.remove(Thread.currentThread());
+                release();
+            }
+        });
+        running.add(thread); // before start, so a shutdown from now on reaches it
+        thread.start();
+    }
+
+    /**
+     * No more forks: the scope completes when the forked tasks have ended.
+     */
+    void close() {
+        release();
+    }
+
+    /**
+     * Interrupts all running tasks; tasks forked later do not run.
+     */
+    void shutdown() {
+        if (shutdown.compareAndSet(false, true)) {
+            for (Thread thread : running) {
+                thread.interrupt();
+            }
+        }
+    }
+
+    private void release() {
+        if (open.decrementAndGet() == 0) {
+            onComplete.accept(failure.get());
+        }
+    }
+}
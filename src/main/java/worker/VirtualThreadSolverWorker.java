@@ -0,0 +1,198 @@
+package worker;
+
+import metrics.MetricsSnapshot;
+import metrics.SearchMetrics;
+import model.Solution;
+import model.SolveMode;
+import solver.Solver;
+import storage.SolutionSink;
+import task.CountTask;
+import task.Prefix;
+import task.SolverTask;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * VirtualThreadSolverWorker
+ * -------------------------
+ * Execution engine that runs every prefix on its own virtual thread inside a {@link TaskScope}.
+ *
+ * Responsibilities:
+ * - Fork one task per prefix; the JVM's carrier threads (one per core) run them
+ * - Shut the scope down on the first solution in FIRST mode, on the first
+ *   failure, and on cancel(): every running task is interrupted at once
+ * - Collect solutions in a SolutionSink (or only count them)
+ * - Notify UI through the same callbacks as ParallelSolverWorker
+ * - Time every task when SearchMetrics are attached
+ *
+ * Unlike ParallelSolverWorker, no pool is created per run and no waiter
+ * thread blocks on futures: the last task to end reports completion. Many
+ * concurrent runs therefore share the carrier threads instead of each
+ * starting its own pool.
+ */
+public class VirtualThreadSolverWorker implements SolverWorker {
+
+    private final Solver solver;
+    private final SolutionSink sink;
+    private final SearchMetrics metrics;
+
+    private volatile TaskScope scope;
+    private final AtomicBoolean solutionFound = new AtomicBoolean(false);
+    private volatile boolean cancelled = false;
+
+    public VirtualThreadSolverWorker(Solver solver, SolutionSink sink) {
+        this(solver, sink, null);
+    }
+
+    /**
+     * @param solver solver implementation (pure algorithm), usually sharing the same metrics
+     * @param sink destination for found solutions (SolutionStore or SolutionFile)
+     * @param metrics receives task times (can be null to switch instrumentation off)
+     */
+    public VirtualThreadSolverWorker(Solver solver, SolutionSink sink, SearchMetrics metrics) {
+        this.solver = solver;
+        this.sink = sink;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Starts solving in the given mode.
+     * onFinished also runs after cancel(), like ParallelSolverWorker.
+     *
+     * @param mode FIRST, ALL or UNIQUE (use {@link #count} for COUNT)
+     */
+    @Override
+    public void start(
+            int n,
+            SolveMode mode,
+            Consumer<int[]> onStep,
+            Consumer<Solution> onSolution,
+            Runnable onFinished,
+            Consumer<Exception> onError
+    ) {
+        List<Prefix> prefixes = mode == SolveMode.FIRST
+                ? Prefix.firstRow(n)
+                : Prefix.symmetricFirstRow(n);
+
+        run(prefixes, failure -> {
+            if (failure != null) {
+                onError.accept(asException(failure));
+            } else {
+                onFinished.run();
+            }
+        }, prefix -> {
+            // Each task runs on one thread, so it gets its own appender
+            try (SolutionSink.Appender appender = sink.appender()) {
+                return new SolverTask(
+                        solver,
+                        n,
+                        prefix,
+                        mode,
+                        onStep,
+                        solution -> {
+                            appender.add(solution);
+                            onSolution.accept(solution);
+                        },
+                        solutionFound,
+                        this::shutdown // shutdown-on-success
+                ).call();
+            }
+        });
+    }
+
+    /**
+     * Starts counting. Nothing is reported after cancel().
+     */
+    @Override
+    public void count(
+            int n,
+            LongConsumer onFinished,
+            Consumer<Exception> onError
+    ) {
+        LongAdder total = new LongAdder();
+
+        run(Prefix.symmetricFirstRow(n), failure -> {
+            if (cancelled) return;
+            if (failure != null) {
+                onError.accept(asException(failure));
+            } else {
+                onFinished.accept(total.sum());
+            }
+        }, prefix -> new CountTask(solver, n, prefix, total).call());
+    }
+
+    /**
+     * Cancel execution manually: all running tasks are interrupted right away.
+     */
+    @Override
+    public void cancel() {
+        cancelled = true;
+        shutdown();
+    }
+
+    /**
+     * Samples the attached metrics.
+     *
+     * @return the current figures, or null if instrumentation is off
+     */
+    @Override
+    public MetricsSnapshot snapshotMetrics() {
+        return metrics != null ? metrics.snapshot() : null;
+    }
+
+    /**
+     * Forks one task per prefix in a new scope.
+     */
+    private void run(List<Prefix> prefixes, Consumer<Throwable> onComplete, PrefixTask task) {
+        if (metrics != null) metrics.start();
+        TaskScope current = new TaskScope(failure -> {
+            if (metrics != null) metrics.finish();
+            onComplete.accept(failure);
+        });
+        scope = current;
+        if (cancelled) current.shutdown(); // cancelled before the scope existed
+
+        for (Prefix prefix : prefixes) {
+            current.fork(timed(() -> task.run(prefix)));
+        }
+        current.close();
+    }
+
+    private void shutdown() {
+        TaskScope current = scope;
+        if (current != null) {
+            current.shutdown();
+        }
+    }
+
+    /**
+     * Wraps a task so its wall time is recorded (unchanged if instrumentation is off).
+     */
+    private <T> Callable<T> timed(Callable<T> task) {
+        if (metrics == null) {
+            return task;
+        }
+        return () -> {
+            long start = System.nanoTime();
+            try {
+                return task.call();
+            } finally {
+                metrics.recordTask(System.nanoTime() - start);
+            }
+        };
+    }
+
+    private static Exception asException(Throwable failure) {
+        return failure instanceof Exception ex ? ex : new RuntimeException(failure);
+    }
+
+    /** Work of one prefix. */
+    private interface PrefixTask {
+        Object run(Prefix prefix) throws Exception;
+    }
+}
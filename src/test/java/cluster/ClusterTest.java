@@ -0,0 +1,236 @@
+package cluster;
+
+import model.Solution;
+import model.SolveMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import solver.BitboardSolver;
+import storage.SolutionStore;
+import task.CountTask;
+import task.Prefix;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClusterTest {
+
+    /** Solutions of the n x n board for n = 1..10. */
+    private static final long[] KNOWN_COUNTS = {1, 0, 0, 2, 10, 4, 40, 92, 352, 724};
+    private static final long TIMEOUT_MILLIS = 30_000;
+
+    @TempDir
+    Path dir;
+
+    private final List<AutoCloseable> open = new ArrayList<>();
+
+    @AfterEach
+    void closeAll() throws Exception {
+        for (int i = open.size() - 1; i >= 0; i--) {
+            open.get(i).close();
+        }
+    }
+
+    @Test
+    void addressesRoundTrip() {
+        SocketAddress tcp = Protocol.address("127.0.0.1:4711");
+        assertEquals(new InetSocketAddress("127.0.0.1", 4711), tcp);
+        assertEquals("127.0.0.1:4711", Protocol.format(tcp));
+
+        SocketAddress unix = Protocol.address("unix:/tmp/nqueens.sock");
+        assertEquals(UnixDomainSocketAddress.of("/tmp/nqueens.sock"), unix);
+        assertEquals("unix:/tmp/nqueens.sock", Protocol.format(unix));
+
+        assertThrows(IllegalArgumentException.class, () -> Protocol.address("localhost"));
+        assertThrows(IllegalArgumentException.class, () -> Protocol.address("localhost:http"));
+    }
+
+    @Test
+    void workersOverTcpCountEveryBoardSize() throws Exception {
+        Coordinator coordinator = coordinator("127.0.0.1:0");
+        startWorker(coordinator, 2);
+        startWorker(coordinator, 1);
+        coordinator.awaitWorkers(2, TIMEOUT_MILLIS);
+
+        for (int n = 1; n <= KNOWN_COUNTS.length; n++) {
+            assertEquals(KNOWN_COUNTS[n - 1], count(coordinator, n), "n=" + n);
+        }
+    }
+
+    @Test
+    void workersOverUnixSocketSendEveryBoard() throws Exception {
+        Coordinator coordinator = coordinator("unix:" + dir.resolve("coordinator.sock"));
+        startWorker(coordinator, 2);
+        coordinator.awaitWorkers(1, TIMEOUT_MILLIS);
+
+        SolutionStore all = solve(coordinator, 8, SolveMode.ALL);
+        assertEquals(92, all.size());
+        Set<String> distinct = new HashSet<>();
+        for (Solution solution : all) {
+            distinct.add(Arrays.toString(solution.getCols()));
+        }
+        assertEquals(92, distinct.size());
+
+        SolutionStore unique = solve(coordinator, 8, SolveMode.UNIQUE);
+        assertEquals(12, unique.size());
+        long total = 0;
+        for (Solution solution : unique) {
+            total += solution.getMultiplicity();
+        }
+        assertEquals(92, total);
+    }
+
+    @Test
+    void handWrittenPeerIsUnderstood() throws Exception {
+        Coordinator coordinator = coordinator("127.0.0.1:0");
+        try (SocketChannel channel = Protocol.connect(Protocol.address(coordinator.getAddress()))) {
+            DataInputStream in = Protocol.input(channel);
+            DataOutputStream out = Protocol.output(channel);
+            out.writeByte(Protocol.HELLO);
+            out.writeInt(Protocol.MAGIC);
+            out.writeInt(Protocol.VERSION);
+            out.writeInt(1);
+            out.writeByte(Protocol.REQUEST);
+            out.writeInt(4);
+            out.flush();
+            coordinator.awaitWorkers(1, TIMEOUT_MILLIS);
+
+            // Decodes every unit by hand and answers with its weighted count until the channel closes
+            List<SolveMode> modes = new CopyOnWriteArrayList<>();
+            Thread peer = new Thread(() -> {
+                try {
+                    while (true) {
+                        byte type = in.readByte();
+                        if (type != Protocol.UNIT) {
+                            throw new IOException("Unexpected message " + type);
+                        }
+                        int id = in.readInt();
+                        modes.add(SolveMode.values()[in.readUnsignedByte()]);
+                        int n = in.readUnsignedByte();
+                        int weight = in.readUnsignedByte();
+                        int[] cols = new int[in.readUnsignedByte()];
+                        for (int r = 0; r < cols.length; r++) {
+                            cols[r] = in.readUnsignedByte();
+                        }
+                        Prefix prefix = new Prefix(cols, weight);
+                        long count = new CountTask(new BitboardSolver(), n, prefix, new LongAdder()).call();
+
+                        out.writeByte(Protocol.DONE);
+                        out.writeInt(id);
+                        out.writeLong(0);
+                        out.writeLong(count);
+                        out.writeLong(0);
+                        out.writeByte(Protocol.REQUEST);
+                        out.writeInt(1);
+                        out.flush();
+                    }
+                } catch (IOException closed) {
+                    // the test is over
+                }
+            });
+            peer.setDaemon(true);
+            peer.start();
+
+            CompletableFuture<Long> result = new CompletableFuture<>();
+            new ClusterSolverWorker(coordinator, null).count(9, result::complete, result::completeExceptionally);
+            assertEquals(352, result.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+            assertTrue(!modes.isEmpty() && modes.stream().allMatch(mode -> mode == SolveMode.COUNT));
+        }
+    }
+
+    @Test
+    void unitsOfLostWorkerAreHandedOutAgain() throws Exception {
+        Coordinator coordinator = coordinator("127.0.0.1:0");
+        CompletableFuture<Long> result = new CompletableFuture<>();
+
+        // A peer that takes units and disconnects without an answer
+        try (SocketChannel channel = Protocol.connect(Protocol.address(coordinator.getAddress()))) {
+            DataInputStream in = Protocol.input(channel);
+            DataOutputStream out = Protocol.output(channel);
+            out.writeByte(Protocol.HELLO);
+            out.writeInt(Protocol.MAGIC);
+            out.writeInt(Protocol.VERSION);
+            out.writeInt(1);
+            out.writeByte(Protocol.REQUEST);
+            out.writeInt(8);
+            out.flush();
+            coordinator.awaitWorkers(1, TIMEOUT_MILLIS);
+
+            new ClusterSolverWorker(coordinator, null).count(10, result::complete, result::completeExceptionally);
+            assertEquals(Protocol.UNIT, in.readByte());
+        }
+
+        startWorker(coordinator, 2);
+        assertEquals(724, result.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void peerOfAnotherProtocolIsIgnored() throws Exception {
+        Coordinator coordinator = coordinator("127.0.0.1:0");
+        try (SocketChannel channel = Protocol.connect(Protocol.address(coordinator.getAddress()))) {
+            DataOutputStream out = Protocol.output(channel);
+            out.writeByte(Protocol.HELLO);
+            out.writeInt(Protocol.MAGIC + 1);
+            out.writeInt(Protocol.VERSION);
+            out.writeInt(1);
+            out.flush();
+            // The coordinator hangs up instead of registering the peer
+            assertEquals(-1, Protocol.input(channel).read());
+        }
+        assertEquals(0, coordinator.getWorkerCount());
+    }
+
+    private Coordinator coordinator(String address) throws IOException {
+        Coordinator coordinator = Coordinator.listen(address);
+        open.add(coordinator);
+        return coordinator;
+    }
+
+    private void startWorker(Coordinator coordinator, int threads) throws IOException {
+        ClusterWorker worker = new ClusterWorker(coordinator.getAddress(), threads);
+        open.add(0, worker); // closed after the coordinator
+        Thread thread = new Thread(() -> {
+            try {
+                worker.run();
+            } catch (IOException ignored) {
+                // closed by the test
+            }
+        }, "test-cluster-worker");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static long count(Coordinator coordinator, int n) throws Exception {
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        new ClusterSolverWorker(coordinator, null).count(n, result::complete, result::completeExceptionally);
+        return result.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private static SolutionStore solve(Coordinator coordinator, int n, SolveMode mode) throws Exception {
+        SolutionStore store = new SolutionStore();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        new ClusterSolverWorker(coordinator, store).start(n, mode, null, solution -> { },
+                () -> done.complete(null), done::completeExceptionally);
+        done.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        return store;
+    }
+}
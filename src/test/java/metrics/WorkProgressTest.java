@@ -0,0 +1,48 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorkProgressTest {
+
+    @Test
+    void shareStaysBelowOneUntilFinished() {
+        WorkProgress progress = new WorkProgress(100);
+        assertEquals(0, progress.getFraction());
+        assertEquals(-1, progress.getEtaMillis(), "no ETA before any work is done");
+
+        progress.completed(25);
+        assertEquals(0.25, progress.getFraction(), 1e-9);
+        assertTrue(progress.getEtaMillis() >= 0);
+
+        // Estimates can add up to more than the total
+        progress.completed(200);
+        assertEquals(0.99, progress.getFraction(), 1e-9);
+
+        progress.finish();
+        assertEquals(1, progress.getFraction());
+        assertEquals(0, progress.getEtaMillis());
+    }
+
+    @Test
+    void unknownTotalReportsNoShare() {
+        WorkProgress progress = new WorkProgress(0);
+        progress.completed(10);
+        assertEquals(0, progress.getFraction());
+        assertEquals(-1, progress.getEtaMillis());
+    }
+
+    @Test
+    void clockStopsWhenFinished() throws InterruptedException {
+        WorkProgress progress = new WorkProgress(1);
+        progress.start();
+        Thread.sleep(5);
+        progress.finish();
+        long elapsed = progress.getElapsedNanos();
+        assertTrue(elapsed >= 5_000_000, elapsed + " ns");
+        Thread.sleep(5);
+        assertEquals(elapsed, progress.getElapsedNanos());
+    }
+}
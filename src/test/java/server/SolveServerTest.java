@@ -0,0 +1,149 @@
+package server;
+
+import model.SolveMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolveServerTest {
+
+    /** Every computation from n = 12 on counts as large. */
+    private static final long SMALL_NODES = 1;
+    /** Runs for seconds, so it is still running when it is checked. */
+    private static final int LARGE_N = 17;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private SolveService service;
+    private SolveServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        service = new SolveService(2, 1, 1, SMALL_NODES, 10);
+        server = new SolveServer(new InetSocketAddress("127.0.0.1", 0), service);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.close();
+    }
+
+    @Test
+    void countIsAnsweredInJson() throws Exception {
+        HttpResponse<String> response = get("/count?n=8");
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("application/json"));
+        assertTrue(response.body().startsWith("{\"n\":8,\"mode\":\"count\",\"solutions\":92,\"total\":92,"),
+                response.body());
+    }
+
+    @Test
+    void boardsArePaged() throws Exception {
+        String all = get("/all?n=6").body();
+        assertTrue(all.contains("\"solutions\":4,\"total\":4,"), all);
+        assertEquals(4, boards(all));
+
+        String page = get("/all?n=6&offset=1&limit=2").body();
+        assertTrue(page.contains("\"offset\":1,\"limit\":2,"), page);
+        assertEquals(2, boards(page));
+        assertEquals(0, boards(get("/all?n=6&offset=10").body()));
+
+        String unique = get("/unique?n=8&limit=3").body();
+        assertTrue(unique.contains("\"solutions\":12,\"total\":92,"), unique);
+        assertTrue(unique.contains("\"multiplicities\":["), unique);
+    }
+
+    @Test
+    void badInputIsRejected() throws Exception {
+        for (String path : new String[]{"/count", "/count?n=abc", "/count?n=0", "/all?n=11", "/count?n=8&limit=-1"}) {
+            HttpResponse<String> response = get(path);
+            assertEquals(400, response.statusCode(), path);
+            assertTrue(response.body().startsWith("{\"error\":"), response.body());
+        }
+    }
+
+    @Test
+    void onlyGetIsAllowed() throws Exception {
+        HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder(uri("/count?n=8")).POST(HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, response.statusCode());
+        assertEquals("GET", response.headers().firstValue("Allow").orElse(""));
+    }
+
+    @Test
+    void secondLargeRunIsRejected() throws Exception {
+        SolveService.Computation running = service.acquire(LARGE_N, SolveMode.COUNT);
+        try {
+            HttpResponse<String> response = get("/count?n=" + (LARGE_N - 1));
+            assertEquals(503, response.statusCode());
+            assertTrue(response.headers().firstValue("Retry-After").isPresent());
+
+            // Small runs have their own pool and are still served
+            assertEquals(200, get("/count?n=8").statusCode());
+        } finally {
+            service.release(running);
+        }
+    }
+
+    @Test
+    void slowRunTimesOut() throws Exception {
+        HttpResponse<String> response = get("/count?n=" + LARGE_N + "&timeoutMs=1");
+        assertEquals(504, response.statusCode());
+    }
+
+    @Test
+    void lastReleaseCancelsAndForgetsTheRun() throws Exception {
+        SolveService.Computation first = service.acquire(LARGE_N, SolveMode.COUNT);
+        SolveService.Computation joined = service.acquire(LARGE_N, SolveMode.COUNT);
+        assertSame(first, joined, "identical requests share one computation");
+
+        service.release(joined);
+        service.release(first);
+        assertThrows(CancellationException.class, () -> first.await(10_000));
+
+        // The cancelled run is neither joined nor holding the large slot
+        SolveService.Computation again = service.acquire(LARGE_N, SolveMode.COUNT);
+        assertNotSame(first, again);
+        service.release(again);
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri(path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+
+    /** Number of boards in the "boards" array of a response. */
+    private static int boards(String json) {
+        int count = 0;
+        int depth = 1;
+        for (int i = json.indexOf("\"boards\":[") + "\"boards\":[".length(); depth > 0; i++) {
+            switch (json.charAt(i)) {
+                case '[' -> {
+                    depth++;
+                    count++;
+                }
+                case ']' -> depth--;
+                default -> { }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,66 @@
+package solver;
+
+import metrics.SearchMetrics;
+import model.Solution;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BitboardSolverTest {
+
+    /** Solutions of the n x n board for n = 1..12. */
+    static final long[] KNOWN_COUNTS = {1, 0, 0, 2, 10, 4, 40, 92, 352, 724, 2680, 14200};
+
+    @Test
+    void countsMatchKnownValues() {
+        BitboardSolver plain = new BitboardSolver();
+        BitboardSolver counted = new BitboardSolver(new LongAdder());
+        for (int n = 1; n <= KNOWN_COUNTS.length; n++) {
+            assertEquals(KNOWN_COUNTS[n - 1], plain.count(n), "count n=" + n);
+            assertEquals(KNOWN_COUNTS[n - 1], counted.count(n), "counted count n=" + n);
+            assertEquals(KNOWN_COUNTS[n - 1], plain.solve(n, null, null, true).size(), "solve n=" + n);
+        }
+    }
+
+    @Test
+    void countingVariantFindsTheSameBoards() {
+        int n = 9;
+        List<Solution> plain = new BitboardSolver().solve(n, null, null, true);
+        List<Solution> counted = new BitboardSolver(new LongAdder(), new SearchMetrics(1)).solve(n, null, null, true);
+        assertEquals(plain.size(), counted.size());
+        for (int i = 0; i < plain.size(); i++) {
+            assertArrayEquals(plain.get(i).getCols(), counted.get(i).getCols());
+        }
+    }
+
+    @Test
+    void nodeCounterSeesEveryPlacement() {
+        int n = 10;
+        LongAdder solveNodes = new LongAdder();
+        LongAdder countNodes = new LongAdder();
+        long[] steps = new long[1];
+        new BitboardSolver(solveNodes).solve(n, cols -> steps[0]++, null, true);
+        new BitboardSolver(countNodes).count(n);
+
+        // Every placement is reported as one step, and counting visits the same nodes
+        assertEquals(steps[0], solveNodes.sum());
+        assertEquals(solveNodes.sum(), countNodes.sum());
+    }
+
+    @Test
+    void solutionsArePeaceful() {
+        for (Solution solution : new BitboardSolver().solve(8, null, null, true)) {
+            int[] cols = solution.getCols();
+            for (int a = 0; a < cols.length; a++) {
+                for (int b = a + 1; b < cols.length; b++) {
+                    assertTrue(cols[a] != cols[b] && Math.abs(cols[a] - cols[b]) != b - a);
+                }
+            }
+        }
+    }
+}
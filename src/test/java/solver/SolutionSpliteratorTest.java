@@ -0,0 +1,107 @@
+package solver;
+
+import model.Solution;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolutionSpliteratorTest {
+
+    @Test
+    void countsMatchKnownValues() {
+        for (int n = 1; n <= BitboardSolverTest.KNOWN_COUNTS.length; n++) {
+            long expected = BitboardSolverTest.KNOWN_COUNTS[n - 1];
+            assertEquals(expected, stream(n).count(), "sequential n=" + n);
+            assertEquals(expected, stream(n).parallel().count(), "parallel n=" + n);
+        }
+    }
+
+    @Test
+    void sequentialOrderIsTheRecursiveSolversOrder() {
+        for (int n = 1; n <= 10; n++) {
+            assertSameBoards(new BitboardSolver().solve(n, null, null, true), stream(n).toList(), "n=" + n);
+        }
+    }
+
+    @Test
+    void parallelStreamKeepsTheEncounterOrder() {
+        for (int n = 4; n <= 11; n++) {
+            assertSameBoards(stream(n).toList(), stream(n).parallel().toList(), "n=" + n);
+        }
+    }
+
+    @Test
+    void parallelSliceEqualsTheSequentialSlice() {
+        int n = 10;
+        List<Solution> all = stream(n).toList();
+        int[][] slices = {{0, 1}, {0, 50}, {100, 1}, {123, 300}, {700, 100}, {724, 5}, {0, 1000}};
+        for (int[] slice : slices) {
+            List<Solution> parallel = stream(n).parallel().skip(slice[0]).limit(slice[1]).toList();
+            List<Solution> expected = all.subList(Math.min(slice[0], all.size()),
+                    Math.min(slice[0] + slice[1], all.size()));
+            assertSameBoards(expected, parallel, "skip " + slice[0] + " limit " + slice[1]);
+        }
+    }
+
+    @Test
+    void splitsHandOutTheEarlierPartFirst() {
+        int n = 8;
+        List<Solution> all = stream(n).toList();
+        Spliterator<Solution> last = new SolutionSpliterator(n);
+        assertTrue(last.hasCharacteristics(Spliterator.ORDERED));
+
+        // Split twice: first, middle and last part must line up again
+        Spliterator<Solution> early = last.trySplit();
+        assertNotNull(early);
+        Spliterator<Solution> first = early.trySplit();
+        assertNotNull(first);
+        List<Solution> joined = new ArrayList<>();
+        first.forEachRemaining(joined::add);
+        early.forEachRemaining(joined::add);
+        last.forEachRemaining(joined::add);
+        assertSameBoards(all, joined, "parts in split order");
+    }
+
+    @Test
+    void splitAfterTheFirstBoardsKeepsTheRest() {
+        int n = 8;
+        List<Solution> all = stream(n).toList();
+        Spliterator<Solution> rest = new SolutionSpliterator(n);
+        List<Solution> joined = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            assertTrue(rest.tryAdvance(joined::add));
+        }
+        Spliterator<Solution> middle = rest.trySplit();
+        if (middle != null) middle.forEachRemaining(joined::add);
+        rest.forEachRemaining(joined::add);
+        assertSameBoards(all, joined, "consumed, split, then the rest");
+    }
+
+    @Test
+    void exhaustedSpliteratorDoesNotSplit() {
+        Spliterator<Solution> spliterator = new SolutionSpliterator(6);
+        spliterator.forEachRemaining(solution -> { });
+        assertNull(spliterator.trySplit());
+    }
+
+    private static Stream<Solution> stream(int n) {
+        return StreamSupport.stream(new SolutionSpliterator(n), false);
+    }
+
+    private static void assertSameBoards(List<Solution> expected, List<Solution> actual, String message) {
+        assertEquals(expected.size(), actual.size(), message);
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i).getCols(), actual.get(i).getCols(), message + " board " + i);
+        }
+    }
+}
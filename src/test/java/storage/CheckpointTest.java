@@ -0,0 +1,169 @@
+package storage;
+
+import model.SolveMode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import solver.BitboardSolver;
+import task.Prefix;
+import worker.ParallelSolverWorker;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CheckpointTest {
+
+    private static final int N = 10;
+    private static final long SOLUTIONS = 724;
+    /** Long enough that only explicit saves write the file. */
+    private static final long INTERVAL = TimeUnit.HOURS.toMillis(1);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void savedPrefixesAreLoadedAgain() throws IOException {
+        Path path = dir.resolve("run.ckpt");
+        Checkpoint checkpoint = Checkpoint.open(path, N, SolveMode.COUNT, 3, INTERVAL);
+        checkpoint.complete(new int[]{0, 2, 4}, 2, 5, 10);
+        checkpoint.complete(new int[]{1, 3, 0}, 1, 7, 7);
+        checkpoint.close();
+
+        Checkpoint loaded = Checkpoint.open(path, N, SolveMode.COUNT, 5, INTERVAL);
+        try {
+            assertEquals(3, loaded.getSplitDepth(), "an existing checkpoint keeps its split depth");
+            assertEquals(10, loaded.completedTotal(new int[]{0, 2, 4}));
+            assertEquals(7, loaded.completedTotal(new int[]{1, 3, 0}));
+            assertEquals(-1, loaded.completedTotal(new int[]{1, 3, 5}));
+            assertEquals(12, loaded.getResumedSolutions());
+            assertEquals(17, loaded.getResumedTotal());
+        } finally {
+            loaded.discard();
+        }
+        assertFalse(Files.exists(path));
+    }
+
+    @Test
+    void truncatedCheckpointIsRejected() throws IOException {
+        Path path = dir.resolve("run.ckpt");
+        Checkpoint checkpoint = Checkpoint.open(path, N, SolveMode.COUNT, 3, INTERVAL);
+        checkpoint.complete(new int[]{0, 2, 4}, 2, 5, 10);
+        checkpoint.close();
+
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 5));
+        assertThrows(IOException.class, () -> Checkpoint.open(path, N, SolveMode.COUNT, 0, INTERVAL));
+    }
+
+    @Test
+    void corruptCheckpointIsRejected() throws IOException {
+        Path path = dir.resolve("run.ckpt");
+        Checkpoint checkpoint = Checkpoint.open(path, N, SolveMode.COUNT, 3, INTERVAL);
+        checkpoint.complete(new int[]{0, 2, 4}, 2, 5, 10);
+        checkpoint.close();
+        byte[] bytes = Files.readAllBytes(path);
+
+        byte[] badMagic = bytes.clone();
+        badMagic[0] ^= 0x55;
+        Files.write(path, badMagic);
+        assertThrows(IOException.class, () -> Checkpoint.open(path, N, SolveMode.COUNT, 0, INTERVAL));
+
+        // Header: magic, version, n, mode (2-byte length + name), split depth, count; then the depth byte
+        byte[] badDepth = bytes.clone();
+        badDepth[4 + 4 + 4 + 2 + SolveMode.COUNT.name().length() + 4 + 4] = (byte) (N + 1);
+        Files.write(path, badDepth);
+        assertThrows(IOException.class, () -> Checkpoint.open(path, N, SolveMode.COUNT, 0, INTERVAL));
+    }
+
+    @Test
+    void checkpointOfAnotherRunIsRejected() throws IOException {
+        Path path = dir.resolve("run.ckpt");
+        Checkpoint.open(path, N, SolveMode.COUNT, 3, INTERVAL).close();
+        assertThrows(IOException.class, () -> Checkpoint.open(path, N + 1, SolveMode.COUNT, 0, INTERVAL));
+        assertThrows(IOException.class, () -> Checkpoint.open(path, N, SolveMode.ALL, 0, INTERVAL));
+    }
+
+    @Test
+    void leftoverTempFileDoesNotReplaceTheCheckpoint() throws IOException {
+        Path path = dir.resolve("run.ckpt");
+        Checkpoint checkpoint = Checkpoint.open(path, N, SolveMode.COUNT, 3, INTERVAL);
+        checkpoint.complete(new int[]{0, 2, 4}, 2, 5, 10);
+        checkpoint.close();
+        // A save that crashed halfway leaves only its temporary file behind
+        Files.write(path.resolveSibling("run.ckpt.tmp"), new byte[]{1, 2, 3});
+
+        Checkpoint loaded = Checkpoint.open(path, N, SolveMode.COUNT, 0, INTERVAL);
+        assertEquals(10, loaded.completedTotal(new int[]{0, 2, 4}));
+        loaded.complete(new int[]{1, 3, 0}, 1, 7, 7);
+        loaded.close();
+
+        Checkpoint again = Checkpoint.open(path, N, SolveMode.COUNT, 0, INTERVAL);
+        assertEquals(17, again.getResumedTotal());
+        again.discard();
+    }
+
+    @Test
+    void resumedCountSkipsFinishedPrefixes() throws Exception {
+        Path full = dir.resolve("full.ckpt");
+        LongAdder fullNodes = new LongAdder();
+        Checkpoint first = Checkpoint.open(full, N, SolveMode.COUNT, 3, INTERVAL);
+        assertEquals(SOLUTIONS, count(first, fullNodes));
+        first.close();
+
+        // Every prefix is done: the resumed run searches nothing
+        Checkpoint done = Checkpoint.open(full, N, SolveMode.COUNT, 0, INTERVAL);
+        LongAdder noNodes = new LongAdder();
+        assertEquals(SOLUTIONS, count(done, noNodes));
+        assertEquals(0, noNodes.sum());
+        done.discard();
+
+        // Half of the prefixes are done: only the other half is searched
+        Checkpoint reference = Checkpoint.open(dir.resolve("reference.ckpt"), N, SolveMode.COUNT, 3, INTERVAL);
+        count(reference, new LongAdder());
+        Checkpoint half = Checkpoint.open(dir.resolve("half.ckpt"), N, SolveMode.COUNT, 3, INTERVAL);
+        List<Prefix> leaves = Prefix.expand(N, Prefix.symmetricFirstRow(N), 3);
+        for (int i = 0; i < leaves.size(); i += 2) {
+            Prefix leaf = leaves.get(i);
+            long total = reference.completedTotal(leaf.getCols());
+            half.complete(leaf.getCols(), leaf.getWeight(), total, total);
+        }
+        reference.discard();
+        LongAdder halfNodes = new LongAdder();
+        assertEquals(SOLUTIONS, count(half, halfNodes));
+        assertTrue(halfNodes.sum() > 0 && halfNodes.sum() < fullNodes.sum(),
+                halfNodes.sum() + " of " + fullNodes.sum() + " nodes");
+        half.discard();
+    }
+
+    @Test
+    void coversBoardsOfCompletedPrefixesAndTheirMirrors() throws IOException {
+        Checkpoint checkpoint = Checkpoint.open(dir.resolve("all.ckpt"), 6, SolveMode.ALL, 2, INTERVAL);
+        checkpoint.complete(new int[]{1, 3}, 2, 1, 2);
+        checkpoint.complete(new int[]{2, 5}, 1, 1, 1);
+        try {
+            assertTrue(checkpoint.covers(new int[]{1, 3, 5, 0, 2, 4}));
+            assertTrue(checkpoint.covers(new int[]{4, 2, 0, 5, 3, 1}), "mirror of a weight 2 prefix");
+            assertTrue(checkpoint.covers(new int[]{2, 5, 1, 4, 0, 3}));
+            assertFalse(checkpoint.covers(new int[]{3, 0, 4, 1, 5, 2}), "mirror of a weight 1 prefix");
+        } finally {
+            checkpoint.discard();
+        }
+    }
+
+    private static long count(Checkpoint checkpoint, LongAdder nodes) throws Exception {
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        new ParallelSolverWorker(new BitboardSolver(nodes), null, 2, null, checkpoint)
+                .count(N, result::complete, result::completeExceptionally);
+        return result.get(1, TimeUnit.MINUTES);
+    }
+}
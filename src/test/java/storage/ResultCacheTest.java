@@ -0,0 +1,221 @@
+package storage;
+
+import model.SolveMode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import solver.BitboardSolver;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResultCacheTest {
+
+    private static final long MAX_BYTES = 1L << 20;
+    private static final int MEMORY_BOARDS = 1 << 12;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void storedSetsAreLoadedAndMapped() throws IOException {
+        SolutionStore boards = solve(8);
+        try (ResultCache cache = ResultCache.open(dir, MAX_BYTES, MEMORY_BOARDS)) {
+            cache.put(8, SolveMode.ALL, boards);
+            assertEquals(OptionalLong.of(92), cache.count(8), "ALL also answers COUNT");
+            assertSameBoards(boards, load(cache, 8), "from memory");
+        }
+
+        // A new instance has nothing in memory: the set comes from the file
+        try (ResultCache cache = ResultCache.open(dir, MAX_BYTES, MEMORY_BOARDS)) {
+            assertEquals(OptionalLong.of(92), cache.count(8));
+            assertSameBoards(boards, load(cache, 8), "from disk");
+            try (SolutionFile.Reader reader = cache.open(8, SolveMode.ALL)) {
+                assertNotNull(reader);
+                assertSameBoards(boards, reader, "mapped");
+            }
+            assertEquals(-1, cache.load(8, SolveMode.UNIQUE, new SolutionStore()));
+            assertNull(cache.open(9, SolveMode.ALL));
+        }
+    }
+
+    @Test
+    void countsSurviveReopening() throws IOException {
+        try (ResultCache cache = ResultCache.open(dir, MAX_BYTES, MEMORY_BOARDS)) {
+            cache.putCount(12, 14200);
+        }
+        try (ResultCache cache = ResultCache.open(dir, MAX_BYTES, MEMORY_BOARDS)) {
+            assertEquals(OptionalLong.of(14200), cache.count(12));
+            assertTrue(cache.count(11).isEmpty());
+        }
+    }
+
+    @Test
+    void damagedIndexStartsEmpty() throws IOException {
+        for (int keep : new int[]{0, 3, 20}) {
+            try (ResultCache cache = ResultCache.open(dir, MAX_BYTES, MEMORY_BOARDS)) {
+                cache.put(8, SolveMode.ALL, solve(8));
+            }
+            Path index = dir.resolve("index");
+            byte[] bytes = Files.readAllBytes(index);
+            Files.write(index, Arrays.copyOf(bytes, keep)); // truncated
+
+            try (ResultCache cache = ResultCache.open(dir, MAX_BYTES, MEMORY_BOARDS)) {
+                assertTrue(cache.count(8).isEmpty(), "truncated to " + keep);
+                assertEquals(-1, cache.load(8, SolveMode.ALL, new SolutionStore()));
+            }
+            assertEquals(0, solutionFiles(), "the orphaned file is deleted");
+        }
+    }
+
+    @Test
+    void corruptedIndexStartsEmpty() throws IOException {
+        try (ResultCache cache = ResultCache.open(dir, MAX_BYTES, MEMORY_BOARDS)) {
+            cache.put(8, SolveMode.ALL, solve(8));
+        }
+        flipByte(dir.resolve("index"), 12);
+
+        try (ResultCache cache = ResultCache.open(dir, MAX_BYTES, MEMORY_BOARDS)) {
+            assertTrue(cache.count(8).isEmpty());
+        }
+        assertEquals(0, solutionFiles());
+    }
+
+    @Test
+    void corruptedSolutionFileDropsItsEntry() throws IOException {
+        try (ResultCache cache = ResultCache.open(dir, MAX_BYTES, MEMORY_BOARDS)) {
+            cache.put(8, SolveMode.ALL, solve(8));
+            cache.put(7, SolveMode.ALL, solve(7));
+        }
+        flipByte(fileOf(8), 40); // same length: only the CRC sees it
+
+        try (ResultCache cache = ResultCache.open(dir, MAX_BYTES, MEMORY_BOARDS)) {
+            assertEquals(-1, cache.load(8, SolveMode.ALL, new SolutionStore()));
+            assertTrue(cache.count(8).isEmpty(), "the entry is gone, not only its boards");
+            assertFalse(Files.exists(fileOf(8)));
+            assertEquals(40, load(cache, 7).size(), "other entries are kept");
+        }
+    }
+
+    @Test
+    void changedFileIsCheckedAgain() throws IOException {
+        try (ResultCache cache = ResultCache.open(dir, MAX_BYTES, 0)) {
+            cache.put(8, SolveMode.ALL, solve(8));
+            assertEquals(92, load(cache, 8).size());
+
+            // A rewrite with a new modification time is no longer trusted
+            flipByte(fileOf(8), 40);
+            Files.setLastModifiedTime(fileOf(8), FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+            assertNull(cache.open(8, SolveMode.ALL));
+            assertTrue(cache.count(8).isEmpty());
+        }
+    }
+
+    @Test
+    void truncatedSolutionFileDropsItsEntry() throws IOException {
+        try (ResultCache cache = ResultCache.open(dir, MAX_BYTES, 0)) {
+            cache.put(8, SolveMode.ALL, solve(8));
+            try (FileChannel channel = FileChannel.open(fileOf(8), StandardOpenOption.WRITE)) {
+                channel.truncate(channel.size() - 1);
+            }
+            assertNull(cache.open(8, SolveMode.ALL));
+            assertTrue(cache.count(8).isEmpty());
+        }
+    }
+
+    @Test
+    void droppedSetsFreeTheirMemory() throws IOException {
+        // Room for the 92 boards of n = 8 and nothing more
+        try (ResultCache cache = ResultCache.open(dir, MAX_BYTES, 92)) {
+            cache.put(8, SolveMode.ALL, solve(8));
+            Files.write(fileOf(8), new byte[0]);
+            assertNull(cache.open(8, SolveMode.ALL)); // dropped, with its boards in memory
+
+            cache.put(7, SolveMode.ALL, solve(7));
+            Files.delete(fileOf(7));
+            assertEquals(40, load(cache, 7).size(), "the 40 boards fit once the 92 are released");
+        }
+    }
+
+    @Test
+    void leastRecentlyUsedFileIsEvicted() throws IOException, InterruptedException {
+        long bytes6 = fileSize(6);
+        long bytes7 = fileSize(7);
+        long bytes8 = fileSize(8);
+
+        // Room for any two of the three files
+        try (ResultCache cache = ResultCache.open(dir, bytes6 + bytes7 + bytes8 - 1, 0)) {
+            cache.put(6, SolveMode.ALL, solve(6));
+            Thread.sleep(5);
+            cache.put(7, SolveMode.ALL, solve(7));
+            Thread.sleep(5);
+            assertEquals(4, load(cache, 6).size()); // 7 is now the least recently used
+            Thread.sleep(5);
+            cache.put(8, SolveMode.ALL, solve(8));
+
+            assertNull(cache.open(7, SolveMode.ALL));
+            assertFalse(Files.exists(fileOf(7)));
+            assertEquals(OptionalLong.of(40), cache.count(7), "an evicted set keeps its count");
+            assertEquals(4, load(cache, 6).size());
+            assertEquals(92, load(cache, 8).size());
+        }
+    }
+
+    private long fileSize(int n) throws IOException {
+        Path other = Files.createTempDirectory(dir, "size");
+        try (ResultCache cache = ResultCache.open(other, MAX_BYTES, 0)) {
+            cache.put(n, SolveMode.ALL, solve(n));
+        }
+        return Files.size(other.resolve("nqueens-" + n + "-all.sol"));
+    }
+
+    private Path fileOf(int n) {
+        return dir.resolve("nqueens-" + n + "-all.sol");
+    }
+
+    private long solutionFiles() throws IOException {
+        try (var files = Files.list(dir)) {
+            return files.filter(file -> file.toString().endsWith(".sol")).count();
+        }
+    }
+
+    private static SolutionStore load(ResultCache cache, int n) throws IOException {
+        SolutionStore loaded = new SolutionStore();
+        assertTrue(cache.load(n, SolveMode.ALL, loaded) >= 0, "not cached: " + n);
+        return loaded;
+    }
+
+    private static SolutionStore solve(int n) {
+        SolutionStore store = new SolutionStore();
+        try (SolutionSink.Appender appender = store.appender()) {
+            new BitboardSolver().solve(n, null, null, true).forEach(appender::add);
+        }
+        return store;
+    }
+
+    private static void flipByte(Path path, int position) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[position] ^= 0x5A;
+        Files.write(path, bytes);
+    }
+
+    private static void assertSameBoards(SolutionSource expected, SolutionSource actual, String message) {
+        assertEquals(expected.size(), actual.size(), message);
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i).getCols(), actual.get(i).getCols(), message + " board " + i);
+            assertEquals(expected.get(i).getMultiplicity(), actual.get(i).getMultiplicity());
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package storage;
+
+import model.Solution;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolutionStoreTest {
+
+    private static final int N = 12;
+    private static final int WRITERS = 8;
+    private static final int PER_WRITER = 25_000;
+
+    @ParameterizedTest
+    @EnumSource(SolutionStore.Mode.class)
+    void concurrentAppendersStoreEveryBoardOnce(SolutionStore.Mode mode) throws Exception {
+        SolutionStore store = new SolutionStore(mode);
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicReference<Throwable> readFailure = new AtomicReference<>();
+
+        List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            writers.add(Thread.ofPlatform().start(() -> {
+                awaitQuietly(go);
+                try (SolutionSink.Appender appender = store.appender()) {
+                    for (int i = 0; i < PER_WRITER; i++) {
+                        appender.add(new Solution(encode(writer * PER_WRITER + i), 1 << (i & 3)));
+                    }
+                }
+            }));
+        }
+        // Reads while the writers run: every index below size() must be readable right away
+        Thread reader = Thread.ofPlatform().start(() -> {
+            awaitQuietly(go);
+            try {
+                while (writing.get()) {
+                    int size = store.size();
+                    if (size > 0) {
+                        assertNotNull(store.get(size - 1));
+                        assertNotNull(store.get(size / 2));
+                    }
+                }
+            } catch (Throwable ex) {
+                readFailure.set(ex);
+            }
+        });
+
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            go.countDown();
+            for (Thread writer : writers) {
+                writer.join();
+            }
+            writing.set(false);
+            reader.join();
+        });
+        assertNull(readFailure.get());
+
+        assertEquals(WRITERS * PER_WRITER, store.size());
+        BitSet seen = new BitSet(WRITERS * PER_WRITER);
+        for (Solution solution : store) {
+            int value = decode(solution.getCols());
+            assertEquals(1 << ((value % PER_WRITER) & 3), solution.getMultiplicity());
+            assertTrue(!seen.get(value), "stored twice: " + value);
+            seen.set(value);
+        }
+        assertEquals(WRITERS * PER_WRITER, seen.cardinality());
+    }
+
+    @ParameterizedTest
+    @EnumSource(SolutionStore.Mode.class)
+    void singleAddsCrossChunkBoundaries(SolutionStore.Mode mode) {
+        SolutionStore store = new SolutionStore(mode);
+        int count = 200_000; // past the growing chunks into fixed-size ones
+        for (int i = 0; i < count; i++) {
+            store.add(new Solution(encode(i)));
+        }
+        assertEquals(count, store.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, decode(store.get(i).getCols()));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> store.get(count));
+    }
+
+    @Test
+    void sizeCountsWrittenSlotsOnly() {
+        ObjectChunks chunks = new ObjectChunks();
+        int first = chunks.claim(1);
+        int second = chunks.claim(1);
+
+        chunks.set(second, new Solution(encode(2)));
+        chunks.commit();
+        assertEquals(0, chunks.size(), "a gap must hold the later slot back");
+
+        chunks.set(first, new Solution(encode(1)));
+        chunks.commit();
+        assertEquals(2, chunks.size());
+        assertEquals(1, decode(chunks.get(0).getCols()));
+        assertEquals(2, decode(chunks.get(1).getCols()));
+    }
+
+    @Test
+    void refusedClaimLeavesStoreUsable() {
+        ObjectChunks chunks = new ObjectChunks();
+        assertEquals(0, chunks.claim(10));
+        assertThrows(IllegalStateException.class, () -> chunks.claim(Integer.MAX_VALUE));
+        assertThrows(IllegalStateException.class, () -> chunks.claim(Integer.MAX_VALUE - 10));
+
+        assertEquals(10, chunks.claim(1));
+        for (int i = 0; i <= 10; i++) {
+            chunks.set(i, new Solution(encode(i)));
+        }
+        chunks.commit();
+        assertEquals(11, chunks.size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 4, 5, 8, 9, 16, 17, 31, 32, 33, 64})
+    void packedBoardsRoundTrip(int n) {
+        Random random = new Random(n);
+        List<Solution> boards = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            int[] cols = new int[n];
+            for (int r = 0; r < n; r++) {
+                cols[r] = random.nextInt(n);
+            }
+            boards.add(new Solution(cols, 1 << random.nextInt(4)));
+        }
+
+        for (SolutionStore.Mode mode : List.of(SolutionStore.Mode.PACKED, SolutionStore.Mode.PACKED_OFF_HEAP)) {
+            SolutionStore store = new SolutionStore(mode);
+            try (SolutionSink.Appender appender = store.appender()) {
+                boards.forEach(appender::add);
+            }
+            assertEquals(boards.size(), store.size());
+            for (int i = 0; i < boards.size(); i++) {
+                assertArrayEquals(boards.get(i).getCols(), store.get(i).getCols(), mode + " board " + i);
+                assertEquals(boards.get(i).getMultiplicity(), store.get(i).getMultiplicity());
+            }
+        }
+    }
+
+    @Test
+    void packedStoreRejectsOtherBoardSizes() {
+        SolutionStore store = new SolutionStore(SolutionStore.Mode.PACKED);
+        store.add(new Solution(encode(0)));
+        assertThrows(IllegalArgumentException.class, () -> store.add(new Solution(new int[N + 1])));
+    }
+
+    @Test
+    void clearStartsEmpty() {
+        SolutionStore store = new SolutionStore();
+        store.add(new Solution(encode(7)));
+        store.clear();
+        assertEquals(0, store.size());
+        store.add(new Solution(encode(8)));
+        assertEquals(8, decode(store.get(0).getCols()));
+    }
+
+    /** Writes value as base-N digits, one per row, so it survives packing. */
+    private static int[] encode(int value) {
+        int[] cols = new int[N];
+        for (int r = 0; r < N && value > 0; r++) {
+            cols[r] = value % N;
+            value /= N;
+        }
+        return cols;
+    }
+
+    private static int decode(int[] cols) {
+        int value = 0;
+        for (int r = cols.length - 1; r >= 0; r--) {
+            value = value * N + cols[r];
+        }
+        return value;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
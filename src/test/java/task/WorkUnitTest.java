@@ -0,0 +1,109 @@
+package task;
+
+import org.junit.jupiter.api.Test;
+import solver.BitboardSolver;
+import worker.ParallelSolverWorker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorkUnitTest {
+
+    /** Many more units than root prefixes, so that prefixes are split. */
+    private static final int TARGET_UNITS = 64;
+
+    @Test
+    void unitsCoverTheInputWithTheSameWeights() {
+        for (int n = 6; n <= 12; n++) {
+            List<Prefix> roots = Prefix.symmetricFirstRow(n);
+            List<Prefix> leaves = leaves(WorkUnit.partition(n, roots, new SubtreeEstimator(n, 0), TARGET_UNITS));
+
+            // Expanded to the deepest split, both lists are the same prefixes in the same order
+            int depth = 0;
+            for (Prefix leaf : leaves) {
+                depth = Math.max(depth, leaf.depth());
+            }
+            assertTrue(depth > roots.get(0).depth(), "n=" + n + " was not split");
+            assertSamePrefixes(Prefix.expand(n, roots, depth), Prefix.expand(n, leaves, depth), "n=" + n);
+        }
+    }
+
+    @Test
+    void partitionedCountsAreUnchanged() {
+        BitboardSolver solver = new BitboardSolver();
+        for (int n = 4; n <= 12; n++) {
+            List<WorkUnit> units = WorkUnit.partition(
+                    n, Prefix.symmetricFirstRow(n), new SubtreeEstimator(n, 0), TARGET_UNITS);
+            long total = 0;
+            for (Prefix prefix : leaves(units)) {
+                total += prefix.getWeight() * solver.count(n, prefix.toBoard(n), prefix.depth());
+            }
+            assertEquals(solver.count(n), total, "n=" + n);
+        }
+    }
+
+    @Test
+    void smallPrefixesAreMergedUpToTheTarget() {
+        int n = 10;
+        int targetUnits = 4;
+        List<Prefix> roots = Prefix.expand(n, Prefix.symmetricFirstRow(n), 3);
+        List<WorkUnit> units = WorkUnit.partition(n, roots, new SubtreeEstimator(n, 0), targetUnits);
+
+        // No prefix is near half of the total, so none is split and the leaves are the roots
+        assertSamePrefixes(roots, leaves(units), "merging keeps every prefix in order");
+        double target = WorkUnit.totalNodes(units) / targetUnits;
+        for (int i = 0; i < units.size() - 1; i++) {
+            assertTrue(units.get(i).getEstimatedNodes() >= target * (1 - 1e-9), "unit " + i + " below the target");
+        }
+        assertTrue(units.size() <= targetUnits + 1, units.size() + " units");
+    }
+
+    @Test
+    void eachPrefixIsItsOwnUnit() {
+        List<Prefix> roots = Prefix.firstRow(8);
+        List<WorkUnit> units = WorkUnit.each(roots);
+        assertEquals(roots.size(), units.size());
+        assertEquals(roots.size(), WorkUnit.totalNodes(units));
+    }
+
+    @Test
+    void targetUnitsMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () ->
+                WorkUnit.partition(8, Prefix.firstRow(8), new SubtreeEstimator(8, 0), 0));
+    }
+
+    @Test
+    void partitionedParallelCountMatchesTheSerialOne() throws Exception {
+        // Boards from MIN_N on are partitioned by the worker itself
+        for (int n = SubtreeEstimator.MIN_N; n <= SubtreeEstimator.MIN_N + 1; n++) {
+            CompletableFuture<Long> result = new CompletableFuture<>();
+            new ParallelSolverWorker(new BitboardSolver(), null, 4, null, null, SubtreeEstimator.DEFAULT_OVERHEAD)
+                    .count(n, result::complete, result::completeExceptionally);
+            assertEquals(new BitboardSolver().count(n), result.get(1, TimeUnit.MINUTES), "n=" + n);
+        }
+    }
+
+    private static List<Prefix> leaves(List<WorkUnit> units) {
+        List<Prefix> leaves = new ArrayList<>();
+        for (WorkUnit unit : units) {
+            leaves.addAll(unit.getPrefixes());
+        }
+        return leaves;
+    }
+
+    private static void assertSamePrefixes(List<Prefix> expected, List<Prefix> actual, String message) {
+        assertEquals(expected.size(), actual.size(), message);
+        for (int i = 0; i < expected.size(); i++) {
+            assertTrue(Arrays.equals(expected.get(i).getCols(), actual.get(i).getCols()),
+                    message + ": " + expected.get(i) + " vs " + actual.get(i));
+            assertEquals(expected.get(i).getWeight(), actual.get(i).getWeight(), message);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package trace;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import solver.BitboardSolver;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchTraceTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replayMatchesTheRecordedSteps() throws IOException {
+        for (int n = 1; n <= 10; n++) {
+            List<int[]> steps = new ArrayList<>();
+            try (TraceReplay replay = record(SearchTrace.record(dir.resolve("n" + n + ".trace"), n), n, steps)) {
+                assertReplays(replay, steps, 0, "n=" + n);
+            }
+        }
+    }
+
+    @Test
+    void reopenedFileReplaysTheSameSearch() throws IOException {
+        int n = 11; // several keyframes
+        Path path = dir.resolve("search.trace");
+        List<int[]> steps = new ArrayList<>();
+        record(SearchTrace.record(path, n), n, steps).close();
+
+        try (TraceReplay replay = SearchTrace.open(path)) {
+            assertEquals(n, replay.boardSize());
+            assertEquals(0, replay.firstEvent());
+            assertEquals(steps.size(), replay.eventCount());
+            assertEquals(2680, replay.solutionCount());
+            assertTrue(replay.eventCount() > 2L * SearchTrace.DEFAULT_KEYFRAME_INTERVAL);
+            assertSeeks(replay, steps);
+            replay.seek(0);
+            assertReplays(replay, steps, 0, "reopened");
+        }
+    }
+
+    @Test
+    void inMemoryTraceWithoutOverflowKeepsEverything() throws IOException {
+        int n = 8;
+        List<int[]> steps = new ArrayList<>();
+        try (TraceReplay replay = record(SearchTrace.recordInMemory(n, 1 << 20), n, steps)) {
+            assertEquals(0, replay.firstEvent());
+            assertSeeks(replay, steps);
+        }
+    }
+
+    @Test
+    void overflowedRingKeepsTheLatestEvents() throws IOException {
+        int n = 10;
+        List<int[]> steps = new ArrayList<>();
+        try (TraceReplay replay = record(SearchTrace.recordInMemory(n, 1 << 12), n, steps)) {
+            long first = replay.firstEvent();
+            assertTrue(first > 0, "the ring should have dropped events");
+            assertEquals(steps.size(), replay.eventCount(), "counts cover the whole search");
+            assertEquals(724, replay.solutionCount());
+
+            assertThrows(IndexOutOfBoundsException.class, () -> replay.seek(first - 1));
+            assertThrows(IndexOutOfBoundsException.class, () -> replay.seekSolution(0));
+
+            replay.seek(first);
+            assertReplays(replay, steps, first, "ring");
+            replay.seek(replay.eventCount());
+            assertArrayEquals(steps.get(steps.size() - 1), replay.board());
+            replay.seekSolution(723);
+            assertEquals(724, replay.solutionsSeen());
+            assertArrayEquals(lastSolution(steps, n), replay.board());
+        }
+    }
+
+    @Test
+    void tooLargeBoardsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> SearchTrace.recordInMemory(SearchTrace.MAX_N + 1, 1 << 12));
+        assertThrows(IllegalArgumentException.class, () -> SearchTrace.recordInMemory(0, 1 << 12));
+    }
+
+    /**
+     * Runs the search with the recorder as onStep, copying every step into steps.
+     */
+    private static TraceReplay record(TraceRecorder recorder, int n, List<int[]> steps) throws IOException {
+        new BitboardSolver().solve(n, cols -> {
+            recorder.accept(cols);
+            steps.add(cols.clone());
+        }, null, true);
+        assertEquals(steps.size(), recorder.eventCount());
+        return recorder.finish();
+    }
+
+    /**
+     * Steps from the replay's current position (which must be event from) to the end.
+     */
+    private static void assertReplays(TraceReplay replay, List<int[]> steps, long from, String message) {
+        assertEquals(from, replay.position(), message);
+        for (long event = from; event < steps.size(); event++) {
+            assertTrue(replay.next(), message + ": ended at event " + event);
+            assertArrayEquals(steps.get((int) event), replay.board(), message + ": event " + event);
+        }
+        assertFalse(replay.next(), message + ": events beyond the search");
+    }
+
+    /**
+     * Seeks forwards and backwards to events and solutions and checks the boards.
+     */
+    private static void assertSeeks(TraceReplay replay, List<int[]> steps) {
+        int n = replay.boardSize();
+        long[] targets = {steps.size(), 1, steps.size() / 2, steps.size() / 3, 0, steps.size() - 1, 7};
+        for (long event : targets) {
+            replay.seek(event);
+            assertEquals(event, replay.position());
+            int[] expected = new int[n];
+            Arrays.fill(expected, -1);
+            assertArrayEquals(event == 0 ? expected : steps.get((int) event - 1), replay.board(), "seek " + event);
+        }
+
+        List<int[]> solutions = new ArrayList<>();
+        for (int[] step : steps) {
+            if (step[n - 1] >= 0) solutions.add(step);
+        }
+        assertEquals(solutions.size(), replay.solutionCount());
+        int count = solutions.size();
+        for (int index : new int[]{count - 1, 0, count / 2, count / 4, count - 1}) {
+            replay.seekSolution(index);
+            assertEquals(index + 1, replay.solutionsSeen());
+            assertArrayEquals(solutions.get(index), replay.board(), "solution " + index);
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> replay.seekSolution(count));
+        assertThrows(IndexOutOfBoundsException.class, () -> replay.seek(steps.size() + 1));
+    }
+
+    private static int[] lastSolution(List<int[]> steps, int n) {
+        for (int i = steps.size() - 1; i >= 0; i--) {
+            if (steps.get(i)[n - 1] >= 0) return steps.get(i);
+        }
+        throw new AssertionError("no solution recorded");
+    }
+}